@@ -0,0 +1,39 @@
+package com.truongvietdung.benchmark;
+
+import com.truongvietdung.Base3rdParty;
+import com.truongvietdung.config.ApiInfo;
+import com.truongvietdung.config.ThirdPartyConfiguration;
+
+/**
+ * Partner client as services declare it, wired by hand instead of by Spring.
+ */
+public class BenchmarkPartner extends Base3rdParty {
+
+  public static final String KEY = "partner";
+
+  public BenchmarkPartner(String baseUrl) {
+    this(newConfiguration(new ApiInfo().setBaseUrl(baseUrl)));
+  }
+
+  public BenchmarkPartner(ThirdPartyConfiguration thirdPartyConfiguration) {
+    setThirdPartyConfiguration(thirdPartyConfiguration);
+  }
+
+  public static ThirdPartyConfiguration newConfiguration(ApiInfo apiInfo) {
+    ThirdPartyConfiguration thirdPartyConfiguration = new ThirdPartyConfiguration();
+    thirdPartyConfiguration.put(KEY, apiInfo.setAuthorization("Bearer benchmark-token"));
+    return thirdPartyConfiguration;
+  }
+
+  @Override
+  public String getKeyConfig() {
+    return KEY;
+  }
+
+  public static class Order {
+
+    public long id;
+    public String status;
+    public long amount;
+  }
+}
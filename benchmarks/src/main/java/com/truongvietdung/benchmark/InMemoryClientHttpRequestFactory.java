@@ -0,0 +1,100 @@
+package com.truongvietdung.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.AbstractClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Answers every request with the same JSON body without touching the network, so benchmarks measure
+ * only the client-side work of a call.
+ */
+public class InMemoryClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+  private final byte[] responseBody;
+  private final HttpHeaders responseHeaders = new HttpHeaders();
+
+  public InMemoryClientHttpRequestFactory(byte[] responseBody) {
+    this.responseBody = responseBody;
+    this.responseHeaders.setContentType(MediaType.APPLICATION_JSON);
+    this.responseHeaders.setContentLength(responseBody.length);
+  }
+
+  @Override
+  public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) {
+    return new InMemoryRequest(uri, httpMethod);
+  }
+
+  private class InMemoryRequest extends AbstractClientHttpRequest {
+
+    private final URI uri;
+    private final HttpMethod httpMethod;
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+    InMemoryRequest(URI uri, HttpMethod httpMethod) {
+      this.uri = uri;
+      this.httpMethod = httpMethod;
+    }
+
+    @Override
+    public String getMethodValue() {
+      return httpMethod.name();
+    }
+
+    @Override
+    public URI getURI() {
+      return uri;
+    }
+
+    @Override
+    protected OutputStream getBodyInternal(HttpHeaders headers) {
+      return body;
+    }
+
+    @Override
+    protected ClientHttpResponse executeInternal(HttpHeaders headers) {
+      return new InMemoryResponse();
+    }
+  }
+
+  private class InMemoryResponse implements ClientHttpResponse {
+
+    @Override
+    public HttpStatus getStatusCode() {
+      return HttpStatus.OK;
+    }
+
+    @Override
+    public int getRawStatusCode() {
+      return HttpStatus.OK.value();
+    }
+
+    @Override
+    public String getStatusText() {
+      return HttpStatus.OK.getReasonPhrase();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return responseHeaders;
+    }
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(responseBody);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
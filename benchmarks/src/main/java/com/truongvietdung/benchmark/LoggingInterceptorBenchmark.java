@@ -0,0 +1,87 @@
+package com.truongvietdung.benchmark;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import com.truongvietdung.config.LogInfo;
+import com.truongvietdung.config.interceptor.AsyncLogWriter;
+import com.truongvietdung.config.interceptor.LoggingRequestInterceptor;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Cost of {@link LoggingRequestInterceptor} on the calling thread, with its logger at {@code INFO}
+ * (pass-through) and at {@code DEBUG} (captured, sampled by {@code sampleRate}).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LoggingInterceptorBenchmark {
+
+  private static final byte[] RESPONSE_BODY = new byte[8_192];
+
+  static {
+    byte[] item = "{\"id\":42,\"status\":\"PAID\"},".getBytes(StandardCharsets.UTF_8);
+    RESPONSE_BODY[0] = '[';
+    for (int i = 1; i < RESPONSE_BODY.length - item.length; i += item.length) {
+      System.arraycopy(item, 0, RESPONSE_BODY, i, item.length);
+    }
+    RESPONSE_BODY[RESPONSE_BODY.length - 1] = ']';
+  }
+
+  @Param({"false", "true"})
+  public boolean debug;
+
+  @Param({"1.0", "0.01"})
+  public double sampleRate;
+
+  private Logger logger;
+  private AsyncLogWriter logWriter;
+  private RestTemplate restTemplate;
+  private URI uri;
+  private HttpEntity<Map<String, Object>> entity;
+
+  @Setup
+  public void setUp() {
+    logger = (Logger) LoggerFactory.getLogger(LoggingRequestInterceptor.class);
+    logger.setLevel(debug ? Level.DEBUG : Level.INFO);
+    logWriter = new AsyncLogWriter(1_024);
+    restTemplate = new RestTemplate(new InMemoryClientHttpRequestFactory(RESPONSE_BODY));
+    restTemplate.getInterceptors().add(new LoggingRequestInterceptor(BenchmarkPartner.KEY,
+        new LogInfo().setSampleRate(sampleRate), logWriter));
+    uri = URI.create("https://partner.example.com/api/v1/orders");
+    entity = new HttpEntity<>(Collections.singletonMap("status", "PAID"));
+  }
+
+  @TearDown
+  public void tearDown() {
+    logWriter.close();
+    logger.setLevel(null);
+  }
+
+  @Benchmark
+  public String exchange() {
+    return restTemplate.exchange(uri, HttpMethod.POST, entity, String.class).getBody();
+  }
+}
@@ -0,0 +1,98 @@
+package com.truongvietdung.benchmark;
+
+import com.truongvietdung.benchmark.BenchmarkPartner.Order;
+import com.truongvietdung.helpers.IRestTemplateBuilder;
+import com.truongvietdung.helpers.PreparedRequest;
+import com.truongvietdung.helpers.RestTemplateBuilder;
+import com.truongvietdung.helpers.UrlTemplate;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Per-call overhead of building a request with {@link RestTemplateBuilder} and of a whole exchange
+ * against an in-memory transport, so only client-side work is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestBuildingBenchmark {
+
+  private static final byte[] RESPONSE_BODY =
+      "{\"id\":42,\"status\":\"PAID\",\"amount\":1250}".getBytes(StandardCharsets.UTF_8);
+
+  private BenchmarkPartner partner;
+  private RestTemplate restTemplate;
+  private UrlTemplate urlTemplate;
+  private Map<String, Object> uriVariables;
+  private Map<String, Object> body;
+  private PreparedRequest<Order> preparedRequest;
+
+  @Setup
+  public void setUp() {
+    partner = new BenchmarkPartner("https://partner.example.com/api/");
+    restTemplate = new RestTemplate(new InMemoryClientHttpRequestFactory(RESPONSE_BODY));
+    urlTemplate = partner.getUrlTemplate("/v1/orders/{id}");
+    uriVariables = Collections.singletonMap("id", 42);
+    body = Collections.singletonMap("status", "PAID");
+    preparedRequest = PreparedRequest.builder(restTemplate, HttpMethod.GET, urlTemplate, Order.class)
+        .header(HttpHeaders.AUTHORIZATION, "Bearer benchmark-token")
+        .build();
+  }
+
+  @Benchmark
+  public IRestTemplateBuilder getInstance() {
+    IRestTemplateBuilder restTemplateBuilder = RestTemplateBuilder.getInstance(restTemplate, HttpMethod.GET)
+        .setUrl(urlTemplate)
+        .uriVariables(uriVariables);
+    restTemplateBuilder.headersBuilder()
+        .setBearerAuth("benchmark-token")
+        .setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+    return restTemplateBuilder;
+  }
+
+  @Benchmark
+  public IRestTemplateBuilder partnerGet() {
+    return partner.get("/v1/orders/{id}").uriVariables(uriVariables);
+  }
+
+  @Benchmark
+  public HttpEntity<Map<String, Object>> httpEntity() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_JSON);
+    headers.setBearerAuth("benchmark-token");
+    return new HttpEntity<>(body, headers);
+  }
+
+  @Benchmark
+  public Order getResponse() {
+    return RestTemplateBuilder.getInstance(restTemplate, HttpMethod.GET)
+        .setUrl(urlTemplate)
+        .uriVariables(uriVariables)
+        .getResponse(Order.class);
+  }
+
+  @Benchmark
+  public Order preparedRequest() {
+    return preparedRequest.execute(uriVariables);
+  }
+}
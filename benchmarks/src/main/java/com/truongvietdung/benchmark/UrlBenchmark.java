@@ -0,0 +1,47 @@
+package com.truongvietdung.benchmark;
+
+import java.net.URI;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * {@code Base3rdParty.getUrl} and template expansion as every call runs them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBenchmark {
+
+  private BenchmarkPartner partner;
+  private Map<String, Object> uriVariables;
+
+  @Setup
+  public void setUp() {
+    partner = new BenchmarkPartner("https://partner.example.com/api/");
+    uriVariables = Collections.singletonMap("id", 42);
+  }
+
+  @Benchmark
+  public String getUrl() {
+    return partner.getUrl("/v1/orders");
+  }
+
+  @Benchmark
+  public URI expandUrlTemplate() {
+    return partner.getUrlTemplate("/v1/orders/{id}").expand(uriVariables);
+  }
+}
@@ -0,0 +1,201 @@
+package com.truongvietdung.benchmark.load;
+
+import com.truongvietdung.benchmark.BenchmarkPartner;
+import com.truongvietdung.benchmark.BenchmarkPartner.Order;
+import com.truongvietdung.config.ApiInfo;
+import com.truongvietdung.config.ThirdPartyConfiguration;
+import com.truongvietdung.helpers.IRestTemplateBuilder;
+import com.truongvietdung.metrics.InMemoryThirdPartyMetrics;
+import com.truongvietdung.metrics.LatencyHistogram;
+import java.io.IOException;
+import java.net.SocketTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import org.apache.http.pool.PoolStats;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Drives {@code Base3rdParty} → {@code RestTemplateBuilder} → the pooled client of
+ * {@link ThirdPartyConfiguration} against a {@link StubPartnerServer} on localhost, and reports
+ * throughput, latency percentiles, time spent before the request reached the server (pool wait plus
+ * connect), pool occupancy and connection reuse.
+ *
+ * <pre>
+ * java -cp target/benchmarks.jar com.truongvietdung.benchmark.load.LoadTest \
+ *     concurrency=200 maxPerRoute=50 latencyMedian=40 slowRate=0.01 resetRate=0.001
+ * </pre>
+ */
+public class LoadTest {
+
+  private static final long POOL_SAMPLE_INTERVAL = 50;
+
+  private final LoadTestOptions options;
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder succeeded = new LongAdder();
+  private final ConcurrentMap<String, LongAdder> failures = new ConcurrentHashMap<>();
+  private final Map<String, PoolSampler> poolSamplers = new TreeMap<>();
+
+  public LoadTest(LoadTestOptions options) {
+    this.options = options;
+  }
+
+  public static void main(String[] args) throws Exception {
+    LoadTestOptions options = LoadTestOptions.parse(args);
+    System.out.println("options: " + options);
+    new LoadTest(options).run();
+    System.exit(0);
+  }
+
+  public void run() throws Exception {
+    try (StubPartnerServer server = new StubPartnerServer(options)) {
+      ThirdPartyConfiguration thirdPartyConfiguration =
+          BenchmarkPartner.newConfiguration(new ApiInfo().setBaseUrl(server.getBaseUrl()));
+      thirdPartyConfiguration.setMaxPerRoute(options.maxPerRoute);
+      thirdPartyConfiguration.setMaxTotalConnection(options.maxTotalConnection);
+      thirdPartyConfiguration.setReadTimeout(options.readTimeout);
+      thirdPartyConfiguration.setConnectTimeout(options.connectTimeout);
+      thirdPartyConfiguration.thirdPartyRestTemplate();
+      BenchmarkPartner partner = new BenchmarkPartner(thirdPartyConfiguration);
+
+      long start = System.nanoTime();
+      long measureFrom = start + TimeUnit.SECONDS.toNanos(options.warmupSeconds);
+      long measureUntil = measureFrom + TimeUnit.SECONDS.toNanos(options.durationSeconds);
+      CountDownLatch done = new CountDownLatch(options.concurrency);
+      for (int i = 0; i < options.concurrency; i++) {
+        Thread worker = new Thread(() -> {
+          try {
+            drive(partner, measureFrom, measureUntil);
+          } finally {
+            done.countDown();
+          }
+        }, "load-" + i);
+        worker.setDaemon(true);
+        worker.start();
+      }
+
+      ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "load-pool-sampler");
+        thread.setDaemon(true);
+        return thread;
+      });
+      TimeUnit.NANOSECONDS.sleep(measureFrom - System.nanoTime());
+      server.resetStatistics();
+      InMemoryThirdPartyMetrics metrics = (InMemoryThirdPartyMetrics) thirdPartyConfiguration.getMetrics();
+      for (Map.Entry<String, Supplier<PoolStats>> pool : metrics.getPools().entrySet()) {
+        PoolSampler poolSampler = new PoolSampler(pool.getValue());
+        poolSamplers.put(pool.getKey(), poolSampler);
+        sampler.scheduleAtFixedRate(poolSampler, 0, POOL_SAMPLE_INTERVAL, TimeUnit.MILLISECONDS);
+      }
+      done.await();
+      sampler.shutdownNow();
+      long elapsed = Math.min(System.nanoTime(), measureUntil) - measureFrom;
+      report(server, elapsed);
+      thirdPartyConfiguration.destroy();
+    }
+  }
+
+  private void drive(BenchmarkPartner partner, long measureFrom, long measureUntil) {
+    for (long id = 0; ; id++) {
+      long start = System.nanoTime();
+      if (start >= measureUntil) {
+        return;
+      }
+      IRestTemplateBuilder restTemplateBuilder = partner.get("/v1/orders/{id}").uriVariable("id", id);
+      restTemplateBuilder.headersBuilder().add(StubPartnerServer.SENT_HEADER, Long.toString(start));
+      String failure = null;
+      try {
+        restTemplateBuilder.getResponse(Order.class);
+      } catch (HttpStatusCodeException e) {
+        failure = "status " + e.getRawStatusCode();
+      } catch (ResourceAccessException e) {
+        failure = e.getCause() instanceof SocketTimeoutException ? "read/connect timeout"
+            : e.getCause() != null ? e.getCause().getClass().getSimpleName() : "I/O error";
+      } catch (RuntimeException e) {
+        failure = e.getClass().getSimpleName();
+      }
+      if (start < measureFrom) {
+        continue;
+      }
+      if (failure == null) {
+        latency.record(System.nanoTime() - start);
+        succeeded.increment();
+      } else {
+        failures.computeIfAbsent(failure, ignored -> new LongAdder()).increment();
+      }
+    }
+  }
+
+  private void report(StubPartnerServer server, long elapsedNanos) {
+    double seconds = elapsedNanos / 1e9;
+    long failed = failures.values().stream().mapToLong(LongAdder::sum).sum();
+    System.out.printf("throughput: %.1f req/s (%d ok, %d failed in %.1f s)%n",
+        (succeeded.sum() + failed) / seconds, succeeded.sum(), failed, seconds);
+    System.out.println("latency of successful calls: " + percentiles(latency));
+    System.out.println("time to reach server (pool wait + connect + send): " + percentiles(server.getArrivalDelay()));
+    Map<String, Long> failureCounts = new TreeMap<>();
+    failures.forEach((failure, count) -> failureCounts.put(failure, count.sum()));
+    System.out.println("failures: " + failureCounts);
+    for (Map.Entry<String, PoolSampler> pool : poolSamplers.entrySet()) {
+      System.out.println("pool '" + pool.getKey() + "': " + pool.getValue());
+    }
+    long connections = server.getConnectionCount();
+    System.out.printf("connections opened: %d, requests per connection: %.1f%n", connections,
+        connections == 0 ? 0.0 : (double) server.getRequestCount() / connections);
+    System.out.printf("stub partner: %d requests, %d errors, %d slow, %d hung, %d resets%n", server.getRequestCount(),
+        server.getErrorCount(), server.getSlowResponseCount(), server.getHungResponseCount(), server.getResetCount());
+  }
+
+  private static String percentiles(LatencyHistogram histogram) {
+    List<String> values = new ArrayList<>();
+    for (double percentile : new double[] {50, 90, 99, 99.9}) {
+      values.add(String.format("p%s=%.2fms", percentile == 99.9 ? "99.9" : String.valueOf((int) percentile),
+          histogram.getPercentileNanos(percentile) / 1e6));
+    }
+    values.add(String.format("max=%.2fms", histogram.getMaxNanos() / 1e6));
+    return String.join(" ", values);
+  }
+
+  /**
+   * Periodic snapshot of one connection pool; pending leases are requests waiting for a connection.
+   */
+  private static class PoolSampler implements Runnable {
+
+    private final Supplier<PoolStats> stats;
+    private long samples;
+    private long totalPending;
+    private int maxPending;
+    private int maxLeased;
+    private int max;
+
+    PoolSampler(Supplier<PoolStats> stats) {
+      this.stats = stats;
+    }
+
+    @Override
+    public synchronized void run() {
+      PoolStats current = stats.get();
+      samples++;
+      totalPending += current.getPending();
+      maxPending = Math.max(maxPending, current.getPending());
+      maxLeased = Math.max(maxLeased, current.getLeased());
+      max = current.getMax();
+    }
+
+    @Override
+    public synchronized String toString() {
+      return String.format("max leased %d of %d, pending mean %.1f max %d", maxLeased, max,
+          samples == 0 ? 0.0 : (double) totalPending / samples, maxPending);
+    }
+  }
+}
@@ -0,0 +1,73 @@
+package com.truongvietdung.benchmark.load;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+
+/**
+ * Settings of one load-test run, given on the command line as {@code name=value}. Times are in
+ * milliseconds unless the name says otherwise; rates are fractions of requests between 0 and 1.
+ */
+public class LoadTestOptions {
+
+  // client
+  public int concurrency = 64;
+  public int warmupSeconds = 5;
+  public int durationSeconds = 30;
+  public int maxPerRoute = 40;
+  public int maxTotalConnection = 100;
+  public int readTimeout = 2_000;
+  public int connectTimeout = 500;
+
+  // stub partner
+  public double latencyMedian = 20;
+  public double latencySigma = 0.5;
+  public double slowRate = 0;
+  public int slowLatency = 1_000;
+  public double hangRate = 0;
+  public int hangTime = 30_000;
+  public double errorRate = 0;
+  public double resetRate = 0;
+  public int responseBytes = 256;
+
+  public static LoadTestOptions parse(String... args) {
+    LoadTestOptions options = new LoadTestOptions();
+    for (String arg : args) {
+      int separator = arg.indexOf('=');
+      if (separator < 0) {
+        throw new IllegalArgumentException("Expected name=value but was " + arg);
+      }
+      options.set(arg.substring(0, separator).trim(), arg.substring(separator + 1).trim());
+    }
+    return options;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder description = new StringBuilder();
+    for (Field field : getClass().getFields()) {
+      if (!Modifier.isStatic(field.getModifiers())) {
+        try {
+          description.append(description.length() == 0 ? "" : " ").append(field.getName()).append('=').append(field.get(this));
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException(e);
+        }
+      }
+    }
+    return description.toString();
+  }
+
+  private void set(String name, String value) {
+    try {
+      Field field = getClass().getField(name);
+      if (field.getType() == int.class) {
+        field.setInt(this, Integer.parseInt(value));
+      } else {
+        field.setDouble(this, Double.parseDouble(value));
+      }
+    } catch (NoSuchFieldException e) {
+      throw new IllegalArgumentException("Unknown option " + name);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
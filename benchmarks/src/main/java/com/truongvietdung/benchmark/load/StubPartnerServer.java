@@ -0,0 +1,225 @@
+package com.truongvietdung.benchmark.load;
+
+import com.truongvietdung.metrics.LatencyHistogram;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Minimal HTTP/1.1 keep-alive server on the loopback interface that behaves like a partner under
+ * stress: log-normal latency, slow and hung responses, {@code 503}s and connection resets. Works on raw
+ * sockets so that resets are real {@code RST}s and every accepted connection is counted.
+ */
+public class StubPartnerServer implements Closeable {
+
+  /**
+   * Request header carrying the client's {@link System#nanoTime()} when the call started; the server
+   * records how long the request took to arrive, i.e. pool wait plus connect and send.
+   */
+  public static final String SENT_HEADER = "X-Load-Sent";
+
+  private final LoadTestOptions options;
+  private final ServerSocket serverSocket;
+  private final ExecutorService workers;
+  private final byte[] responseBody;
+  private volatile LatencyHistogram arrivalDelay = new LatencyHistogram();
+  private final LongAdder connections = new LongAdder();
+  private final LongAdder requests = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final LongAdder slowResponses = new LongAdder();
+  private final LongAdder hungResponses = new LongAdder();
+  private final LongAdder resets = new LongAdder();
+  private volatile boolean closed;
+
+  public StubPartnerServer(LoadTestOptions options) throws IOException {
+    this.options = options;
+    this.responseBody = newResponseBody(options.responseBytes);
+    this.serverSocket = new ServerSocket(0, 4_096, InetAddress.getLoopbackAddress());
+    this.workers = Executors.newCachedThreadPool(runnable -> {
+      Thread thread = new Thread(runnable, "stub-partner");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.workers.execute(this::accept);
+  }
+
+  public String getBaseUrl() {
+    return "http://localhost:" + serverSocket.getLocalPort();
+  }
+
+  public LatencyHistogram getArrivalDelay() {
+    return arrivalDelay;
+  }
+
+  public long getConnectionCount() {
+    return connections.sum();
+  }
+
+  public long getRequestCount() {
+    return requests.sum();
+  }
+
+  public long getErrorCount() {
+    return errors.sum();
+  }
+
+  public long getSlowResponseCount() {
+    return slowResponses.sum();
+  }
+
+  public long getHungResponseCount() {
+    return hungResponses.sum();
+  }
+
+  public long getResetCount() {
+    return resets.sum();
+  }
+
+  /**
+   * Forgets everything recorded so far, e.g. at the end of the warm-up.
+   */
+  public void resetStatistics() {
+    arrivalDelay = new LatencyHistogram();
+    for (LongAdder counter : Arrays.asList(connections, requests, errors, slowResponses, hungResponses, resets)) {
+      counter.reset();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    closed = true;
+    serverSocket.close();
+    workers.shutdownNow();
+  }
+
+  private void accept() {
+    while (!closed) {
+      try {
+        Socket socket = serverSocket.accept();
+        connections.increment();
+        workers.execute(() -> serve(socket));
+      } catch (IOException e) {
+        if (!closed) {
+          System.err.println("Stub partner cannot accept: " + e);
+        }
+      }
+    }
+  }
+
+  private void serve(Socket socket) {
+    try (Socket connection = socket) {
+      connection.setTcpNoDelay(true);
+      InputStream in = new BufferedInputStream(connection.getInputStream());
+      OutputStream out = new BufferedOutputStream(connection.getOutputStream());
+      while (!closed && readRequest(in)) {
+        requests.increment();
+        if (!respond(connection, out)) {
+          return;
+        }
+      }
+    } catch (IOException | InterruptedException ignored) {
+      // client gave up on the connection, or the server is closing
+    }
+  }
+
+  /**
+   * Reads one request, skipping its body; returns {@code false} when the client closed the connection.
+   */
+  private boolean readRequest(InputStream in) throws IOException {
+    String requestLine = readLine(in);
+    if (requestLine == null) {
+      return false;
+    }
+    long contentLength = 0;
+    for (String header = readLine(in); header != null && !header.isEmpty(); header = readLine(in)) {
+      int colon = header.indexOf(':');
+      if (colon < 0) {
+        continue;
+      }
+      String name = header.substring(0, colon).trim();
+      String value = header.substring(colon + 1).trim();
+      if ("Content-Length".equalsIgnoreCase(name)) {
+        contentLength = Long.parseLong(value);
+      } else if (SENT_HEADER.equalsIgnoreCase(name)) {
+        arrivalDelay.record(System.nanoTime() - Long.parseLong(value));
+      }
+    }
+    while (contentLength > 0) {
+      long skipped = in.skip(contentLength);
+      if (skipped <= 0 && in.read() < 0) {
+        return false;
+      }
+      contentLength -= Math.max(skipped, 1);
+    }
+    return true;
+  }
+
+  /**
+   * Returns {@code false} when the connection has been dropped instead of answered.
+   */
+  private boolean respond(Socket connection, OutputStream out) throws IOException, InterruptedException {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    double fault = random.nextDouble();
+    if (fault < options.resetRate) {
+      resets.increment();
+      connection.setSoLinger(true, 0);
+      return false;
+    }
+    if (fault < options.resetRate + options.hangRate) {
+      hungResponses.increment();
+      TimeUnit.MILLISECONDS.sleep(options.hangTime);
+      return false;
+    }
+    long latency = (long) (options.latencyMedian * 1_000 * Math.exp(options.latencySigma * random.nextGaussian()));
+    if (random.nextDouble() < options.slowRate) {
+      slowResponses.increment();
+      latency += options.slowLatency * 1_000L;
+    }
+    TimeUnit.MICROSECONDS.sleep(latency);
+    boolean error = random.nextDouble() < options.errorRate;
+    if (error) {
+      errors.increment();
+    }
+    String head = (error ? "HTTP/1.1 503 Service Unavailable" : "HTTP/1.1 200 OK") + "\r\n"
+        + "Content-Type: application/json\r\n"
+        + "Content-Length: " + responseBody.length + "\r\n"
+        + "\r\n";
+    out.write(head.getBytes(StandardCharsets.ISO_8859_1));
+    out.write(responseBody);
+    out.flush();
+    return true;
+  }
+
+  private static String readLine(InputStream in) throws IOException {
+    StringBuilder line = new StringBuilder(64);
+    for (int b = in.read(); b >= 0; b = in.read()) {
+      if (b == '\n') {
+        int length = line.length();
+        return length > 0 && line.charAt(length - 1) == '\r' ? line.substring(0, length - 1) : line.toString();
+      }
+      line.append((char) b);
+    }
+    return null;
+  }
+
+  private static byte[] newResponseBody(int responseBytes) {
+    String prefix = "{\"id\":42,\"status\":\"PAID\",\"amount\":1250,\"note\":\"";
+    String suffix = "\"}";
+    char[] padding = new char[Math.max(0, responseBytes - prefix.length() - suffix.length())];
+    Arrays.fill(padding, 'x');
+    return (prefix + new String(padding) + suffix).getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -1,12 +1,26 @@
 package com.truongvietdung;
 
+import com.truongvietdung.auth.TokenCache;
+import com.truongvietdung.batch.BatchFunction;
+import com.truongvietdung.batch.MicroBatcher;
+import com.truongvietdung.codec.Codec;
+import com.truongvietdung.codec.Codecs;
 import com.truongvietdung.config.ApiInfo;
 import com.truongvietdung.config.ThirdPartyConfiguration;
+import com.truongvietdung.exchange.ExchangePipeline;
+import com.truongvietdung.helpers.AsyncRestClient;
 import com.truongvietdung.helpers.IRestTemplateBuilder;
+import com.truongvietdung.helpers.PreparedRequest;
 import com.truongvietdung.helpers.RestTemplateBuilder;
+import com.truongvietdung.helpers.UrlTemplate;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
 import lombok.Data;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
 @Data
@@ -19,9 +33,11 @@ public abstract class Base3rdParty {
   RestTemplate thirdPartyRestTemplate;
 
   public String getUrl(String uri) {
-    String baseUrl = thirdPartyConfiguration.get(getKeyConfig()).getBaseUrl() + "/" + uri;
-    return baseUrl.replaceAll("/+", "/")
-        .replaceAll("(https?:)/+", "$1//");
+    return getUrlTemplate(uri).getUrl();
+  }
+
+  public UrlTemplate getUrlTemplate(String uri) {
+    return thirdPartyConfiguration.getEndpointResolver(getKeyConfig()).resolve(uri);
   }
 
   public abstract String getKeyConfig();
@@ -29,50 +45,150 @@ public abstract class Base3rdParty {
   public IRestTemplateBuilder setAuth(IRestTemplateBuilder restTemplateBuilder) {
     ApiInfo apiInfo = getApiInfoConfig();
     restTemplateBuilder.headersBuilder()
-        .add(apiInfo.getAuthorizationHeader(), apiInfo.getAuthorization());
+        .add(apiInfo.getAuthorizationHeader(), getAuthorization());
+    return restTemplateBuilder;
+  }
+
+  /**
+   * Returns the static authorization of the partner, or the cached token of its
+   * {@link com.truongvietdung.config.AuthInfo#getProvider() credential provider}; templates of such
+   * partners also refresh the header on every attempt and retry once on {@code 401}.
+   */
+  public String getAuthorization() {
+    TokenCache tokenCache = thirdPartyConfiguration.getTokenCache(getKeyConfig());
+    return tokenCache == null ? getApiInfoConfig().getAuthorization() : tokenCache.getAuthorization();
+  }
+
+  /**
+   * Sends the body in the partner's {@link Codec} and accepts it ahead of JSON; JSON partners are left
+   * as they are.
+   */
+  public IRestTemplateBuilder negotiate(IRestTemplateBuilder restTemplateBuilder) {
+    Codec codec = getCodec();
+    if (!Codecs.JSON.equals(codec.getName())) {
+      restTemplateBuilder.headersBuilder()
+          .setContentType(codec.getMediaType())
+          .setAccept(Arrays.asList(codec.getMediaType(), MediaType.APPLICATION_JSON));
+    }
     return restTemplateBuilder;
   }
 
+  public Codec getCodec() {
+    return thirdPartyConfiguration.getCodec(getKeyConfig());
+  }
+
   public ApiInfo getApiInfoConfig() {
     return thirdPartyConfiguration.get(getKeyConfig());
   }
 
+  public RestTemplate getRestTemplate() {
+    return thirdPartyConfiguration.getRestTemplate(getKeyConfig());
+  }
+
+  public AsyncRestClient getAsyncRestClient() {
+    return thirdPartyConfiguration.getAsyncRestClient(getKeyConfig());
+  }
+
+  public ClientHttpRequestFactory getStreamingRequestFactory() {
+    return thirdPartyConfiguration.getStreamingRequestFactory(getKeyConfig());
+  }
+
+  public ExecutorService getCallExecutor() {
+    return thirdPartyConfiguration.getCallExecutor();
+  }
+
+  public ExchangePipeline getExchangePipeline() {
+    return thirdPartyConfiguration.getExchangePipeline(getKeyConfig());
+  }
+
   public IRestTemplateBuilder get(String uri) {
     IRestTemplateBuilder restTemplateBuilder = RestTemplateBuilder
-        .getInstance(thirdPartyRestTemplate, HttpMethod.GET)
-        .setUrl(getUrl(uri));
+        .getInstance(getRestTemplate(), getAsyncRestClient(), HttpMethod.GET)
+        .setUrl(getUrlTemplate(uri))
+        .setExchangePipeline(getExchangePipeline())
+        .setStreamingRequestFactory(getStreamingRequestFactory())
+        .setCallExecutor(getCallExecutor());
 
-    return setAuth(restTemplateBuilder);
+    return setAuth(negotiate(restTemplateBuilder));
   }
 
   public  IRestTemplateBuilder post(String uri) {
     IRestTemplateBuilder restTemplateBuilder = RestTemplateBuilder
-        .getInstance(thirdPartyRestTemplate, HttpMethod.POST)
-        .setUrl(getUrl(uri));
+        .getInstance(getRestTemplate(), getAsyncRestClient(), HttpMethod.POST)
+        .setUrl(getUrlTemplate(uri))
+        .setExchangePipeline(getExchangePipeline())
+        .setStreamingRequestFactory(getStreamingRequestFactory())
+        .setCallExecutor(getCallExecutor());
 
-    return setAuth(restTemplateBuilder);
+    return setAuth(negotiate(restTemplateBuilder));
   }
 
   public <B> IRestTemplateBuilder put(String uri, B body) {
     IRestTemplateBuilder restTemplateBuilder = RestTemplateBuilder
-        .getInstance(thirdPartyRestTemplate, HttpMethod.PUT, body)
-        .setUrl(getUrl(uri));
+        .getInstance(getRestTemplate(), getAsyncRestClient(), HttpMethod.PUT, body)
+        .setUrl(getUrlTemplate(uri))
+        .setExchangePipeline(getExchangePipeline())
+        .setStreamingRequestFactory(getStreamingRequestFactory())
+        .setCallExecutor(getCallExecutor());
 
-    return setAuth(restTemplateBuilder);
+    return setAuth(negotiate(restTemplateBuilder));
   }
 
   public <B> IRestTemplateBuilder post(String uri, B body) {
-    IRestTemplateBuilder restTemplateBuilder = RestTemplateBuilder.getInstance(thirdPartyRestTemplate, HttpMethod.POST, body)
-        .setUrl(getUrl(uri));
+    IRestTemplateBuilder restTemplateBuilder = RestTemplateBuilder.getInstance(getRestTemplate(), getAsyncRestClient(), HttpMethod.POST, body)
+        .setUrl(getUrlTemplate(uri))
+        .setExchangePipeline(getExchangePipeline())
+        .setStreamingRequestFactory(getStreamingRequestFactory())
+        .setCallExecutor(getCallExecutor());
 
-    return setAuth(restTemplateBuilder);
+    return setAuth(negotiate(restTemplateBuilder));
   }
 
   public IRestTemplateBuilder delete(String uri){
-    IRestTemplateBuilder restTemplateBuilder = RestTemplateBuilder.getInstance(thirdPartyRestTemplate, HttpMethod.DELETE)
-        .setUrl(getUrl(uri));
+    IRestTemplateBuilder restTemplateBuilder = RestTemplateBuilder.getInstance(getRestTemplate(), getAsyncRestClient(), HttpMethod.DELETE)
+        .setUrl(getUrlTemplate(uri))
+        .setExchangePipeline(getExchangePipeline())
+        .setStreamingRequestFactory(getStreamingRequestFactory())
+        .setCallExecutor(getCallExecutor());
+
+    return setAuth(negotiate(restTemplateBuilder));
+  }
+
+  /**
+   * Returns the batcher with the given name for this partner; items submitted to it are sent in batches
+   * through {@code batchFunction}, typically a {@link #post(String, Object)} to the partner's batch endpoint.
+   */
+  public <I, R> MicroBatcher<I, R> batcher(String name, BatchFunction<I, R> batchFunction) {
+    return thirdPartyConfiguration.getMicroBatcher(getKeyConfig(), name, batchFunction);
+  }
 
-    return setAuth(restTemplateBuilder);
+  public <T> PreparedRequest.Builder<T> prepare(HttpMethod httpMethod, String uri, Class<T> responseType) {
+    PreparedRequest.Builder<T> preparedRequestBuilder =
+        PreparedRequest.builder(getRestTemplate(), httpMethod, getUrlTemplate(uri), responseType);
+    return setAuth(negotiate(preparedRequestBuilder))
+        .exchangePipeline(getExchangePipeline());
+  }
+
+  public <T> PreparedRequest.Builder<T> prepare(HttpMethod httpMethod, String uri,
+      ParameterizedTypeReference<T> responseType) {
+    PreparedRequest.Builder<T> preparedRequestBuilder =
+        PreparedRequest.builder(getRestTemplate(), httpMethod, getUrlTemplate(uri), responseType);
+    return setAuth(negotiate(preparedRequestBuilder))
+        .exchangePipeline(getExchangePipeline());
+  }
+
+  private <T> PreparedRequest.Builder<T> negotiate(PreparedRequest.Builder<T> preparedRequestBuilder) {
+    Codec codec = getCodec();
+    if (Codecs.JSON.equals(codec.getName())) {
+      return preparedRequestBuilder;
+    }
+    return preparedRequestBuilder.contentType(codec.getMediaType())
+        .accept(codec.getMediaType(), MediaType.APPLICATION_JSON);
+  }
+
+  private <T> PreparedRequest.Builder<T> setAuth(PreparedRequest.Builder<T> preparedRequestBuilder) {
+    ApiInfo apiInfo = getApiInfoConfig();
+    return preparedRequestBuilder.header(apiInfo.getAuthorizationHeader(), getAuthorization());
   }
 
 }
@@ -0,0 +1,48 @@
+package com.truongvietdung.auth;
+
+/**
+ * Token returned by a {@link CredentialProvider}, valid until {@link #getExpiresAt()} (epoch millis).
+ */
+public final class AccessToken {
+
+  private final String value;
+  private final long expiresAt;
+
+  private AccessToken(String value, long expiresAt) {
+    this.value = value;
+    this.expiresAt = expiresAt;
+  }
+
+  public static AccessToken of(String value, long expiresAt) {
+    return new AccessToken(value, expiresAt);
+  }
+
+  /**
+   * Token valid for {@code expiresIn} millis from now, as in an OAuth2 {@code expires_in} (in seconds,
+   * times 1000).
+   */
+  public static AccessToken expiringIn(String value, long expiresIn) {
+    return new AccessToken(value, System.currentTimeMillis() + expiresIn);
+  }
+
+  public static AccessToken nonExpiring(String value) {
+    return new AccessToken(value, Long.MAX_VALUE);
+  }
+
+  public String getValue() {
+    return value;
+  }
+
+  public long getExpiresAt() {
+    return expiresAt;
+  }
+
+  public boolean isExpired(long now) {
+    return now >= expiresAt;
+  }
+
+  @Override
+  public String toString() {
+    return "AccessToken{expiresAt=" + expiresAt + "}";
+  }
+}
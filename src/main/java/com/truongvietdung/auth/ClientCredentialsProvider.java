@@ -0,0 +1,64 @@
+package com.truongvietdung.auth;
+
+import java.util.Collections;
+import java.util.Map;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * OAuth2 client credentials grant: posts the client id and secret to the token endpoint and reads
+ * {@code access_token} and {@code expires_in} from the JSON response.
+ */
+public class ClientCredentialsProvider implements CredentialProvider {
+
+  private final String name;
+  private final RestTemplate restTemplate;
+  private final String tokenUrl;
+  private final String clientId;
+  private final String clientSecret;
+  private final String scope;
+
+  public ClientCredentialsProvider(String name, RestTemplate restTemplate, String tokenUrl, String clientId,
+      String clientSecret, String scope) {
+    this.name = name;
+    this.restTemplate = restTemplate;
+    this.tokenUrl = tokenUrl;
+    this.clientId = clientId;
+    this.clientSecret = clientSecret;
+    this.scope = scope;
+  }
+
+  @Override
+  public String getName() {
+    return name;
+  }
+
+  @Override
+  @SuppressWarnings("unchecked")
+  public AccessToken fetchToken() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+    headers.setAccept(Collections.singletonList(MediaType.APPLICATION_JSON));
+    headers.setBasicAuth(clientId, clientSecret);
+    MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+    form.add("grant_type", "client_credentials");
+    if (StringUtils.hasText(scope)) {
+      form.add("scope", scope);
+    }
+    Map<String, Object> response = restTemplate.postForObject(tokenUrl, new HttpEntity<>(form, headers), Map.class);
+    Object accessToken = response == null ? null : response.get("access_token");
+    if (accessToken == null) {
+      throw new RestClientException("No access_token in token response from " + tokenUrl);
+    }
+    Object expiresIn = response.get("expires_in");
+    return expiresIn == null
+        ? AccessToken.nonExpiring(accessToken.toString())
+        : AccessToken.expiringIn(accessToken.toString(), Long.parseLong(expiresIn.toString()) * 1000);
+  }
+}
@@ -0,0 +1,13 @@
+package com.truongvietdung.auth;
+
+/**
+ * Source of access tokens for partners whose {@link com.truongvietdung.config.AuthInfo#getProvider()}
+ * names it. Tokens are cached by {@link TokenCache}, so {@link #fetchToken()} is only called to refresh
+ * and never concurrently for the same partner.
+ */
+public interface CredentialProvider {
+
+  String getName();
+
+  AccessToken fetchToken();
+}
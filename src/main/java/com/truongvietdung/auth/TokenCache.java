@@ -0,0 +1,205 @@
+package com.truongvietdung.auth;
+
+import com.truongvietdung.config.AuthInfo;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Caches the token of one partner. Callers get the cached token without blocking while it is valid;
+ * {@link AuthInfo#getRefreshAhead()} before it expires a background refresh replaces it, and a caller that
+ * finds no valid token waits for the one refresh in flight instead of starting its own.
+ */
+@Slf4j
+public class TokenCache {
+
+  private final String key;
+  private final CredentialProvider provider;
+  private final AuthInfo authInfo;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+  private final AtomicReference<CompletableFuture<AccessToken>> refreshing = new AtomicReference<>();
+  private final LongAdder fetches = new LongAdder();
+  private volatile AccessToken token;
+
+  public TokenCache(String key, CredentialProvider provider, AuthInfo authInfo, ScheduledExecutorService scheduler,
+      Executor executor) {
+    this.key = key;
+    this.provider = provider;
+    this.authInfo = authInfo;
+    this.scheduler = scheduler;
+    this.executor = executor;
+  }
+
+  /**
+   * Returns the {@code Authorization} header value for the current token, fetching one if needed.
+   */
+  public String getAuthorization() {
+    return format(getToken());
+  }
+
+  /**
+   * Non-blocking {@link #getAuthorization()}: a token that has to be fetched is fetched on the executor.
+   */
+  public CompletableFuture<String> getAuthorizationAsync() {
+    AccessToken current = token;
+    if (current != null && !current.isExpired(System.currentTimeMillis())) {
+      return CompletableFuture.completedFuture(format(current));
+    }
+    return refresh(executor).thenApply(this::format);
+  }
+
+  public AccessToken getToken() {
+    AccessToken current = token;
+    if (current != null && !current.isExpired(System.currentTimeMillis())) {
+      return current;
+    }
+    return await(refresh());
+  }
+
+  /**
+   * Drops the token if it is still the one the partner rejected, so the next caller fetches a new one;
+   * rejections of a token that was already replaced do not cause another fetch.
+   */
+  public void invalidate(String authorization) {
+    AccessToken current = token;
+    if (current != null && format(current).equals(authorization)) {
+      token = null;
+    }
+  }
+
+  /**
+   * Number of tokens fetched from the provider.
+   */
+  public long getFetchCount() {
+    return fetches.sum();
+  }
+
+  private CompletableFuture<AccessToken> refresh() {
+    return refresh(Runnable::run);
+  }
+
+  private CompletableFuture<AccessToken> refresh(Executor fetchExecutor) {
+    for (;;) {
+      CompletableFuture<AccessToken> inFlight = refreshing.get();
+      if (inFlight != null) {
+        return inFlight;
+      }
+      CompletableFuture<AccessToken> refresh = new CompletableFuture<>();
+      if (refreshing.compareAndSet(null, refresh)) {
+        try {
+          fetchExecutor.execute(() -> fetch(refresh));
+        } catch (RejectedExecutionException e) {
+          refreshing.set(null);
+          refresh.completeExceptionally(e);
+        }
+        return refresh;
+      }
+    }
+  }
+
+  /**
+   * Whatever the provider throws, {@code refreshing} is cleared and the future completed, so waiters are
+   * released and the next caller starts a new fetch.
+   */
+  private void fetch(CompletableFuture<AccessToken> refresh) {
+    AccessToken fetched = null;
+    Throwable failure = null;
+    try {
+      fetches.increment();
+      fetched = provider.fetchToken();
+      token = fetched;
+      scheduleRefresh(fetched);
+    } catch (Throwable e) {
+      failure = e;
+    } finally {
+      refreshing.set(null);
+      if (failure == null) {
+        refresh.complete(fetched);
+      } else {
+        refresh.completeExceptionally(failure);
+      }
+    }
+  }
+
+  private void scheduleRefresh(AccessToken fetched) {
+    if (fetched.getExpiresAt() == Long.MAX_VALUE) {
+      return;
+    }
+    long delay = fetched.getExpiresAt() - authInfo.getRefreshAhead() - System.currentTimeMillis();
+    scheduleRefresh(fetched, Math.max(authInfo.getMinRefreshInterval(), delay));
+  }
+
+  /**
+   * The refresh runs on the call executor, not the scheduler thread, which other timers share. When the
+   * executor is saturated and rejects it, it is retried after {@link AuthInfo#getMinRefreshInterval()}
+   * rather than dropped, which would let the token expire into a fetch on the request path.
+   */
+  private void scheduleRefresh(AccessToken expected, long delay) {
+    scheduler.schedule(() -> {
+      try {
+        executor.execute(() -> refreshAhead(expected));
+      } catch (RejectedExecutionException e) {
+        log.warn("Call executor rejected the token refresh of {}, retrying in {} ms", key,
+            authInfo.getMinRefreshInterval());
+        if (token == expected && !expected.isExpired(System.currentTimeMillis())) {
+          scheduleRefresh(expected, authInfo.getMinRefreshInterval());
+        }
+      }
+    }, delay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Background refresh; on failure the current token stays in use and the refresh is retried until it
+   * expires. Does nothing once {@code expected} was replaced, which scheduled its own refresh.
+   */
+  private void refreshAhead(AccessToken expected) {
+    if (token != expected) {
+      return;
+    }
+    try {
+      refresh().join();
+    } catch (RuntimeException e) {
+      log.warn("Fail to refresh token of {} ahead of expiry", key, e);
+      if (token == expected && !expected.isExpired(System.currentTimeMillis())) {
+        scheduleRefresh(expected, authInfo.getMinRefreshInterval());
+      }
+    }
+  }
+
+  private String format(AccessToken accessToken) {
+    String scheme = authInfo.getScheme();
+    return scheme == null || scheme.isEmpty() ? accessToken.getValue() : scheme + " " + accessToken.getValue();
+  }
+
+  /**
+   * Waits at most {@link AuthInfo#getFetchTimeout()} for the refresh in flight, so a provider that hangs does
+   * not block every caller forever; the fetch itself keeps running and later callers wait on it again.
+   */
+  private AccessToken await(CompletableFuture<AccessToken> refresh) {
+    try {
+      return refresh.get(authInfo.getFetchTimeout(), TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted waiting for the token of " + key, e);
+    } catch (TimeoutException e) {
+      throw new IllegalStateException("Timed out after " + authInfo.getFetchTimeout() + " ms waiting for the token of "
+          + key, e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+      throw new IllegalStateException("Cannot fetch the token of " + key, e.getCause());
+    }
+  }
+}
@@ -0,0 +1,12 @@
+package com.truongvietdung.batch;
+
+import java.util.List;
+
+/**
+ * Sends one batch request for the given items and returns one result per item, in the same order.
+ */
+@FunctionalInterface
+public interface BatchFunction<I, R> {
+
+  List<R> execute(List<I> items);
+}
@@ -0,0 +1,173 @@
+package com.truongvietdung.batch;
+
+import com.truongvietdung.config.BatchInfo;
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Collects single items into batches of up to {@code maxBatchSize}, sent when the batch is full or
+ * {@code linger} milliseconds after its first item, whichever comes first. Each batch runs on
+ * {@code executor} through the {@link BatchFunction}, and its results are handed back to the futures
+ * returned by {@link #submit(Object)}. A failed batch fails the future of every item in it.
+ */
+@Slf4j
+public class MicroBatcher<I, R> implements Closeable {
+
+  private final String name;
+  private final BatchFunction<I, R> batchFunction;
+  private final BatchInfo batchInfo;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+  private final AtomicInteger pending = new AtomicInteger();
+  private final LongAdder batches = new LongAdder();
+  private final LongAdder items = new LongAdder();
+  private final Object lock = new Object();
+  private List<Item<I, R>> buffer;
+  private ScheduledFuture<?> lingerTimer;
+  private boolean closed;
+
+  public MicroBatcher(String name, BatchFunction<I, R> batchFunction, BatchInfo batchInfo,
+      ScheduledExecutorService scheduler, Executor executor) {
+    this.name = name;
+    this.batchFunction = batchFunction;
+    this.batchInfo = batchInfo;
+    this.scheduler = scheduler;
+    this.executor = executor;
+    this.buffer = new ArrayList<>(batchInfo.getMaxBatchSize());
+  }
+
+  public CompletableFuture<R> submit(I item) {
+    CompletableFuture<R> result = new CompletableFuture<>();
+    if (pending.incrementAndGet() > batchInfo.getMaxPending()) {
+      pending.decrementAndGet();
+      result.completeExceptionally(new RejectedExecutionException("Too many pending items in batcher " + name));
+      return result;
+    }
+    List<Item<I, R>> full = null;
+    synchronized (lock) {
+      if (closed) {
+        pending.decrementAndGet();
+        result.completeExceptionally(new IllegalStateException("Batcher " + name + " is closed"));
+        return result;
+      }
+      buffer.add(new Item<>(item, result));
+      if (buffer.size() >= batchInfo.getMaxBatchSize()) {
+        full = drain();
+      } else if (buffer.size() == 1) {
+        lingerTimer = scheduler.schedule(this::flush, batchInfo.getLinger(), TimeUnit.MILLISECONDS);
+      }
+    }
+    if (full != null) {
+      dispatch(full);
+    }
+    return result;
+  }
+
+  /**
+   * Sends the items collected so far without waiting for the linger time.
+   */
+  public void flush() {
+    List<Item<I, R>> batch;
+    synchronized (lock) {
+      batch = drain();
+    }
+    if (!batch.isEmpty()) {
+      dispatch(batch);
+    }
+  }
+
+  /**
+   * Flushes the pending items and rejects further submissions.
+   */
+  @Override
+  public void close() {
+    synchronized (lock) {
+      closed = true;
+    }
+    flush();
+  }
+
+  public int getPendingCount() {
+    return pending.get();
+  }
+
+  public long getBatchCount() {
+    return batches.sum();
+  }
+
+  public long getItemCount() {
+    return items.sum();
+  }
+
+  private List<Item<I, R>> drain() {
+    List<Item<I, R>> batch = buffer;
+    buffer = new ArrayList<>(batchInfo.getMaxBatchSize());
+    if (lingerTimer != null) {
+      lingerTimer.cancel(false);
+      lingerTimer = null;
+    }
+    return batch;
+  }
+
+  private void dispatch(List<Item<I, R>> batch) {
+    try {
+      executor.execute(() -> execute(batch));
+    } catch (RejectedExecutionException e) {
+      fail(batch, e);
+    }
+  }
+
+  private void execute(List<Item<I, R>> batch) {
+    List<I> values = new ArrayList<>(batch.size());
+    for (Item<I, R> item : batch) {
+      values.add(item.value);
+    }
+    List<R> results;
+    try {
+      results = batchFunction.execute(values);
+      if (results == null || results.size() != batch.size()) {
+        throw new IllegalStateException("Batcher " + name + " expected " + batch.size() + " results but got "
+            + (results == null ? null : results.size()));
+      }
+    } catch (Throwable e) {
+      // any failure, Errors included, must reach the callers: nobody else completes their futures
+      log.error("Fail when sending batch of {} items [{}]: {}", batch.size(), name, e.getMessage());
+      fail(batch, e);
+      return;
+    }
+    batches.increment();
+    items.add(batch.size());
+    pending.addAndGet(-batch.size());
+    for (int i = 0; i < batch.size(); i++) {
+      batch.get(i).result.complete(results.get(i));
+    }
+  }
+
+  private void fail(List<Item<I, R>> batch, Throwable e) {
+    pending.addAndGet(-batch.size());
+    for (Item<I, R> item : batch) {
+      item.result.completeExceptionally(e);
+    }
+  }
+
+  private static final class Item<I, R> {
+
+    private final I value;
+    private final CompletableFuture<R> result;
+
+    Item(I value, CompletableFuture<R> result) {
+      this.value = value;
+      this.result = result;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+package com.truongvietdung.cache;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Response served from the {@link ResponseCache} without touching the network.
+ */
+public class CachedClientHttpResponse implements ClientHttpResponse {
+
+  private final CachedResponse cachedResponse;
+
+  public CachedClientHttpResponse(CachedResponse cachedResponse) {
+    this.cachedResponse = cachedResponse;
+  }
+
+  @Override
+  public HttpStatus getStatusCode() {
+    return HttpStatus.valueOf(cachedResponse.getStatusCode());
+  }
+
+  @Override
+  public int getRawStatusCode() {
+    return cachedResponse.getStatusCode();
+  }
+
+  @Override
+  public String getStatusText() {
+    return cachedResponse.getStatusText();
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    return cachedResponse.getHeaders();
+  }
+
+  @Override
+  public InputStream getBody() {
+    return new ByteArrayInputStream(cachedResponse.getBody());
+  }
+
+  @Override
+  public void close() {
+  }
+}
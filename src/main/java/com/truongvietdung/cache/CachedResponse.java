@@ -0,0 +1,171 @@
+package com.truongvietdung.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.StringUtils;
+
+/**
+ * Stored response body and headers together with the freshness and validators needed to serve it
+ * directly or to revalidate it with a conditional request.
+ */
+public final class CachedResponse {
+
+  private final int statusCode;
+  private final String statusText;
+  private final HttpHeaders headers;
+  private final byte[] body;
+  private final Map<String, List<String>> varyValues;
+  private final long expiresAt;
+
+  private CachedResponse(int statusCode, String statusText, HttpHeaders headers, byte[] body,
+      Map<String, List<String>> varyValues, long expiresAt) {
+    this.statusCode = statusCode;
+    this.statusText = statusText;
+    this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+    this.body = body;
+    this.varyValues = varyValues;
+    this.expiresAt = expiresAt;
+  }
+
+  public static CachedResponse of(int statusCode, String statusText, HttpHeaders requestHeaders,
+      HttpHeaders responseHeaders, byte[] body, long defaultTtl, long now) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.putAll(responseHeaders);
+    Map<String, List<String>> varyValues = new HashMap<>();
+    for (String varyHeader : responseHeaders.getVary()) {
+      List<String> values = requestHeaders.get(varyHeader);
+      varyValues.put(varyHeader, values != null ? new ArrayList<>(values) : null);
+    }
+    return new CachedResponse(statusCode, statusText, headers, body, varyValues,
+        now + freshnessLifetime(responseHeaders, defaultTtl, now));
+  }
+
+  /**
+   * Returns whether a response with these headers may be stored at all.
+   */
+  public static boolean isStorable(HttpHeaders responseHeaders) {
+    return !hasDirective(responseHeaders.getCacheControl(), "no-store")
+        && !responseHeaders.getVary().contains("*");
+  }
+
+  /**
+   * Refreshes headers and freshness from a {@code 304 Not Modified} while keeping the stored body.
+   */
+  public CachedResponse revalidated(HttpHeaders notModifiedHeaders, long defaultTtl, long now) {
+    HttpHeaders merged = new HttpHeaders();
+    merged.putAll(headers);
+    notModifiedHeaders.forEach((name, values) -> {
+      if (!HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name) && !HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(name)) {
+        merged.put(name, values);
+      }
+    });
+    return new CachedResponse(statusCode, statusText, merged, body, varyValues,
+        now + freshnessLifetime(merged, defaultTtl, now));
+  }
+
+  public boolean isFresh(long now) {
+    return now < expiresAt;
+  }
+
+  public boolean hasValidators() {
+    return headers.getETag() != null || headers.getLastModified() > 0;
+  }
+
+  public boolean matchesVary(HttpHeaders requestHeaders) {
+    for (Map.Entry<String, List<String>> vary : varyValues.entrySet()) {
+      if (!Objects.equals(vary.getValue(), requestHeaders.get(vary.getKey()))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Adds {@code If-None-Match} / {@code If-Modified-Since} for the stored validators.
+   */
+  public void addConditionalHeaders(HttpHeaders requestHeaders) {
+    if (headers.getETag() != null) {
+      requestHeaders.setIfNoneMatch(headers.getETag());
+    }
+    if (headers.getLastModified() > 0) {
+      requestHeaders.setIfModifiedSince(headers.getLastModified());
+    }
+  }
+
+  public int getStatusCode() {
+    return statusCode;
+  }
+
+  public String getStatusText() {
+    return statusText;
+  }
+
+  public HttpHeaders getHeaders() {
+    return headers;
+  }
+
+  public byte[] getBody() {
+    return body;
+  }
+
+  public long getWeight() {
+    return body.length;
+  }
+
+  static long freshnessLifetime(HttpHeaders headers, long defaultTtl, long now) {
+    String cacheControl = headers.getCacheControl();
+    if (hasDirective(cacheControl, "no-cache")) {
+      return 0;
+    }
+    long maxAge = getMaxAge(cacheControl);
+    if (maxAge >= 0) {
+      return maxAge * 1000;
+    }
+    long expires = headers.getExpires();
+    if (expires > 0) {
+      return Math.max(0, expires - getDate(headers, now));
+    }
+    return defaultTtl;
+  }
+
+  private static long getDate(HttpHeaders headers, long now) {
+    try {
+      long date = headers.getDate();
+      return date > 0 ? date : now;
+    } catch (IllegalArgumentException ignored) {
+      return now;
+    }
+  }
+
+  public static boolean hasDirective(String cacheControl, String directive) {
+    if (!StringUtils.hasText(cacheControl)) {
+      return false;
+    }
+    for (String token : StringUtils.tokenizeToStringArray(cacheControl, ",")) {
+      if (token.equalsIgnoreCase(directive) || token.regionMatches(true, 0, directive + "=", 0, directive.length() + 1)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static long getMaxAge(String cacheControl) {
+    if (!StringUtils.hasText(cacheControl)) {
+      return -1;
+    }
+    for (String token : StringUtils.tokenizeToStringArray(cacheControl, ",")) {
+      if (token.regionMatches(true, 0, "max-age=", 0, 8)) {
+        try {
+          return Long.parseLong(token.substring(8).replace("\"", "").trim());
+        } catch (NumberFormatException ignored) {
+          return 0;
+        }
+      }
+    }
+    return -1;
+  }
+}
@@ -0,0 +1,104 @@
+package com.truongvietdung.cache;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory LRU store of {@link CachedResponse}s bounded both by entry count and by total body bytes.
+ * Alongside the entries it remembers, per resource, the request headers the last response varied on, so
+ * that a lookup can build the key of the variant matching the request.
+ */
+public class ResponseCache {
+
+  private final int maxEntries;
+  private final long maxBytes;
+  private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final LinkedHashMap<String, List<String>> varyHeaders = new LinkedHashMap<>(16, 0.75f, true);
+  private long weight;
+
+  private final LongAdder hitCount = new LongAdder();
+  private final LongAdder missCount = new LongAdder();
+  private final LongAdder revalidatedCount = new LongAdder();
+
+  public ResponseCache(int maxEntries, long maxBytes) {
+    this.maxEntries = maxEntries;
+    this.maxBytes = maxBytes;
+  }
+
+  public synchronized CachedResponse get(String key) {
+    return entries.get(key);
+  }
+
+  public synchronized void put(String key, CachedResponse response) {
+    CachedResponse previous = entries.put(key, response);
+    if (previous != null) {
+      weight -= previous.getWeight();
+    }
+    weight += response.getWeight();
+    Iterator<Map.Entry<String, CachedResponse>> eldest = entries.entrySet().iterator();
+    while ((entries.size() > maxEntries || weight > maxBytes) && eldest.hasNext()) {
+      weight -= eldest.next().getValue().getWeight();
+      eldest.remove();
+    }
+  }
+
+  /**
+   * Returns the request headers the last stored response for {@code resourceKey} varied on.
+   */
+  public synchronized List<String> getVary(String resourceKey) {
+    List<String> vary = varyHeaders.get(resourceKey);
+    return vary != null ? vary : Collections.emptyList();
+  }
+
+  public synchronized void putVary(String resourceKey, List<String> vary) {
+    if (vary.isEmpty()) {
+      varyHeaders.remove(resourceKey);
+      return;
+    }
+    varyHeaders.put(resourceKey, vary);
+    Iterator<String> eldest = varyHeaders.keySet().iterator();
+    while (varyHeaders.size() > maxEntries && eldest.hasNext()) {
+      eldest.next();
+      eldest.remove();
+    }
+  }
+
+  public synchronized void remove(String key) {
+    CachedResponse removed = entries.remove(key);
+    if (removed != null) {
+      weight -= removed.getWeight();
+    }
+  }
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public void recordHit() {
+    hitCount.increment();
+  }
+
+  public void recordMiss() {
+    missCount.increment();
+  }
+
+  public void recordRevalidated() {
+    revalidatedCount.increment();
+  }
+
+  public long getHitCount() {
+    return hitCount.sum();
+  }
+
+  public long getMissCount() {
+    return missCount.sum();
+  }
+
+  public long getRevalidatedCount() {
+    return revalidatedCount.sum();
+  }
+}
@@ -0,0 +1,42 @@
+package com.truongvietdung.codec;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+
+/**
+ * Wire format of a partner, selected per {@link com.truongvietdung.config.ApiInfo} by {@link #getName()}.
+ * Requests are sent as {@link #getMediaType()} and accept it ahead of JSON; the converter reads and writes
+ * the message streams directly.
+ */
+public interface Codec {
+
+  String getName();
+
+  MediaType getMediaType();
+
+  HttpMessageConverter<?> getConverter();
+
+  static Codec of(String name, MediaType mediaType, HttpMessageConverter<?> converter) {
+    return new Codec() {
+      @Override
+      public String getName() {
+        return name;
+      }
+
+      @Override
+      public MediaType getMediaType() {
+        return mediaType;
+      }
+
+      @Override
+      public HttpMessageConverter<?> getConverter() {
+        return converter;
+      }
+
+      @Override
+      public String toString() {
+        return name + " (" + mediaType + ")";
+      }
+    };
+  }
+}
@@ -0,0 +1,59 @@
+package com.truongvietdung.codec;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.http.converter.protobuf.ProtobufHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Built-in codecs. Smile and CBOR need the matching {@code jackson-dataformat-*} module on the classpath,
+ * Protobuf needs {@code protobuf-java}; codecs whose library is missing are not registered.
+ */
+public final class Codecs {
+
+  public static final String JSON = "json";
+  public static final String SMILE = "smile";
+  public static final String CBOR = "cbor";
+  public static final String PROTOBUF = "protobuf";
+
+  private static final ClassLoader CLASS_LOADER = Codecs.class.getClassLoader();
+
+  private Codecs() {
+  }
+
+  public static List<Codec> available() {
+    List<Codec> codecs = new ArrayList<>();
+    codecs.add(json());
+    if (ClassUtils.isPresent("com.fasterxml.jackson.dataformat.smile.SmileFactory", CLASS_LOADER)) {
+      codecs.add(smile());
+    }
+    if (ClassUtils.isPresent("com.fasterxml.jackson.dataformat.cbor.CBORFactory", CLASS_LOADER)) {
+      codecs.add(cbor());
+    }
+    if (ClassUtils.isPresent("com.google.protobuf.Message", CLASS_LOADER)) {
+      codecs.add(protobuf());
+    }
+    return codecs;
+  }
+
+  public static Codec json() {
+    return Codec.of(JSON, MediaType.APPLICATION_JSON, new MappingJackson2HttpMessageConverter());
+  }
+
+  public static Codec smile() {
+    return Codec.of(SMILE, new MediaType("application", "x-jackson-smile"),
+        new MappingJackson2SmileHttpMessageConverter());
+  }
+
+  public static Codec cbor() {
+    return Codec.of(CBOR, MediaType.APPLICATION_CBOR, new MappingJackson2CborHttpMessageConverter());
+  }
+
+  public static Codec protobuf() {
+    return Codec.of(PROTOBUF, ProtobufHttpMessageConverter.PROTOBUF, new ProtobufHttpMessageConverter());
+  }
+}
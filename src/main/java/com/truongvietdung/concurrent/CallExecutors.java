@@ -0,0 +1,41 @@
+package com.truongvietdung.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for blocking partner calls. This is the Java 8 variant: a bounded pool of daemon platform
+ * threads that queues up to 16 calls per thread beyond {@code maxThreads}
+ * and rejects further ones with a {@link java.util.concurrent.RejectedExecutionException}, so a stalled
+ * partner cannot pile up unbounded work. The jar carries a Java 21 variant under
+ * {@code META-INF/versions/21} that starts one virtual thread per call instead.
+ */
+public final class CallExecutors {
+
+  private static final int QUEUED_CALLS_PER_THREAD = 16;
+
+  private CallExecutors() {
+  }
+
+  public static ExecutorService newCallExecutor(String name, int maxThreads) {
+    AtomicInteger counter = new AtomicInteger();
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<>(maxThreads * QUEUED_CALLS_PER_THREAD), runnable -> {
+          Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+          thread.setDaemon(true);
+          return thread;
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  /**
+   * Returns whether {@link #newCallExecutor(String, int)} runs calls on virtual threads.
+   */
+  public static boolean isVirtual() {
+    return false;
+  }
+}
@@ -0,0 +1,26 @@
+package com.truongvietdung.config;
+
+import com.truongvietdung.exchange.AbortHandle;
+import java.net.URI;
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+/**
+ * Registers every request it creates with the {@link AbortHandle} bound to the calling thread, so a hedged
+ * attempt that lost the race can be aborted from another thread.
+ */
+public class AbortableClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory {
+
+  public AbortableClientHttpRequestFactory(HttpClient httpClient) {
+    super(httpClient);
+  }
+
+  @Override
+  protected HttpUriRequest createHttpUriRequest(HttpMethod httpMethod, URI uri) {
+    HttpUriRequest request = super.createHttpUriRequest(httpMethod, uri);
+    AbortHandle.register(request);
+    return request;
+  }
+}
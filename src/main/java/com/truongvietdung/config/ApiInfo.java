@@ -1,5 +1,6 @@
 package com.truongvietdung.config;
 
+import com.truongvietdung.codec.Codecs;
 import lombok.Data;
 import lombok.experimental.Accessors;
 
@@ -9,5 +10,21 @@ public class ApiInfo {
   private String baseUrl;
   private String authorization;
   private String authorizationHeader = "Authorization";
+  private AuthInfo auth = new AuthInfo();
   private String gatewayPrefix;
+  private Integer maxPerRoute;
+  private Integer maxTotalConnection;
+  private Integer readTimeout;
+  private Integer connectTimeout;
+  private CacheInfo cache = new CacheInfo();
+  private CoalesceInfo coalesce = new CoalesceInfo();
+  private RetryInfo retry = new RetryInfo();
+  private CircuitBreakerInfo circuitBreaker = new CircuitBreakerInfo();
+  private HedgeInfo hedge = new HedgeInfo();
+  private ConcurrencyLimitInfo concurrencyLimit = new ConcurrencyLimitInfo();
+  private BatchInfo batch = new BatchInfo();
+  private LogInfo log = new LogInfo();
+  private CompressionInfo compression = new CompressionInfo();
+  private Http2Info http2 = new Http2Info();
+  private String codec = Codecs.JSON;
 }
@@ -0,0 +1,19 @@
+package com.truongvietdung.config;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * Token-based authorization: names the {@link com.truongvietdung.auth.CredentialProvider} whose tokens
+ * replace the static {@link ApiInfo#getAuthorization()}, sent as {@code <scheme> <token>}.
+ */
+@Data
+@Accessors(chain = true)
+public class AuthInfo {
+  private String provider;
+  private String scheme = "Bearer";
+  private long refreshAhead = 60_000;
+  private long minRefreshInterval = 1_000;
+  private long fetchTimeout = 30_000;
+  private boolean retryOnUnauthorized = true;
+}
@@ -0,0 +1,12 @@
+package com.truongvietdung.config;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class BatchInfo {
+  private int maxBatchSize = 100;
+  private long linger = 10;
+  private int maxPending = 10_000;
+}
@@ -0,0 +1,14 @@
+package com.truongvietdung.config;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class CacheInfo {
+  private boolean enabled;
+  private int maxEntries = 1_000;
+  private long maxBytes = 16 * 1024 * 1024;
+  private long maxBodySize = 1024 * 1024;
+  private long defaultTtl;
+}
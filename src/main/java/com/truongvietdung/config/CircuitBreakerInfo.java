@@ -0,0 +1,17 @@
+package com.truongvietdung.config;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class CircuitBreakerInfo {
+  private boolean enabled;
+  private int windowSize = 100;
+  private int minimumCalls = 20;
+  private int failureRateThreshold = 50;
+  private int slowCallRateThreshold = 100;
+  private long slowCallDuration = 5_000;
+  private long openDuration = 30_000;
+  private int halfOpenProbes = 5;
+}
@@ -0,0 +1,16 @@
+package com.truongvietdung.config;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * Collapsing of concurrent identical GET/HEAD calls into one. Every caller gets its own copy of the body:
+ * bodies other than strings, boxed primitives, enums, byte arrays and protobuf messages are copied through
+ * the partner codec's Jackson mapper, so they must round-trip through it; a body that cannot be copied makes
+ * the caller do its own call.
+ */
+@Data
+@Accessors(chain = true)
+public class CoalesceInfo {
+  private boolean enabled;
+}
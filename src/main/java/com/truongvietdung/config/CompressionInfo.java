@@ -0,0 +1,14 @@
+package com.truongvietdung.config;
+
+import java.util.zip.Deflater;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class CompressionInfo {
+  private boolean acceptCompressed = true;
+  private boolean compressRequests;
+  private int minRequestSize = 2_048;
+  private int level = Deflater.BEST_SPEED;
+}
@@ -0,0 +1,18 @@
+package com.truongvietdung.config;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class ConcurrencyLimitInfo {
+  private boolean enabled;
+  private int initialLimit = 20;
+  private int minLimit = 1;
+  private int maxLimit = 200;
+  private double rttTolerance = 1.5;
+  private double smoothing = 0.2;
+  private double backoffRatio = 0.9;
+  private int shortWindow = 10;
+  private int longWindow = 600;
+}
@@ -0,0 +1,62 @@
+package com.truongvietdung.config;
+
+import com.truongvietdung.helpers.UrlTemplate;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Resolves relative URIs against the base URL and gateway prefix of one {@link ApiInfo}. The base is
+ * normalized once; resolved templates are cached per URI up to {@link #MAX_CACHED_URIS} entries so that
+ * callers building URIs with embedded ids cannot grow the cache without bound.
+ */
+public class EndpointResolver {
+
+  static final int MAX_CACHED_URIS = 1_000;
+
+  private final String baseUrl;
+  private final ConcurrentMap<String, UrlTemplate> urlTemplates = new ConcurrentHashMap<>();
+
+  public EndpointResolver(ApiInfo apiInfo) {
+    String prefix = apiInfo.getGatewayPrefix();
+    this.baseUrl = prefix == null || prefix.isEmpty()
+        ? normalize(apiInfo.getBaseUrl())
+        : normalize(apiInfo.getBaseUrl() + "/" + prefix);
+  }
+
+  public String getBaseUrl() {
+    return baseUrl;
+  }
+
+  public UrlTemplate resolve(String uri) {
+    UrlTemplate urlTemplate = urlTemplates.get(uri);
+    if (urlTemplate == null) {
+      urlTemplate = UrlTemplate.compile(normalize(baseUrl + "/" + uri));
+      if (urlTemplates.size() < MAX_CACHED_URIS) {
+        urlTemplates.putIfAbsent(uri, urlTemplate);
+      }
+    }
+    return urlTemplate;
+  }
+
+  /**
+   * Collapses repeated slashes in the path while keeping the {@code scheme://} separator and leaving the
+   * query string and fragment untouched.
+   */
+  static String normalize(String url) {
+    int schemeEnd = url.indexOf("://");
+    int pathStart = schemeEnd > 0 && url.indexOf('/') == schemeEnd + 1 ? schemeEnd + 3 : 0;
+    StringBuilder normalized = new StringBuilder(url.length()).append(url, 0, pathStart);
+    for (int i = pathStart; i < url.length(); i++) {
+      char c = url.charAt(i);
+      if (c == '?' || c == '#') {
+        normalized.append(url, i, url.length());
+        break;
+      }
+      if (c == '/' && normalized.length() > 0 && normalized.charAt(normalized.length() - 1) == '/') {
+        continue;
+      }
+      normalized.append(c);
+    }
+    return normalized.toString();
+  }
+}
@@ -0,0 +1,17 @@
+package com.truongvietdung.config;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class HedgeInfo {
+  private boolean enabled;
+  private double percentile = 95;
+  private long initialDelay = 100;
+  private long minDelay = 5;
+  private int minSamples = 100;
+  private int windowSize = 1_000;
+  private double maxHedgeRatio = 0.1;
+  private int maxHedgeTokens = 20;
+}
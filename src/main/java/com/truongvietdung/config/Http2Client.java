@@ -0,0 +1,167 @@
+package com.truongvietdung.config;
+
+import com.truongvietdung.config.interceptor.AsyncRequestExecution;
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import okhttp3.Call;
+import okhttp3.Callback;
+import okhttp3.ConnectionPool;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.OkHttp3ClientHttpRequestFactory;
+
+/**
+ * OkHttp client of one key with {@link Http2Info#isEnabled()}, shared by its blocking calls, through
+ * {@link #getRequestFactory()}, and its asynchronous ones, through {@link #getAsyncExecution()}, so both
+ * multiplex the same connections and count against the same stream limit.
+ */
+final class Http2Client implements Closeable {
+
+  private final OkHttpClient client;
+  private final int maxIdleConnections;
+  private final OkHttp3ClientHttpRequestFactory requestFactory;
+
+  Http2Client(OkHttpClient client, int maxIdleConnections) {
+    this.client = client;
+    this.maxIdleConnections = maxIdleConnections;
+    this.requestFactory = new OkHttp3ClientHttpRequestFactory(client);
+  }
+
+  ClientHttpRequestFactory getRequestFactory() {
+    return requestFactory;
+  }
+
+  /**
+   * Enqueues requests on the client's dispatcher; the body is read before the future completes.
+   */
+  AsyncRequestExecution getAsyncExecution() {
+    return this::executeAsync;
+  }
+
+  /**
+   * Connection pool state in the shape of the HTTP/1.1 pools: connections carrying streams are leased, idle
+   * ones available and asynchronous calls queued in the dispatcher pending. OkHttp does not cap open
+   * connections, so max is the number of idle connections the pool keeps.
+   */
+  PoolStats getPoolStats() {
+    ConnectionPool connectionPool = client.connectionPool();
+    int idle = connectionPool.idleConnectionCount();
+    return new PoolStats(connectionPool.connectionCount() - idle, client.dispatcher().queuedCallsCount(), idle,
+        maxIdleConnections);
+  }
+
+  @Override
+  public void close() throws IOException {
+    requestFactory.destroy();
+  }
+
+  private CompletableFuture<ClientHttpResponse> executeAsync(HttpRequest httpRequest, byte[] body) {
+    CompletableFuture<ClientHttpResponse> result = new CompletableFuture<>();
+    Request request;
+    try {
+      request = buildRequest(httpRequest, body);
+    } catch (MalformedURLException e) {
+      result.completeExceptionally(e);
+      return result;
+    }
+    Call call = client.newCall(request);
+    call.enqueue(new Callback() {
+      @Override
+      public void onFailure(Call call, IOException e) {
+        result.completeExceptionally(e);
+      }
+
+      @Override
+      public void onResponse(Call call, Response response) {
+        try {
+          result.complete(new BufferedOkHttpResponse(response, response.body().bytes()));
+        } catch (IOException e) {
+          result.completeExceptionally(e);
+        } finally {
+          response.close();
+        }
+      }
+    });
+    result.whenComplete((response, e) -> {
+      if (result.isCancelled()) {
+        call.cancel();
+      }
+    });
+    return result;
+  }
+
+  private Request buildRequest(HttpRequest httpRequest, byte[] body) throws MalformedURLException {
+    HttpHeaders headers = httpRequest.getHeaders();
+    MediaType contentType = headers.getContentType() != null ? MediaType.parse(headers.getContentType().toString())
+        : null;
+    String method = httpRequest.getMethodValue();
+    RequestBody requestBody = body.length > 0 || okhttp3.internal.http.HttpMethod.requiresRequestBody(method)
+        ? RequestBody.create(contentType, body)
+        : null;
+    Request.Builder builder = new Request.Builder()
+        .url(httpRequest.getURI().toURL())
+        .method(method, requestBody);
+    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+      for (String value : header.getValue()) {
+        builder.addHeader(header.getKey(), value);
+      }
+    }
+    return builder.build();
+  }
+
+  private static final class BufferedOkHttpResponse extends AbstractClientHttpResponse {
+
+    private final int statusCode;
+    private final String statusText;
+    private final HttpHeaders headers = new HttpHeaders();
+    private final byte[] body;
+
+    BufferedOkHttpResponse(Response response, byte[] body) {
+      this.statusCode = response.code();
+      this.statusText = response.message();
+      for (String name : response.headers().names()) {
+        headers.put(name, response.headers(name));
+      }
+      this.body = body;
+    }
+
+    @Override
+    public int getRawStatusCode() {
+      return statusCode;
+    }
+
+    @Override
+    public String getStatusText() {
+      return statusText;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public InputStream getBody() {
+      return new ByteArrayInputStream(body);
+    }
+
+    @Override
+    public void close() {
+    }
+  }
+}
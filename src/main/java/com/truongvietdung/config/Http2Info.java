@@ -0,0 +1,18 @@
+package com.truongvietdung.config;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+/**
+ * HTTP/2 transport for one partner. Over TLS the protocol is negotiated with ALPN and falls back to
+ * HTTP/1.1 when the server does not offer {@code h2}; {@code priorKnowledge} speaks cleartext h2c
+ * directly and has no fallback.
+ */
+@Data
+@Accessors(chain = true)
+public class Http2Info {
+  private boolean enabled;
+  private boolean priorKnowledge;
+  private int maxConcurrentStreams = 100;
+  private int maxIdleConnections = 2;
+}
@@ -0,0 +1,64 @@
+package com.truongvietdung.config;
+
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.X509TrustManager;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Creates the OkHttp clients of keys with {@link Http2Info#isEnabled()}. Kept apart from
+ * {@link ThirdPartyConfiguration} so that OkHttp is only loaded when some key asks for it.
+ */
+final class Http2RequestFactories {
+
+  private static final X509TrustManager TRUST_ALL = new X509TrustManager() {
+    @Override
+    public void checkClientTrusted(X509Certificate[] chain, String authType) {
+    }
+
+    @Override
+    public void checkServerTrusted(X509Certificate[] chain, String authType) {
+    }
+
+    @Override
+    public X509Certificate[] getAcceptedIssuers() {
+      return new X509Certificate[0];
+    }
+  };
+
+  private Http2RequestFactories() {
+  }
+
+  static boolean isAvailable() {
+    return ClassUtils.isPresent("okhttp3.OkHttpClient", Http2RequestFactories.class.getClassLoader());
+  }
+
+  static Http2Client create(Http2Info http2, int readTimeout, int connectTimeout,
+      long keepAlive, SSLContext sslContext) {
+    // asynchronous calls beyond the stream limit wait in the dispatcher queue rather than on a thread
+    Dispatcher dispatcher = new Dispatcher();
+    dispatcher.setMaxRequests(http2.getMaxConcurrentStreams());
+    dispatcher.setMaxRequestsPerHost(http2.getMaxConcurrentStreams());
+    OkHttpClient client = new OkHttpClient.Builder()
+        .dispatcher(dispatcher)
+        .protocols(http2.isPriorKnowledge()
+            ? Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE)
+            : Arrays.asList(Protocol.HTTP_2, Protocol.HTTP_1_1))
+        .connectionPool(new ConnectionPool(http2.getMaxIdleConnections(), keepAlive, TimeUnit.MILLISECONDS))
+        .connectTimeout(connectTimeout, TimeUnit.MILLISECONDS)
+        .readTimeout(readTimeout, TimeUnit.MILLISECONDS)
+        .writeTimeout(readTimeout, TimeUnit.MILLISECONDS)
+        .sslSocketFactory(sslContext.getSocketFactory(), TRUST_ALL)
+        .hostnameVerifier((hostname, session) -> true)
+        .addInterceptor(new StreamLimitInterceptor(http2.getMaxConcurrentStreams(), readTimeout))
+        .build();
+    return new Http2Client(client, http2.getMaxIdleConnections());
+  }
+}
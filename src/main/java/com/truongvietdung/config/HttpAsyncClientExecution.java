@@ -0,0 +1,126 @@
+package com.truongvietdung.config;
+
+import com.truongvietdung.config.interceptor.AsyncRequestExecution;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.apache.http.Header;
+import org.apache.http.HttpEntity;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.RequestBuilder;
+import org.apache.http.concurrent.FutureCallback;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.util.EntityUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.AbstractClientHttpResponse;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Sends requests on a {@link CloseableHttpAsyncClient} with the timeouts of one
+ * {@link ApiInfo} key; the response body is buffered by the client before the future completes.
+ */
+class HttpAsyncClientExecution implements AsyncRequestExecution {
+
+  private final CloseableHttpAsyncClient httpAsyncClient;
+  private final RequestConfig requestConfig;
+
+  HttpAsyncClientExecution(CloseableHttpAsyncClient httpAsyncClient, int readTimeout, int connectTimeout) {
+    this.httpAsyncClient = httpAsyncClient;
+    this.requestConfig = RequestConfig.custom()
+        .setConnectTimeout(connectTimeout)
+        .setSocketTimeout(readTimeout)
+        .build();
+  }
+
+  @Override
+  public CompletableFuture<ClientHttpResponse> executeAsync(HttpRequest request, byte[] body) {
+    RequestBuilder requestBuilder = RequestBuilder.create(request.getMethodValue())
+        .setUri(request.getURI())
+        .setConfig(requestConfig);
+    for (Map.Entry<String, List<String>> header : request.getHeaders().entrySet()) {
+      // set by the client from the entity
+      if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(header.getKey())
+          || HttpHeaders.TRANSFER_ENCODING.equalsIgnoreCase(header.getKey())) {
+        continue;
+      }
+      for (String value : header.getValue()) {
+        requestBuilder.addHeader(header.getKey(), value);
+      }
+    }
+    if (body.length > 0 || permitsEmptyBody(request.getMethod())) {
+      requestBuilder.setEntity(new ByteArrayEntity(body));
+    }
+
+    CompletableFuture<ClientHttpResponse> result = new CompletableFuture<>();
+    httpAsyncClient.execute(requestBuilder.build(), new FutureCallback<HttpResponse>() {
+      @Override
+      public void completed(HttpResponse response) {
+        result.complete(new HttpAsyncClientResponse(response));
+      }
+
+      @Override
+      public void failed(Exception e) {
+        result.completeExceptionally(e);
+      }
+
+      @Override
+      public void cancelled() {
+        result.cancel(false);
+      }
+    });
+    return result;
+  }
+
+  private boolean permitsEmptyBody(HttpMethod method) {
+    return method == HttpMethod.POST || method == HttpMethod.PUT || method == HttpMethod.PATCH;
+  }
+
+  private static final class HttpAsyncClientResponse extends AbstractClientHttpResponse {
+
+    private final HttpResponse response;
+    private HttpHeaders headers;
+
+    HttpAsyncClientResponse(HttpResponse response) {
+      this.response = response;
+    }
+
+    @Override
+    public int getRawStatusCode() {
+      return response.getStatusLine().getStatusCode();
+    }
+
+    @Override
+    public String getStatusText() {
+      return response.getStatusLine().getReasonPhrase();
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      if (headers == null) {
+        headers = new HttpHeaders();
+        for (Header header : response.getAllHeaders()) {
+          headers.add(header.getName(), header.getValue());
+        }
+      }
+      return headers;
+    }
+
+    @Override
+    public InputStream getBody() throws IOException {
+      HttpEntity entity = response.getEntity();
+      return entity != null ? entity.getContent() : new ByteArrayInputStream(new byte[0]);
+    }
+
+    @Override
+    public void close() {
+      EntityUtils.consumeQuietly(response.getEntity());
+    }
+  }
+}
@@ -0,0 +1,62 @@
+package com.truongvietdung.config;
+
+import java.io.Closeable;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.HttpClientConnectionManager;
+import org.apache.http.nio.conn.NHttpClientConnectionManager;
+
+/**
+ * Single background thread that closes expired and idle connections of every pool created by
+ * {@link ThirdPartyConfiguration}, so half-closed sockets are dropped before a request leases them.
+ */
+@Slf4j
+public class IdleConnectionEvictor implements Closeable {
+
+  private final List<Runnable> evictions = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService executor;
+  private final long maxIdleTime;
+
+  public IdleConnectionEvictor(long evictionInterval, long maxIdleTime) {
+    this.maxIdleTime = maxIdleTime;
+    this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "third-party-connection-evictor");
+      thread.setDaemon(true);
+      return thread;
+    });
+    this.executor.scheduleWithFixedDelay(this::evict, evictionInterval, evictionInterval, TimeUnit.MILLISECONDS);
+  }
+
+  public void register(HttpClientConnectionManager connectionManager) {
+    evictions.add(() -> {
+      connectionManager.closeExpiredConnections();
+      connectionManager.closeIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS);
+    });
+  }
+
+  public void register(NHttpClientConnectionManager connectionManager) {
+    evictions.add(() -> {
+      connectionManager.closeExpiredConnections();
+      connectionManager.closeIdleConnections(maxIdleTime, TimeUnit.MILLISECONDS);
+    });
+  }
+
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  private void evict() {
+    for (Runnable eviction : evictions) {
+      try {
+        eviction.run();
+      } catch (RuntimeException e) {
+        log.warn("Fail when evicting third-party connections", e);
+      }
+    }
+  }
+}
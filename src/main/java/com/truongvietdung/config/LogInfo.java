@@ -0,0 +1,18 @@
+package com.truongvietdung.config;
+
+import java.util.Set;
+import java.util.TreeSet;
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class LogInfo {
+  private boolean enabled = true;
+  private double sampleRate = 1.0;
+  private int maxBodyBytes = 2_048;
+  /**
+   * Headers to redact in addition to the built-in sensitive ones, which are always redacted.
+   */
+  private Set<String> redactHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+}
@@ -0,0 +1,27 @@
+package com.truongvietdung.config;
+
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.Set;
+import lombok.Data;
+import lombok.experimental.Accessors;
+import org.springframework.http.HttpMethod;
+
+@Data
+@Accessors(chain = true)
+public class RetryInfo {
+  private boolean enabled;
+  private int maxAttempts = 3;
+  private long initialBackoff = 100;
+  private long maxBackoff = 2_000;
+  private double multiplier = 2.0;
+  private double jitter = 0.5;
+  private long maxRetryAfter = 10_000;
+  private Set<HttpMethod> methods = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.OPTIONS,
+      HttpMethod.PUT, HttpMethod.DELETE, HttpMethod.TRACE);
+  private Set<Integer> statuses = new HashSet<>(Arrays.asList(429, 502, 503, 504));
+  private double budgetRatio = 0.2;
+  private int budgetMaxTokens = 100;
+  private int budgetMinRetriesPerSecond = 10;
+}
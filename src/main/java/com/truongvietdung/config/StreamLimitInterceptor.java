@@ -0,0 +1,114 @@
+package com.truongvietdung.config;
+
+import com.truongvietdung.exchange.AbortHandle;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import okhttp3.Call;
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+
+/**
+ * Caps the streams one partner has in flight over its multiplexed connections; a stream is held until
+ * the response body is closed. Also registers each call with the {@link AbortHandle} of the calling
+ * thread, as {@link AbortableClientHttpRequestFactory} does for the HTTP/1.1 transport.
+ */
+public class StreamLimitInterceptor implements Interceptor {
+
+  private final Semaphore streams;
+  private final long acquireTimeout;
+
+  public StreamLimitInterceptor(int maxConcurrentStreams, long acquireTimeout) {
+    this.streams = new Semaphore(maxConcurrentStreams);
+    this.acquireTimeout = acquireTimeout;
+  }
+
+  @Override
+  public Response intercept(Chain chain) throws IOException {
+    Call call = chain.call();
+    AbortHandle.register(call::cancel);
+    try {
+      if (!streams.tryAcquire(acquireTimeout, TimeUnit.MILLISECONDS)) {
+        throw new InterruptedIOException("No HTTP/2 stream to " + chain.request().url().host() + " within "
+            + acquireTimeout + " ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException("Interrupted waiting for an HTTP/2 stream");
+    }
+    Response response;
+    try {
+      response = chain.proceed(chain.request());
+    } catch (IOException | RuntimeException e) {
+      streams.release();
+      throw e;
+    }
+    if (response.body() == null) {
+      streams.release();
+      return response;
+    }
+    return response.newBuilder().body(new ReleasingResponseBody(response.body(), streams)).build();
+  }
+
+  private static final class ReleasingResponseBody extends ResponseBody {
+
+    private final ResponseBody delegate;
+    private final Semaphore streams;
+    private final AtomicBoolean released = new AtomicBoolean();
+    private BufferedSource source;
+
+    ReleasingResponseBody(ResponseBody delegate, Semaphore streams) {
+      this.delegate = delegate;
+      this.streams = streams;
+    }
+
+    @Override
+    public MediaType contentType() {
+      return delegate.contentType();
+    }
+
+    @Override
+    public long contentLength() {
+      return delegate.contentLength();
+    }
+
+    @Override
+    public synchronized BufferedSource source() {
+      if (source == null) {
+        source = Okio.buffer(new ForwardingSource(delegate.source()) {
+          @Override
+          public void close() throws IOException {
+            try {
+              super.close();
+            } finally {
+              release();
+            }
+          }
+        });
+      }
+      return source;
+    }
+
+    @Override
+    public void close() {
+      try {
+        delegate.close();
+      } finally {
+        release();
+      }
+    }
+
+    private void release() {
+      if (released.compareAndSet(false, true)) {
+        streams.release();
+      }
+    }
+  }
+}
@@ -1,85 +1,627 @@
 package com.truongvietdung.config;
 
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.truongvietdung.auth.CredentialProvider;
+import com.truongvietdung.auth.TokenCache;
+import com.truongvietdung.batch.BatchFunction;
+import com.truongvietdung.batch.MicroBatcher;
+import com.truongvietdung.codec.Codec;
+import com.truongvietdung.codec.Codecs;
+import com.truongvietdung.concurrent.CallExecutors;
+import com.truongvietdung.config.interceptor.AsyncLogWriter;
+import com.truongvietdung.config.interceptor.AsyncRequestExecution;
+import com.truongvietdung.config.interceptor.CachingRequestInterceptor;
+import com.truongvietdung.config.interceptor.CompressionRequestInterceptor;
 import com.truongvietdung.config.interceptor.LoggingRequestInterceptor;
+import com.truongvietdung.config.interceptor.TokenAuthorizationInterceptor;
+import com.truongvietdung.exchange.AdaptiveConcurrencyLimiter;
+import com.truongvietdung.exchange.CircuitBreaker;
+import com.truongvietdung.exchange.CircuitBreakerFilter;
+import com.truongvietdung.exchange.ConcurrencyLimitFilter;
+import com.truongvietdung.exchange.ExchangeFilter;
+import com.truongvietdung.exchange.ExchangePipeline;
+import com.truongvietdung.exchange.HedgingFilter;
+import com.truongvietdung.exchange.RetryFilter;
+import com.truongvietdung.exchange.SingleFlightFilter;
+import com.truongvietdung.helpers.AsyncRestClient;
+import com.truongvietdung.metrics.InMemoryThirdPartyMetrics;
+import com.truongvietdung.metrics.MetricsFilter;
+import com.truongvietdung.metrics.ThirdPartyMetrics;
+import java.io.Closeable;
+import java.io.IOException;
+import java.security.GeneralSecurityException;
 import java.security.KeyManagementException;
 import java.security.KeyStoreException;
 import java.security.NoSuchAlgorithmException;
 import java.util.ArrayList;
 import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import javax.net.ssl.SSLContext;
 import org.apache.http.config.Registry;
 import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.conn.DnsResolver;
+import org.apache.http.conn.SchemePortResolver;
 import org.apache.http.conn.socket.ConnectionSocketFactory;
 import org.apache.http.conn.socket.PlainConnectionSocketFactory;
 import org.apache.http.conn.ssl.NoopHostnameVerifier;
 import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
 import org.apache.http.conn.ssl.TrustAllStrategy;
 import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
 import org.apache.http.impl.client.HttpClients;
 import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.impl.nio.conn.PoolingNHttpClientConnectionManager;
+import org.apache.http.impl.nio.reactor.DefaultConnectingIOReactor;
+import org.apache.http.impl.nio.reactor.IOReactorConfig;
+import org.apache.http.nio.conn.NoopIOSessionStrategy;
+import org.apache.http.nio.conn.SchemeIOSessionStrategy;
+import org.apache.http.nio.conn.ssl.SSLIOSessionStrategy;
+import org.apache.http.nio.reactor.IOReactorException;
 import org.apache.http.ssl.SSLContexts;
 import org.apache.http.ssl.TrustStrategy;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.http.client.BufferingClientHttpRequestFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.client.ClientHttpRequestFactory;
 import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.client.RestTemplate;
 
 @Configuration
 @ConfigurationProperties("third-party")
-public class ThirdPartyConfiguration extends LinkedHashMap<String, ApiInfo> {
+public class ThirdPartyConfiguration extends LinkedHashMap<String, ApiInfo> implements DisposableBean {
 
   private Integer readTimeout = 15_000;
   private Integer connectTimeout = (int) (readTimeout * 0.05);
   private Integer maxPerRoute = 40;
   private Integer maxTotalConnection = 100;
+  private Integer asyncMaxPerRoute = 500;
+  private Integer asyncMaxTotalConnection = 2_000;
+  private Integer asyncIoThreadCount = Runtime.getRuntime().availableProcessors();
+  private Integer maxKeepAlive = 30_000;
+  private Integer connectionTimeToLive = 300_000;
+  private Integer validateAfterInactivity = 2_000;
+  private Integer maxIdleTime = 30_000;
+  private Integer evictionInterval = 5_000;
+  private Boolean metricsEnabled = true;
+  private Integer logQueueCapacity = 1_024;
+  private Integer maxCallThreads = 200;
+
+  private final ConcurrentMap<String, RestTemplate> restTemplates = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, AsyncRestClient> asyncRestClients = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Http2Client> http2Clients = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, EndpointResolver> endpointResolvers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ExchangePipeline> exchangePipelines = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, MicroBatcher<?, ?>> batchers = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, CloseableHttpClient> isolatedHttpClients = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, ClientHttpRequestFactory> streamingRequestFactories = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, CredentialProvider> credentialProviders = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, TokenCache> tokenCaches = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Codec> codecs = Codecs.available().stream()
+      .collect(Collectors.toConcurrentMap(Codec::getName, Function.identity()));
+  private final List<Closeable> clients = new CopyOnWriteArrayList<>();
+  private CloseableHttpClient sharedHttpClient;
+  private CloseableHttpAsyncClient sharedHttpAsyncClient;
+  private ClientHttpRequestFactory sharedRequestFactory;
+  private IdleConnectionEvictor idleConnectionEvictor;
+  private ScheduledExecutorService scheduler;
+  private ExecutorService hedgeExecutor;
+  private ExecutorService batchExecutor;
+  private ExecutorService callExecutor;
+  private AsyncLogWriter logWriter;
+  private ThirdPartyMetrics metrics = new InMemoryThirdPartyMetrics();
 
   @Bean
   public RestTemplate thirdPartyRestTemplate()
       throws NoSuchAlgorithmException, KeyStoreException, KeyManagementException {
-    RestTemplate restTemplate = new RestTemplate(getClientHttpRequestFactory());
+    sharedHttpClient = getHttpClient("shared", maxPerRoute, maxTotalConnection);
+    sharedRequestFactory = getClientHttpRequestFactory(sharedHttpClient, readTimeout, connectTimeout);
+    return createRestTemplate(sharedRequestFactory, null, null);
+  }
+
+  /**
+   * Returns the template dedicated to the given {@link ApiInfo} key. Keys that declare their own pool
+   * limits get an isolated connection pool, so a slow partner cannot drain connections of the others;
+   * keys that only override timeouts, need per-key interceptors (the response cache, own logging or
+   * compression settings, token authorization) or use a non-JSON {@link Codec} reuse the shared pool; keys with
+   * {@link Http2Info#isEnabled()} get their own multiplexed HTTP/2 client; all other keys use
+   * {@link #thirdPartyRestTemplate()}.
+   */
+  public RestTemplate getRestTemplate(String key) {
+    return restTemplates.computeIfAbsent(key, this::createRestTemplate);
+  }
+
+  /**
+   * Non-blocking counterpart of {@link #getRestTemplate(String)}, with the same codec, timeouts and
+   * interceptors: requests are multiplexed by a few NIO reactor threads instead of holding one caller
+   * thread per call. Keys with an isolated pool get an isolated asynchronous pool of the same size, HTTP/2
+   * keys share their client with the template, all other keys share one pool of {@code asyncMaxPerRoute}
+   * and {@code asyncMaxTotalConnection} connections.
+   */
+  public AsyncRestClient getAsyncRestClient(String key) {
+    return asyncRestClients.computeIfAbsent(key,
+        k -> new AsyncRestClient(getRestTemplate(k), () -> createAsyncExecution(k)));
+  }
+
+  /**
+   * Returns a factory on the same pool and timeouts as {@link #getRestTemplate(String)} that streams
+   * request bodies to the connection instead of buffering them, for uploads. HTTP/2 keys upload over the
+   * shared HTTP/1.1 pool, since their transport buffers request bodies.
+   */
+  public ClientHttpRequestFactory getStreamingRequestFactory(String key) {
+    return streamingRequestFactories.computeIfAbsent(key, this::createStreamingRequestFactory);
+  }
+
+  /**
+   * Returns the executor for blocking calls submitted in the background: a virtual thread per call on
+   * Java 21 and later, at most {@code maxCallThreads} platform threads before that.
+   */
+  public synchronized ExecutorService getCallExecutor() {
+    if (callExecutor == null) {
+      callExecutor = CallExecutors.newCallExecutor("third-party-call", maxCallThreads);
+      clients.add(callExecutor::shutdownNow);
+    }
+    return callExecutor;
+  }
+
+  public EndpointResolver getEndpointResolver(String key) {
+    return endpointResolvers.computeIfAbsent(key, k -> new EndpointResolver(get(k)));
+  }
+
+  /**
+   * Returns the {@link ExchangeFilter}s enabled for the given {@link ApiInfo} key, created once per key so
+   * that their state (in-flight calls, counters) is shared by every caller of that partner.
+   */
+  public ExchangePipeline getExchangePipeline(String key) {
+    return exchangePipelines.computeIfAbsent(key, this::createExchangePipeline);
+  }
+
+  /**
+   * Returns the batcher registered under the given name for the {@link ApiInfo} key, creating it with the
+   * key's {@link BatchInfo} on first use. Pending items are flushed and sent on shutdown.
+   */
+  @SuppressWarnings("unchecked")
+  public <I, R> MicroBatcher<I, R> getMicroBatcher(String key, String name, BatchFunction<I, R> batchFunction) {
+    return (MicroBatcher<I, R>) batchers.computeIfAbsent(key + "/" + name, batcherName -> {
+      ApiInfo apiInfo = get(key);
+      BatchInfo batchInfo = apiInfo != null ? apiInfo.getBatch() : new BatchInfo();
+      return new MicroBatcher<>(batcherName, batchFunction, batchInfo, getScheduler(), getBatchExecutor());
+    });
+  }
+
+  /**
+   * Returns the codec selected by {@link ApiInfo#getCodec()}, JSON for unknown keys.
+   */
+  public Codec getCodec(String key) {
+    ApiInfo apiInfo = get(key);
+    String name = apiInfo == null ? Codecs.JSON : apiInfo.getCodec();
+    Codec codec = codecs.get(name);
+    if (codec == null) {
+      throw new IllegalStateException("Unknown codec " + name + " for key " + key + ", available: " + codecs.keySet());
+    }
+    return codec;
+  }
+
+  /**
+   * Registers additional codecs, or replaces built-in ones of the same name.
+   */
+  @Autowired(required = false)
+  public void setCodecs(List<Codec> codecs) {
+    for (Codec codec : codecs) {
+      this.codecs.put(codec.getName(), codec);
+    }
+  }
+
+  /**
+   * Returns the token cache of a key whose {@link AuthInfo#getProvider()} is set, {@code null} for keys
+   * using the static {@link ApiInfo#getAuthorization()}.
+   */
+  public TokenCache getTokenCache(String key) {
+    ApiInfo apiInfo = get(key);
+    if (apiInfo == null || apiInfo.getAuth().getProvider() == null) {
+      return null;
+    }
+    return tokenCaches.computeIfAbsent(key, k -> {
+      String name = apiInfo.getAuth().getProvider();
+      CredentialProvider provider = credentialProviders.get(name);
+      if (provider == null) {
+        throw new IllegalStateException("Unknown credential provider " + name + " for key " + key
+            + ", available: " + credentialProviders.keySet());
+      }
+      return new TokenCache(key, provider, apiInfo.getAuth(), getScheduler(), getCallExecutor());
+    });
+  }
+
+  @Autowired(required = false)
+  public void setCredentialProviders(List<CredentialProvider> credentialProviders) {
+    for (CredentialProvider credentialProvider : credentialProviders) {
+      this.credentialProviders.put(credentialProvider.getName(), credentialProvider);
+    }
+  }
+
+  public ThirdPartyMetrics getMetrics() {
+    return metrics;
+  }
+
+  /**
+   * Replaces the default {@link InMemoryThirdPartyMetrics} with the application's own binding, e.g. a
+   * {@link com.truongvietdung.metrics.MicrometerThirdPartyMetrics} bean.
+   */
+  @Autowired(required = false)
+  public void setMetrics(ThirdPartyMetrics metrics) {
+    this.metrics = metrics;
+  }
+
+  @Override
+  public void destroy() throws IOException {
+    for (MicroBatcher<?, ?> batcher : batchers.values()) {
+      batcher.close();
+    }
+    awaitBatches();
+    for (Closeable client : clients) {
+      client.close();
+    }
+  }
+
+  private RestTemplate createRestTemplate(String key) {
+    ApiInfo apiInfo = get(key);
+    try {
+      if (apiInfo == null
+          || !hasOwnClientSettings(apiInfo) && !hasOwnInterceptors(apiInfo) && !hasOwnCodec(apiInfo)
+          && !apiInfo.getHttp2().isEnabled()) {
+        return thirdPartyRestTemplate();
+      }
+      ClientHttpRequestFactory clientHttpRequestFactory = sharedRequestFactory;
+      if (apiInfo.getHttp2().isEnabled()) {
+        clientHttpRequestFactory = getHttp2Client(key, apiInfo).getRequestFactory();
+      } else if (hasOwnClientSettings(apiInfo)) {
+        CloseableHttpClient httpClient = sharedHttpClient;
+        if (hasIsolatedPool(apiInfo)) {
+          httpClient = getHttpClient(key,
+              orDefault(apiInfo.getMaxPerRoute(), maxPerRoute),
+              orDefault(apiInfo.getMaxTotalConnection(), maxTotalConnection));
+          isolatedHttpClients.put(key, httpClient);
+        }
+        clientHttpRequestFactory = getClientHttpRequestFactory(httpClient,
+            orDefault(apiInfo.getReadTimeout(), readTimeout),
+            orDefault(apiInfo.getConnectTimeout(), connectTimeout));
+      }
+      return createRestTemplate(clientHttpRequestFactory, key, apiInfo);
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("Cannot create third-party client for key " + key, e);
+    }
+  }
+
+  private ClientHttpRequestFactory createStreamingRequestFactory(String key) {
+    getRestTemplate(key);
+    ApiInfo apiInfo = get(key);
+    HttpComponentsClientHttpRequestFactory factory = apiInfo == null
+        ? getClientHttpRequestFactory(sharedHttpClient, readTimeout, connectTimeout)
+        : getClientHttpRequestFactory(isolatedHttpClients.getOrDefault(key, sharedHttpClient),
+            orDefault(apiInfo.getReadTimeout(), readTimeout),
+            orDefault(apiInfo.getConnectTimeout(), connectTimeout));
+    factory.setBufferRequestBody(false);
+    return factory;
+  }
+
+  private AsyncRequestExecution createAsyncExecution(String key) {
+    ApiInfo apiInfo = get(key);
+    if (apiInfo == null) {
+      return new HttpAsyncClientExecution(getSharedHttpAsyncClient(), readTimeout, connectTimeout);
+    }
+    if (apiInfo.getHttp2().isEnabled()) {
+      return getHttp2Client(key, apiInfo).getAsyncExecution();
+    }
+    CloseableHttpAsyncClient httpAsyncClient = getSharedHttpAsyncClient();
+    if (hasIsolatedPool(apiInfo)) {
+      httpAsyncClient = getHttpAsyncClient(key + "-async",
+          orDefault(apiInfo.getMaxPerRoute(), maxPerRoute),
+          orDefault(apiInfo.getMaxTotalConnection(), maxTotalConnection));
+    }
+    return new HttpAsyncClientExecution(httpAsyncClient,
+        orDefault(apiInfo.getReadTimeout(), readTimeout),
+        orDefault(apiInfo.getConnectTimeout(), connectTimeout));
+  }
+
+  private Http2Client getHttp2Client(String key, ApiInfo apiInfo) {
+    return http2Clients.computeIfAbsent(key, k -> {
+      if (!Http2RequestFactories.isAvailable()) {
+        throw new IllegalStateException("HTTP/2 for key " + key + " needs com.squareup.okhttp3:okhttp on the classpath");
+      }
+      try {
+        Http2Client client = Http2RequestFactories.create(apiInfo.getHttp2(),
+            orDefault(apiInfo.getReadTimeout(), readTimeout),
+            orDefault(apiInfo.getConnectTimeout(), connectTimeout),
+            maxKeepAlive, getSSLContext());
+        metrics.registerPool(key, client::getPoolStats);
+        clients.add(client);
+        return client;
+      } catch (GeneralSecurityException e) {
+        throw new IllegalStateException("Cannot create third-party client for key " + key, e);
+      }
+    });
+  }
+
+  /**
+   * Mapper of the key's codec when it is Jackson-based, JSON otherwise.
+   */
+  private ObjectMapper getObjectMapper(String key) {
+    HttpMessageConverter<?> converter = getCodec(key).getConverter();
+    return converter instanceof AbstractJackson2HttpMessageConverter
+        ? ((AbstractJackson2HttpMessageConverter) converter).getObjectMapper()
+        : Jackson2ObjectMapperBuilder.json().build();
+  }
+
+  private ExchangePipeline createExchangePipeline(String key) {
+    ApiInfo apiInfo = get(key);
+    if (apiInfo == null) {
+      return ExchangePipeline.EMPTY;
+    }
+    // outermost first: metrics see each call as the caller does, coalesced callers share one retried call,
+    // every attempt passes the breaker once however it is hedged, and each hedged attempt counts against
+    // the concurrency limit while it runs; the attempt aborted because the other one won is not a drop
+    List<ExchangeFilter> filters = new ArrayList<>();
+    if (metricsEnabled) {
+      filters.add(new MetricsFilter(key, metrics));
+    }
+    if (apiInfo.getCoalesce().isEnabled()) {
+      filters.add(new SingleFlightFilter(getObjectMapper(key)));
+    }
+    if (apiInfo.getRetry().isEnabled()) {
+      filters.add(new RetryFilter(apiInfo.getRetry()));
+    }
+    if (apiInfo.getCircuitBreaker().isEnabled()) {
+      filters.add(new CircuitBreakerFilter(new CircuitBreaker(key, apiInfo.getCircuitBreaker())));
+    }
+    if (apiInfo.getHedge().isEnabled()) {
+      filters.add(new HedgingFilter(apiInfo.getHedge(), getScheduler(), getHedgeExecutor()));
+    }
+    if (apiInfo.getConcurrencyLimit().isEnabled()) {
+      filters.add(new ConcurrencyLimitFilter(new AdaptiveConcurrencyLimiter(apiInfo.getConcurrencyLimit())));
+    }
+    return filters.isEmpty() ? ExchangePipeline.EMPTY : new ExchangePipeline(filters);
+  }
+
+  private RestTemplate createRestTemplate(ClientHttpRequestFactory clientHttpRequestFactory, String key,
+      ApiInfo apiInfo) {
+    RestTemplate restTemplate = new RestTemplate(clientHttpRequestFactory);
 
     if(ObjectUtils.isEmpty(restTemplate.getInterceptors())){
       restTemplate.setInterceptors(new ArrayList<>());
     }
+    if (apiInfo != null && hasOwnCodec(apiInfo)) {
+      restTemplate.getMessageConverters().add(0, getCodec(key).getConverter());
+    }
+    if (apiInfo != null && apiInfo.getCache().isEnabled()) {
+      restTemplate.getInterceptors()
+          .add(new CachingRequestInterceptor(key, apiInfo.getCache()));
+    }
+    LoggingRequestInterceptor loggingInterceptor = apiInfo == null
+        ? new LoggingRequestInterceptor(null, new LogInfo(), getLogWriter())
+        : new LoggingRequestInterceptor(key, apiInfo.getLog(), getLogWriter(), apiInfo.getAuthorizationHeader());
     restTemplate.getInterceptors()
-        .add(new LoggingRequestInterceptor());
+        .add(loggingInterceptor);
+    // after logging, so the body is logged before it is compressed
+    if (apiInfo != null && !new CompressionInfo().equals(apiInfo.getCompression())) {
+      restTemplate.getInterceptors()
+          .add(new CompressionRequestInterceptor(apiInfo.getCompression()));
+    }
+    // last, as it may repeat the request
+    if (apiInfo != null && apiInfo.getAuth().getProvider() != null) {
+      restTemplate.getInterceptors()
+          .add(new TokenAuthorizationInterceptor(apiInfo.getAuthorizationHeader(), getTokenCache(key),
+              apiInfo.getAuth().isRetryOnUnauthorized()));
+    }
 
     return restTemplate;
   }
 
-  private ClientHttpRequestFactory getClientHttpRequestFactory()
-      throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
-    HttpComponentsClientHttpRequestFactory factory =
-        new HttpComponentsClientHttpRequestFactory(getHttpClient(maxPerRoute, maxTotalConnection));
+  private boolean hasOwnInterceptors(ApiInfo apiInfo) {
+    return apiInfo.getCache().isEnabled()
+        || apiInfo.getAuth().getProvider() != null
+        || !new LogInfo().equals(apiInfo.getLog())
+        || !new CompressionInfo().equals(apiInfo.getCompression())
+        || !HttpHeaders.AUTHORIZATION.equalsIgnoreCase(apiInfo.getAuthorizationHeader());
+  }
+
+  private boolean hasOwnCodec(ApiInfo apiInfo) {
+    return !Codecs.JSON.equals(apiInfo.getCodec());
+  }
+
+  private boolean hasOwnClientSettings(ApiInfo apiInfo) {
+    return hasIsolatedPool(apiInfo) || apiInfo.getReadTimeout() != null || apiInfo.getConnectTimeout() != null;
+  }
+
+  private boolean hasIsolatedPool(ApiInfo apiInfo) {
+    return apiInfo.getMaxPerRoute() != null || apiInfo.getMaxTotalConnection() != null;
+  }
+
+  private Integer orDefault(Integer value, Integer defaultValue) {
+    return value != null ? value : defaultValue;
+  }
+
+  private HttpComponentsClientHttpRequestFactory getClientHttpRequestFactory(CloseableHttpClient httpClient,
+      int readTimeout, int connectTimeout) {
+    HttpComponentsClientHttpRequestFactory factory = new AbortableClientHttpRequestFactory(httpClient);
     factory.setConnectTimeout(connectTimeout);
     factory.setReadTimeout(readTimeout);
-    return new BufferingClientHttpRequestFactory(factory);
+    return factory;
   }
 
-  private CloseableHttpClient getHttpClient(int maxPerRoute, int maxTotalConnection)
+  private CloseableHttpClient getHttpClient(String pool, int maxPerRoute, int maxTotalConnection)
       throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
     Registry<ConnectionSocketFactory> registry = RegistryBuilder.<ConnectionSocketFactory>create()
         .register("HTTPS", getSSLConnectionSocketFactory())
         .register("HTTP", PlainConnectionSocketFactory
             .getSocketFactory()).build();
-    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry);
+    PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(registry, null,
+        null, null, connectionTimeToLive, TimeUnit.MILLISECONDS);
     connectionManager.setDefaultMaxPerRoute(maxPerRoute);
     connectionManager.setMaxTotal(maxTotalConnection);
+    connectionManager.setValidateAfterInactivity(validateAfterInactivity);
+    getIdleConnectionEvictor().register(connectionManager);
+    metrics.registerPool(pool, connectionManager::getTotalStats);
     SSLConnectionSocketFactory connSocketFactory = getSSLConnectionSocketFactory();
-    return HttpClients.custom().setConnectionManager(connectionManager).setSSLSocketFactory(connSocketFactory).build();
+    CloseableHttpClient httpClient = HttpClients.custom()
+        .setConnectionManager(connectionManager)
+        .setSSLSocketFactory(connSocketFactory)
+        .setKeepAliveStrategy(getKeepAliveStrategy())
+        .build();
+    clients.add(httpClient);
+    return httpClient;
+  }
+
+  private synchronized CloseableHttpAsyncClient getSharedHttpAsyncClient() {
+    if (sharedHttpAsyncClient == null) {
+      sharedHttpAsyncClient = getHttpAsyncClient("async", asyncMaxPerRoute, asyncMaxTotalConnection);
+    }
+    return sharedHttpAsyncClient;
+  }
+
+  private CloseableHttpAsyncClient getHttpAsyncClient(String pool, int maxPerRoute, int maxTotalConnection) {
+    try {
+      return createHttpAsyncClient(pool, maxPerRoute, maxTotalConnection);
+    } catch (GeneralSecurityException | IOReactorException e) {
+      throw new IllegalStateException("Cannot create asynchronous third-party client " + pool, e);
+    }
+  }
+
+  private CloseableHttpAsyncClient createHttpAsyncClient(String pool, int maxPerRoute, int maxTotalConnection)
+      throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException, IOReactorException {
+    Registry<SchemeIOSessionStrategy> registry = RegistryBuilder.<SchemeIOSessionStrategy>create()
+        .register("HTTPS", getSSLIOSessionStrategy())
+        .register("HTTP", NoopIOSessionStrategy.INSTANCE).build();
+    IOReactorConfig ioReactorConfig = IOReactorConfig.custom()
+        .setIoThreadCount(asyncIoThreadCount)
+        .setConnectTimeout(connectTimeout)
+        .setSoTimeout(readTimeout)
+        .build();
+    PoolingNHttpClientConnectionManager connectionManager = new PoolingNHttpClientConnectionManager(
+        new DefaultConnectingIOReactor(ioReactorConfig), null, registry, (SchemePortResolver) null,
+        (DnsResolver) null, connectionTimeToLive, TimeUnit.MILLISECONDS);
+    connectionManager.setDefaultMaxPerRoute(maxPerRoute);
+    connectionManager.setMaxTotal(maxTotalConnection);
+    getIdleConnectionEvictor().register(connectionManager);
+    metrics.registerPool(pool, connectionManager::getTotalStats);
+    CloseableHttpAsyncClient httpAsyncClient = HttpAsyncClients.custom()
+        .setConnectionManager(connectionManager)
+        .setKeepAliveStrategy(getKeepAliveStrategy())
+        .build();
+    httpAsyncClient.start();
+    clients.add(httpAsyncClient);
+    return httpAsyncClient;
+  }
+
+  /**
+   * Honors the server {@code Keep-Alive: timeout=n} hint but never keeps a connection longer than
+   * {@code maxKeepAlive}, which is also used when the server sends no hint at all.
+   */
+  private ConnectionKeepAliveStrategy getKeepAliveStrategy() {
+    return (response, context) -> {
+      long keepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+      return keepAlive > 0 ? Math.min(keepAlive, maxKeepAlive) : maxKeepAlive;
+    };
+  }
+
+  private synchronized IdleConnectionEvictor getIdleConnectionEvictor() {
+    if (idleConnectionEvictor == null) {
+      idleConnectionEvictor = new IdleConnectionEvictor(evictionInterval, maxIdleTime);
+      clients.add(idleConnectionEvictor);
+    }
+    return idleConnectionEvictor;
+  }
+
+  private synchronized ScheduledExecutorService getScheduler() {
+    if (scheduler == null) {
+      ScheduledThreadPoolExecutor timer = new ScheduledThreadPoolExecutor(1, daemonThreadFactory("third-party-timer"));
+      timer.setRemoveOnCancelPolicy(true);
+      scheduler = timer;
+      clients.add(scheduler::shutdownNow);
+    }
+    return scheduler;
+  }
+
+  private synchronized ExecutorService getHedgeExecutor() {
+    if (hedgeExecutor == null) {
+      hedgeExecutor = CallExecutors.newCallExecutor("third-party-hedge", maxCallThreads);
+      clients.add(hedgeExecutor::shutdownNow);
+    }
+    return hedgeExecutor;
+  }
+
+  private synchronized ExecutorService getBatchExecutor() {
+    if (batchExecutor == null) {
+      batchExecutor = CallExecutors.newCallExecutor("third-party-batch", maxCallThreads);
+    }
+    return batchExecutor;
+  }
+
+  private synchronized AsyncLogWriter getLogWriter() {
+    if (logWriter == null) {
+      logWriter = new AsyncLogWriter(logQueueCapacity);
+      clients.add(logWriter);
+    }
+    return logWriter;
+  }
+
+  private synchronized void awaitBatches() {
+    if (batchExecutor == null) {
+      return;
+    }
+    batchExecutor.shutdown();
+    try {
+      batchExecutor.awaitTermination(readTimeout, TimeUnit.MILLISECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private ThreadFactory daemonThreadFactory(String name) {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, name + "-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
   }
 
   private SSLConnectionSocketFactory getSSLConnectionSocketFactory()
       throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
-    TrustStrategy trustStrategy = new TrustAllStrategy();
-    SSLContext sslContext = SSLContexts.custom().loadTrustMaterial(null, trustStrategy).build();
     String[] supportedProtocols = getSupportedProtocols();
-    return new SSLConnectionSocketFactory(sslContext, supportedProtocols, null, new NoopHostnameVerifier());
+    return new SSLConnectionSocketFactory(getSSLContext(), supportedProtocols, null, new NoopHostnameVerifier());
+  }
+
+  private SSLIOSessionStrategy getSSLIOSessionStrategy()
+      throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
+    String[] supportedProtocols = getSupportedProtocols();
+    return new SSLIOSessionStrategy(getSSLContext(), supportedProtocols, null, new NoopHostnameVerifier());
+  }
+
+  private SSLContext getSSLContext()
+      throws KeyManagementException, NoSuchAlgorithmException, KeyStoreException {
+    TrustStrategy trustStrategy = new TrustAllStrategy();
+    return SSLContexts.custom().loadTrustMaterial(null, trustStrategy).build();
   }
 
   private String[] getSupportedProtocols() {
@@ -118,4 +660,92 @@ public class ThirdPartyConfiguration extends LinkedHashMap<String, ApiInfo> {
   public void setMaxTotalConnection(Integer maxTotalConnection) {
     this.maxTotalConnection = maxTotalConnection;
   }
+
+  public Integer getAsyncMaxPerRoute() {
+    return asyncMaxPerRoute;
+  }
+
+  public void setAsyncMaxPerRoute(Integer asyncMaxPerRoute) {
+    this.asyncMaxPerRoute = asyncMaxPerRoute;
+  }
+
+  public Integer getAsyncMaxTotalConnection() {
+    return asyncMaxTotalConnection;
+  }
+
+  public void setAsyncMaxTotalConnection(Integer asyncMaxTotalConnection) {
+    this.asyncMaxTotalConnection = asyncMaxTotalConnection;
+  }
+
+  public Integer getAsyncIoThreadCount() {
+    return asyncIoThreadCount;
+  }
+
+  public void setAsyncIoThreadCount(Integer asyncIoThreadCount) {
+    this.asyncIoThreadCount = asyncIoThreadCount;
+  }
+
+  public Integer getMaxKeepAlive() {
+    return maxKeepAlive;
+  }
+
+  public void setMaxKeepAlive(Integer maxKeepAlive) {
+    this.maxKeepAlive = maxKeepAlive;
+  }
+
+  public Integer getConnectionTimeToLive() {
+    return connectionTimeToLive;
+  }
+
+  public void setConnectionTimeToLive(Integer connectionTimeToLive) {
+    this.connectionTimeToLive = connectionTimeToLive;
+  }
+
+  public Integer getValidateAfterInactivity() {
+    return validateAfterInactivity;
+  }
+
+  public void setValidateAfterInactivity(Integer validateAfterInactivity) {
+    this.validateAfterInactivity = validateAfterInactivity;
+  }
+
+  public Integer getMaxIdleTime() {
+    return maxIdleTime;
+  }
+
+  public void setMaxIdleTime(Integer maxIdleTime) {
+    this.maxIdleTime = maxIdleTime;
+  }
+
+  public Integer getEvictionInterval() {
+    return evictionInterval;
+  }
+
+  public void setEvictionInterval(Integer evictionInterval) {
+    this.evictionInterval = evictionInterval;
+  }
+
+  public Boolean getMetricsEnabled() {
+    return metricsEnabled;
+  }
+
+  public void setMetricsEnabled(Boolean metricsEnabled) {
+    this.metricsEnabled = metricsEnabled;
+  }
+
+  public Integer getLogQueueCapacity() {
+    return logQueueCapacity;
+  }
+
+  public void setLogQueueCapacity(Integer logQueueCapacity) {
+    this.logQueueCapacity = logQueueCapacity;
+  }
+
+  public Integer getMaxCallThreads() {
+    return maxCallThreads;
+  }
+
+  public void setMaxCallThreads(Integer maxCallThreads) {
+    this.maxCallThreads = maxCallThreads;
+  }
 }
@@ -0,0 +1,67 @@
+package com.truongvietdung.config.interceptor;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.Closeable;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded queue drained by one daemon thread that formats and writes {@link ExchangeLog}s, so partner
+ * calls never wait for logging. When the queue is full new entries are dropped and counted.
+ */
+public class AsyncLogWriter implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(LoggingRequestInterceptor.class);
+
+  private final BlockingQueue<ExchangeLog> queue;
+  private final ObjectMapper objectMapper = new ObjectMapper();
+  private final LongAdder dropped = new LongAdder();
+  private final Thread thread;
+  private volatile boolean closed;
+
+  public AsyncLogWriter(int capacity) {
+    this.queue = new ArrayBlockingQueue<>(capacity);
+    this.thread = new Thread(this::drain, "third-party-logger");
+    this.thread.setDaemon(true);
+    this.thread.start();
+  }
+
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    thread.interrupt();
+  }
+
+  void submit(ExchangeLog exchangeLog) {
+    if (closed || !queue.offer(exchangeLog)) {
+      dropped.increment();
+    }
+  }
+
+  private void drain() {
+    while (!closed || !queue.isEmpty()) {
+      ExchangeLog exchangeLog;
+      try {
+        exchangeLog = closed ? queue.poll() : queue.take();
+      } catch (InterruptedException e) {
+        continue;
+      }
+      if (exchangeLog == null) {
+        return;
+      }
+      try {
+        log.debug(objectMapper.writeValueAsString(exchangeLog.toMap()));
+      } catch (JsonProcessingException | RuntimeException e) {
+        log.warn("Fail when writing 3rd exchange log: {}", e.getMessage());
+      }
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.truongvietdung.config.interceptor;
+
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Remainder of an asynchronous interceptor chain, ending in the non-blocking transport of the partner.
+ * The returned response is fully buffered.
+ */
+@FunctionalInterface
+public interface AsyncRequestExecution {
+
+  CompletableFuture<ClientHttpResponse> executeAsync(HttpRequest request, byte[] body);
+}
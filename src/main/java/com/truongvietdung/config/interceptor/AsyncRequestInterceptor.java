@@ -0,0 +1,17 @@
+package com.truongvietdung.config.interceptor;
+
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Non-blocking counterpart of {@link ClientHttpRequestInterceptor}, implemented by the interceptors of a
+ * partner template so that its asynchronous calls are cached, logged, compressed and authorized the same
+ * way. Must not block: the chain runs on the transport's I/O threads.
+ */
+public interface AsyncRequestInterceptor {
+
+  CompletableFuture<ClientHttpResponse> interceptAsync(HttpRequest request, byte[] body,
+      AsyncRequestExecution execution);
+}
@@ -0,0 +1,56 @@
+package com.truongvietdung.config.interceptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Response whose body has already been read into memory, so it can be consumed more than once.
+ */
+public class BufferedClientHttpResponse implements ClientHttpResponse {
+
+  private final ClientHttpResponse response;
+  private final byte[] body;
+
+  public BufferedClientHttpResponse(ClientHttpResponse response, byte[] body) {
+    this.response = response;
+    this.body = body;
+  }
+
+  public byte[] getBodyAsByteArray() {
+    return body;
+  }
+
+  @Override
+  public HttpStatus getStatusCode() throws IOException {
+    return response.getStatusCode();
+  }
+
+  @Override
+  public int getRawStatusCode() throws IOException {
+    return response.getRawStatusCode();
+  }
+
+  @Override
+  public String getStatusText() throws IOException {
+    return response.getStatusText();
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    return response.getHeaders();
+  }
+
+  @Override
+  public InputStream getBody() {
+    return new ByteArrayInputStream(body);
+  }
+
+  @Override
+  public void close() {
+    response.close();
+  }
+}
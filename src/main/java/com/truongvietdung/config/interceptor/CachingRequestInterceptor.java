@@ -0,0 +1,176 @@
+package com.truongvietdung.config.interceptor;
+
+import com.truongvietdung.cache.CachedClientHttpResponse;
+import com.truongvietdung.cache.CachedResponse;
+import com.truongvietdung.cache.ResponseCache;
+import com.truongvietdung.config.CacheInfo;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+/**
+ * Private HTTP cache for GET requests of one {@link com.truongvietdung.config.ApiInfo} key. Fresh entries
+ * are served without a round trip; stale entries that carry an ETag or Last-Modified are revalidated
+ * with a conditional request and served from the cache on {@code 304 Not Modified}. Entries are keyed by
+ * the API key, the URI and the values of the request headers named in the response's {@code Vary}, so
+ * each variant of a resource is cached separately.
+ */
+public class CachingRequestInterceptor implements ClientHttpRequestInterceptor, AsyncRequestInterceptor {
+
+  private final String apiKey;
+  private final CacheInfo cacheInfo;
+  private final ResponseCache responseCache;
+
+  public CachingRequestInterceptor(String apiKey, CacheInfo cacheInfo) {
+    this.apiKey = apiKey;
+    this.cacheInfo = cacheInfo;
+    this.responseCache = new ResponseCache(cacheInfo.getMaxEntries(), cacheInfo.getMaxBytes());
+  }
+
+  public ResponseCache getResponseCache() {
+    return responseCache;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    if (!isCacheable(request)) {
+      return execution.execute(request, body);
+    }
+    String resourceKey = apiKey + ' ' + request.getURI();
+    CachedResponse cached = lookup(resourceKey, request.getHeaders());
+    if (cached != null && isServable(cached, request.getHeaders())) {
+      responseCache.recordHit();
+      return new CachedClientHttpResponse(cached);
+    }
+    prepareRequest(cached, request.getHeaders());
+    return store(resourceKey, cached, request.getHeaders(), execution.execute(request, body));
+  }
+
+  @Override
+  public CompletableFuture<ClientHttpResponse> interceptAsync(HttpRequest request, byte[] body,
+      AsyncRequestExecution execution) {
+    if (!isCacheable(request)) {
+      return execution.executeAsync(request, body);
+    }
+    String resourceKey = apiKey + ' ' + request.getURI();
+    CachedResponse cached = lookup(resourceKey, request.getHeaders());
+    if (cached != null && isServable(cached, request.getHeaders())) {
+      responseCache.recordHit();
+      return CompletableFuture.completedFuture(new CachedClientHttpResponse(cached));
+    }
+    prepareRequest(cached, request.getHeaders());
+    return execution.executeAsync(request, body).thenApply(response -> {
+      try {
+        return store(resourceKey, cached, request.getHeaders(), response);
+      } catch (IOException e) {
+        response.close();
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
+
+  private boolean isCacheable(HttpRequest request) {
+    HttpHeaders requestHeaders = request.getHeaders();
+    return request.getMethod() == HttpMethod.GET && !isConditional(requestHeaders)
+        && !CachedResponse.hasDirective(requestHeaders.getCacheControl(), "no-store");
+  }
+
+  private CachedResponse lookup(String resourceKey, HttpHeaders requestHeaders) {
+    CachedResponse cached = responseCache.get(variantKey(resourceKey, responseCache.getVary(resourceKey),
+        requestHeaders));
+    return cached != null && cached.matchesVary(requestHeaders) ? cached : null;
+  }
+
+  /**
+   * Appends the values of the varied request headers to the resource key, names lower-cased and sorted so
+   * that the key does not depend on how the partner spells or orders its {@code Vary}.
+   */
+  private static String variantKey(String resourceKey, List<String> vary, HttpHeaders requestHeaders) {
+    if (vary.isEmpty()) {
+      return resourceKey;
+    }
+    StringBuilder key = new StringBuilder(resourceKey);
+    new TreeSet<>(vary).forEach(header -> key.append('\n').append(header).append(": ")
+        .append(requestHeaders.getOrDefault(header, Collections.emptyList())));
+    return key.toString();
+  }
+
+  private boolean isServable(CachedResponse cached, HttpHeaders requestHeaders) {
+    return cached.isFresh(System.currentTimeMillis())
+        && !CachedResponse.hasDirective(requestHeaders.getCacheControl(), "no-cache");
+  }
+
+  private void prepareRequest(CachedResponse cached, HttpHeaders requestHeaders) {
+    responseCache.recordMiss();
+    if (cached != null && cached.hasValidators()) {
+      cached.addConditionalHeaders(requestHeaders);
+    }
+  }
+
+  private ClientHttpResponse store(String resourceKey, CachedResponse cached, HttpHeaders requestHeaders,
+      ClientHttpResponse response) throws IOException {
+    long now = System.currentTimeMillis();
+
+    if (cached != null && response.getRawStatusCode() == HttpStatus.NOT_MODIFIED.value()) {
+      CachedResponse revalidated = cached.revalidated(response.getHeaders(), cacheInfo.getDefaultTtl(), now);
+      response.close();
+      responseCache.put(variantKey(resourceKey, responseCache.getVary(resourceKey), requestHeaders), revalidated);
+      responseCache.recordRevalidated();
+      return new CachedClientHttpResponse(revalidated);
+    }
+    if (response.getRawStatusCode() != HttpStatus.OK.value() || !CachedResponse.isStorable(response.getHeaders())
+        || response.getHeaders().getContentLength() > cacheInfo.getMaxBodySize()) {
+      return response;
+    }
+
+    // without a Content-Length the cap is enforced while reading: an oversized body is not cached and is
+    // handed on as the part already read followed by the rest of the live stream
+    InputStream bodyStream = response.getBody();
+    byte[] responseBody = readAtMost(bodyStream, (int) Math.min(cacheInfo.getMaxBodySize() + 1, Integer.MAX_VALUE - 8));
+    if (responseBody.length > cacheInfo.getMaxBodySize()) {
+      return new PrefixedClientHttpResponse(response, responseBody, bodyStream);
+    }
+    List<String> vary = response.getHeaders().getVary().stream()
+        .map(header -> header.toLowerCase(Locale.ROOT))
+        .collect(Collectors.toList());
+    CachedResponse fresh = CachedResponse.of(response.getRawStatusCode(), response.getStatusText(), requestHeaders,
+        response.getHeaders(), responseBody, cacheInfo.getDefaultTtl(), now);
+    if (fresh.isFresh(now) || fresh.hasValidators()) {
+      responseCache.putVary(resourceKey, vary);
+      responseCache.put(variantKey(resourceKey, vary, requestHeaders), fresh);
+    }
+    return new BufferedClientHttpResponse(response, responseBody);
+  }
+
+  private static byte[] readAtMost(InputStream in, int limit) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream(Math.min(limit, StreamUtils.BUFFER_SIZE));
+    byte[] buffer = new byte[StreamUtils.BUFFER_SIZE];
+    int read;
+    while (out.size() < limit && (read = in.read(buffer, 0, Math.min(buffer.length, limit - out.size()))) >= 0) {
+      out.write(buffer, 0, read);
+    }
+    return out.toByteArray();
+  }
+
+  private boolean isConditional(HttpHeaders requestHeaders) {
+    return requestHeaders.containsKey(HttpHeaders.IF_NONE_MATCH)
+        || requestHeaders.containsKey(HttpHeaders.IF_MODIFIED_SINCE)
+        || requestHeaders.containsKey(HttpHeaders.RANGE);
+  }
+}
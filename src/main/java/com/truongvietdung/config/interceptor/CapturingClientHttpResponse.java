@@ -0,0 +1,111 @@
+package com.truongvietdung.config.interceptor;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Passes the body through unbuffered while keeping a copy of its first {@code maxBodyBytes}; the copy
+ * is handed to {@code onClose} when the response is closed.
+ */
+class CapturingClientHttpResponse implements ClientHttpResponse {
+
+  private final ClientHttpResponse response;
+  private final Consumer<CapturingClientHttpResponse> onClose;
+  private final AtomicBoolean closed = new AtomicBoolean();
+  private final byte[] captured;
+  private int capturedLength;
+  private long bodyLength;
+  private InputStream body;
+
+  CapturingClientHttpResponse(ClientHttpResponse response, int maxBodyBytes,
+      Consumer<CapturingClientHttpResponse> onClose) {
+    this.response = response;
+    this.captured = new byte[maxBodyBytes];
+    this.onClose = onClose;
+  }
+
+  byte[] getCapturedBody() {
+    return Arrays.copyOf(captured, capturedLength);
+  }
+
+  long getBodyLength() {
+    return bodyLength;
+  }
+
+  @Override
+  public HttpStatus getStatusCode() throws IOException {
+    return response.getStatusCode();
+  }
+
+  @Override
+  public int getRawStatusCode() throws IOException {
+    return response.getRawStatusCode();
+  }
+
+  @Override
+  public String getStatusText() throws IOException {
+    return response.getStatusText();
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    return response.getHeaders();
+  }
+
+  @Override
+  public InputStream getBody() throws IOException {
+    if (body == null) {
+      body = new CapturingInputStream(response.getBody());
+    }
+    return body;
+  }
+
+  @Override
+  public void close() {
+    response.close();
+    if (closed.compareAndSet(false, true)) {
+      onClose.accept(this);
+    }
+  }
+
+  private void capture(byte[] bytes, int offset, int length) {
+    bodyLength += length;
+    int copied = Math.min(length, captured.length - capturedLength);
+    if (copied > 0) {
+      System.arraycopy(bytes, offset, captured, capturedLength, copied);
+      capturedLength += copied;
+    }
+  }
+
+  private class CapturingInputStream extends FilterInputStream {
+
+    CapturingInputStream(InputStream in) {
+      super(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      int b = super.read();
+      if (b >= 0) {
+        capture(new byte[] {(byte) b}, 0, 1);
+      }
+      return b;
+    }
+
+    @Override
+    public int read(byte[] bytes, int offset, int length) throws IOException {
+      int read = super.read(bytes, offset, length);
+      if (read > 0) {
+        capture(bytes, offset, read);
+      }
+      return read;
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package com.truongvietdung.config.interceptor;
+
+import com.truongvietdung.config.CompressionInfo;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.zip.GZIPOutputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.support.HttpRequestWrapper;
+
+/**
+ * Gzips request bodies of at least {@link CompressionInfo#getMinRequestSize()} bytes for partners that
+ * accept {@code Content-Encoding}, and opts out of compressed responses for partners that mishandle
+ * them. Responses are otherwise negotiated and decompressed, as a stream, by the Apache client, which
+ * sends {@code Accept-Encoding: gzip,deflate} unless the request already carries one.
+ */
+public class CompressionRequestInterceptor implements ClientHttpRequestInterceptor, AsyncRequestInterceptor {
+
+  private static final String GZIP = "gzip";
+  private static final String IDENTITY = "identity";
+
+  private final CompressionInfo compressionInfo;
+
+  public CompressionRequestInterceptor(CompressionInfo compressionInfo) {
+    this.compressionInfo = compressionInfo;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    negotiate(request);
+    byte[] compressed = compress(request, body);
+    if (compressed == null) {
+      return execution.execute(request, body);
+    }
+    return execution.execute(withContentEncoding(request, compressed.length), compressed);
+  }
+
+  @Override
+  public CompletableFuture<ClientHttpResponse> interceptAsync(HttpRequest request, byte[] body,
+      AsyncRequestExecution execution) {
+    negotiate(request);
+    byte[] compressed;
+    try {
+      compressed = compress(request, body);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (compressed == null) {
+      return execution.executeAsync(request, body);
+    }
+    return execution.executeAsync(withContentEncoding(request, compressed.length), compressed);
+  }
+
+  private void negotiate(HttpRequest request) {
+    if (!compressionInfo.isAcceptCompressed() && !request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+      request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, IDENTITY);
+    }
+  }
+
+  /**
+   * Returns the gzipped body, or {@code null} when it is sent as it is.
+   */
+  private byte[] compress(HttpRequest request, byte[] body) throws IOException {
+    if (!compressionInfo.isCompressRequests() || body.length < compressionInfo.getMinRequestSize()
+        || request.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING)) {
+      return null;
+    }
+    byte[] compressed = gzip(body);
+    return compressed.length < body.length ? compressed : null;
+  }
+
+  private HttpRequest withContentEncoding(HttpRequest request, int contentLength) {
+    HttpHeaders headers = new HttpHeaders();
+    headers.putAll(request.getHeaders());
+    headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+    headers.setContentLength(contentLength);
+    return new HttpRequestWrapper(request) {
+      @Override
+      public HttpHeaders getHeaders() {
+        return headers;
+      }
+    };
+  }
+
+  private byte[] gzip(byte[] body) throws IOException {
+    ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, body.length / 4));
+    try (OutputStream gzip = new LeveledGZIPOutputStream(compressed, compressionInfo.getLevel())) {
+      gzip.write(body);
+    }
+    return compressed.toByteArray();
+  }
+
+  private static final class LeveledGZIPOutputStream extends GZIPOutputStream {
+
+    LeveledGZIPOutputStream(OutputStream out, int level) throws IOException {
+      super(out, 8_192);
+      def.setLevel(level);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.truongvietdung.config.interceptor;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+/**
+ * What was captured of one exchange on the calling thread; converted to its structured form only on the
+ * log writer thread.
+ */
+class ExchangeLog {
+
+  private static final String REDACTED = "***";
+
+  String key;
+  HttpMethod method;
+  URI uri;
+  HttpHeaders requestHeaders;
+  byte[] requestBody;
+  long requestBodyLength;
+  int status;
+  HttpHeaders responseHeaders;
+  byte[] responseBody;
+  long responseBodyLength;
+  long durationNanos;
+  String error;
+  Set<String> redactHeaders;
+
+  Map<String, Object> toMap() {
+    Map<String, Object> request = new LinkedHashMap<>();
+    request.put("method", method);
+    request.put("uri", uri);
+    request.put("headers", redact(requestHeaders));
+    request.put("body", decode(requestBody, requestHeaders));
+    request.put("body_length", requestBodyLength);
+
+    Map<String, Object> map = new LinkedHashMap<>();
+    if (key != null) {
+      map.put("key", key);
+    }
+    map.put("duration_ms", durationNanos / 1_000_000.0);
+    map.put("request", request);
+    if (error != null) {
+      map.put("error", error);
+      return map;
+    }
+    Map<String, Object> response = new LinkedHashMap<>();
+    response.put("status_code", status);
+    response.put("headers", redact(responseHeaders));
+    response.put("body", decode(responseBody, responseHeaders));
+    response.put("body_length", responseBodyLength);
+    map.put("response", response);
+    return map;
+  }
+
+  private Map<String, Object> redact(HttpHeaders headers) {
+    Map<String, Object> redacted = new LinkedHashMap<>();
+    for (Map.Entry<String, List<String>> header : headers.entrySet()) {
+      redacted.put(header.getKey(), redactHeaders.contains(header.getKey()) ? REDACTED : header.getValue());
+    }
+    return redacted;
+  }
+
+  private String decode(byte[] body, HttpHeaders headers) {
+    if (body == null || body.length == 0) {
+      return null;
+    }
+    return new String(body, getCharset(headers));
+  }
+
+  private Charset getCharset(HttpHeaders headers) {
+    try {
+      MediaType contentType = headers.getContentType();
+      if (contentType != null && contentType.getCharset() != null) {
+        return contentType.getCharset();
+      }
+    } catch (InvalidMediaTypeException ignored) {
+    }
+    return StandardCharsets.UTF_8;
+  }
+}
@@ -1,68 +1,126 @@
 package com.truongvietdung.config.interceptor;
 
-import java.io.BufferedReader;
+import com.truongvietdung.config.LogInfo;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.nio.charset.Charset;
-import java.util.HashMap;
-import java.util.Map;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadLocalRandom;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpRequest;
-import org.springframework.http.InvalidMediaTypeException;
 import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
 import org.springframework.http.client.ClientHttpResponse;
 
+/**
+ * Logs a sample of exchanges as one JSON line each. Bodies are captured only up to
+ * {@link LogInfo#getMaxBodyBytes()} while the caller reads them, sensitive headers are redacted, and
+ * formatting and writing happen on the {@link AsyncLogWriter} thread. Does nothing unless debug is
+ * enabled for this logger.
+ */
 @Slf4j
-public class LoggingRequestInterceptor implements ClientHttpRequestInterceptor {
+public class LoggingRequestInterceptor implements ClientHttpRequestInterceptor, AsyncRequestInterceptor {
+
+  /**
+   * Always redacted, whatever {@link LogInfo#getRedactHeaders()} is configured to.
+   */
+  public static final Set<String> DEFAULT_REDACT_HEADERS = Collections.unmodifiableSet(new TreeSet<>(Arrays.asList(
+      "Authorization", "Proxy-Authorization", "Cookie", "Set-Cookie", "X-Api-Key")));
+
+  private final String key;
+  private final LogInfo logInfo;
+  private final Set<String> redactHeaders = new TreeSet<>(String.CASE_INSENSITIVE_ORDER);
+  private final AsyncLogWriter logWriter;
+
+  public LoggingRequestInterceptor(String key, LogInfo logInfo, AsyncLogWriter logWriter, String... redactHeaders) {
+    this.key = key;
+    this.logInfo = logInfo;
+    this.logWriter = logWriter;
+    this.redactHeaders.addAll(DEFAULT_REDACT_HEADERS);
+    this.redactHeaders.addAll(logInfo.getRedactHeaders());
+    this.redactHeaders.addAll(Arrays.asList(redactHeaders));
+  }
 
   @Override
   public ClientHttpResponse intercept(
       HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
-    ClientHttpResponse response = execution.execute(request, body);
-    if(log.isDebugEnabled()){
-      log(request, body, response);
+    if (!isLogged()) {
+      return execution.execute(request, body);
     }
-    return response;
-  }
-
-  private void log(HttpRequest request, byte[] requestBody, ClientHttpResponse response) throws IOException {
-    StringBuilder inputStringBuilder = new StringBuilder();
-    Charset charset;
-
-    try{
-      charset = response.getHeaders().getContentType().getCharset();
-    } catch (InvalidMediaTypeException ignored){
-      charset = Charset.defaultCharset();
+    ExchangeLog exchangeLog = newExchangeLog(request, body);
+    long start = System.nanoTime();
+    ClientHttpResponse response;
+    try {
+      response = execution.execute(request, body);
+    } catch (IOException | RuntimeException e) {
+      logFailure(exchangeLog, start, e);
+      throw e;
     }
+    return capture(exchangeLog, start, response);
+  }
 
-    BufferedReader bufferedReader = new BufferedReader(new InputStreamReader(response.getBody(), charset));
-    String line = bufferedReader.readLine();
-    while (line != null) {
-      inputStringBuilder.append(line);
-      inputStringBuilder.append('\n');
-      line = bufferedReader.readLine();
+  @Override
+  public CompletableFuture<ClientHttpResponse> interceptAsync(HttpRequest request, byte[] body,
+      AsyncRequestExecution execution) {
+    if (!isLogged()) {
+      return execution.executeAsync(request, body);
     }
+    ExchangeLog exchangeLog = newExchangeLog(request, body);
+    long start = System.nanoTime();
+    return execution.executeAsync(request, body).whenComplete((response, e) -> {
+      if (e != null) {
+        logFailure(exchangeLog, start, e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+      }
+    }).thenApply(response -> {
+      try {
+        return capture(exchangeLog, start, response);
+      } catch (IOException e) {
+        response.close();
+        throw new UncheckedIOException(e);
+      }
+    });
+  }
 
-    Map<String, Map<String, Object>> mapLog = new HashMap<>();
-    Map<String, Object> mapRequest = new HashMap<>();
-    Map<String, Object> mapResponse = new HashMap<>();
-
-    mapLog.put("request", mapRequest);
-    mapLog.put("response", mapResponse);
-
-    mapRequest.put("uri", request.getURI());
-    mapRequest.put("method", request.getMethod());
-    mapRequest.put("headers", request.getHeaders());
-    mapRequest.put("body", new String(requestBody, "UTF-8"));
+  private boolean isLogged() {
+    return log.isDebugEnabled() && logInfo.isEnabled() && isSampled();
+  }
 
-    mapResponse.put("status_code", response.getStatusCode());
-    mapResponse.put("status_text", response.getStatusText());
-    mapResponse.put("headers", response.getHeaders());
-    mapResponse.put("body", inputStringBuilder);
+  private ExchangeLog newExchangeLog(HttpRequest request, byte[] body) {
+    ExchangeLog exchangeLog = new ExchangeLog();
+    exchangeLog.key = key;
+    exchangeLog.method = request.getMethod();
+    exchangeLog.uri = request.getURI();
+    exchangeLog.requestHeaders = request.getHeaders();
+    exchangeLog.requestBody = Arrays.copyOf(body, Math.min(body.length, logInfo.getMaxBodyBytes()));
+    exchangeLog.requestBodyLength = body.length;
+    exchangeLog.redactHeaders = redactHeaders;
+    return exchangeLog;
+  }
 
-//    log.debug(JsonUtil.objectToJson(mapLog));
+  private void logFailure(ExchangeLog exchangeLog, long start, Throwable e) {
+    exchangeLog.durationNanos = System.nanoTime() - start;
+    exchangeLog.error = e.toString();
+    logWriter.submit(exchangeLog);
+  }
 
+  private ClientHttpResponse capture(ExchangeLog exchangeLog, long start, ClientHttpResponse response)
+      throws IOException {
+    exchangeLog.status = response.getRawStatusCode();
+    exchangeLog.responseHeaders = response.getHeaders();
+    return new CapturingClientHttpResponse(response, logInfo.getMaxBodyBytes(), captured -> {
+      exchangeLog.durationNanos = System.nanoTime() - start;
+      exchangeLog.responseBody = captured.getCapturedBody();
+      exchangeLog.responseBodyLength = captured.getBodyLength();
+      logWriter.submit(exchangeLog);
+    });
   }
 
+  private boolean isSampled() {
+    double sampleRate = logInfo.getSampleRate();
+    return sampleRate >= 1.0 || sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate;
+  }
 }
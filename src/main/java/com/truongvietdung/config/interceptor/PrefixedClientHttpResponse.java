@@ -0,0 +1,54 @@
+package com.truongvietdung.config.interceptor;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Response whose body was partly read already: the bytes read are replayed before the rest of the
+ * original stream.
+ */
+class PrefixedClientHttpResponse implements ClientHttpResponse {
+
+  private final ClientHttpResponse response;
+  private final InputStream body;
+
+  PrefixedClientHttpResponse(ClientHttpResponse response, byte[] prefix, InputStream remainder) {
+    this.response = response;
+    this.body = new SequenceInputStream(new ByteArrayInputStream(prefix), remainder);
+  }
+
+  @Override
+  public HttpStatus getStatusCode() throws IOException {
+    return response.getStatusCode();
+  }
+
+  @Override
+  public int getRawStatusCode() throws IOException {
+    return response.getRawStatusCode();
+  }
+
+  @Override
+  public String getStatusText() throws IOException {
+    return response.getStatusText();
+  }
+
+  @Override
+  public HttpHeaders getHeaders() {
+    return response.getHeaders();
+  }
+
+  @Override
+  public InputStream getBody() {
+    return body;
+  }
+
+  @Override
+  public void close() {
+    response.close();
+  }
+}
@@ -0,0 +1,73 @@
+package com.truongvietdung.config.interceptor;
+
+import com.truongvietdung.auth.TokenCache;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+/**
+ * Sends the cached token of the partner on every attempt and, on {@code 401 Unauthorized}, drops the
+ * rejected token and repeats the request once with a new one. Must be the last interceptor, since a
+ * repeated execution goes straight to the connection.
+ */
+public class TokenAuthorizationInterceptor implements ClientHttpRequestInterceptor, AsyncRequestInterceptor {
+
+  private final String authorizationHeader;
+  private final TokenCache tokenCache;
+  private final boolean retryOnUnauthorized;
+
+  public TokenAuthorizationInterceptor(String authorizationHeader, TokenCache tokenCache,
+      boolean retryOnUnauthorized) {
+    this.authorizationHeader = authorizationHeader;
+    this.tokenCache = tokenCache;
+    this.retryOnUnauthorized = retryOnUnauthorized;
+  }
+
+  @Override
+  public ClientHttpResponse intercept(
+      HttpRequest request, byte[] body, ClientHttpRequestExecution execution) throws IOException {
+    String authorization = tokenCache.getAuthorization();
+    request.getHeaders().set(authorizationHeader, authorization);
+    ClientHttpResponse response = execution.execute(request, body);
+    if (!retryOnUnauthorized || response.getRawStatusCode() != HttpStatus.UNAUTHORIZED.value()) {
+      return response;
+    }
+    response.close();
+    tokenCache.invalidate(authorization);
+    request.getHeaders().set(authorizationHeader, tokenCache.getAuthorization());
+    return execution.execute(request, body);
+  }
+
+  @Override
+  public CompletableFuture<ClientHttpResponse> interceptAsync(HttpRequest request, byte[] body,
+      AsyncRequestExecution execution) {
+    return tokenCache.getAuthorizationAsync().thenCompose(authorization -> {
+      request.getHeaders().set(authorizationHeader, authorization);
+      return execution.executeAsync(request, body).thenCompose(response -> {
+        if (!retryOnUnauthorized || getRawStatusCode(response) != HttpStatus.UNAUTHORIZED.value()) {
+          return CompletableFuture.completedFuture(response);
+        }
+        response.close();
+        tokenCache.invalidate(authorization);
+        return tokenCache.getAuthorizationAsync().thenCompose(refreshed -> {
+          request.getHeaders().set(authorizationHeader, refreshed);
+          return execution.executeAsync(request, body);
+        });
+      });
+    });
+  }
+
+  private int getRawStatusCode(ClientHttpResponse response) {
+    try {
+      return response.getRawStatusCode();
+    } catch (IOException e) {
+      response.close();
+      throw new UncheckedIOException(e);
+    }
+  }
+}
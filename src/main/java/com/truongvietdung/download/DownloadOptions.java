@@ -0,0 +1,13 @@
+package com.truongvietdung.download;
+
+import lombok.Data;
+import lombok.experimental.Accessors;
+
+@Data
+@Accessors(chain = true)
+public class DownloadOptions {
+  private long segmentSize = 8 * 1024 * 1024;
+  private int parallelism = 4;
+  private int maxAttempts = 3;
+  private int bufferSize = 64 * 1024;
+}
@@ -0,0 +1,53 @@
+package com.truongvietdung.download;
+
+import java.nio.file.Path;
+
+public final class DownloadResult {
+
+  private final Path path;
+  private final long size;
+  private final String eTag;
+  private final int segments;
+  private final int resumedSegments;
+
+  DownloadResult(Path path, long size, String eTag, int segments, int resumedSegments) {
+    this.path = path;
+    this.size = size;
+    this.eTag = eTag;
+    this.segments = segments;
+    this.resumedSegments = resumedSegments;
+  }
+
+  public Path getPath() {
+    return path;
+  }
+
+  public long getSize() {
+    return size;
+  }
+
+  public String getETag() {
+    return eTag;
+  }
+
+  /**
+   * Returns the number of range requests the resource was split into; {@code 1} when the server does not
+   * support ranges and the body was streamed in one piece.
+   */
+  public int getSegments() {
+    return segments;
+  }
+
+  /**
+   * Returns how many segments were already on disk from an interrupted earlier attempt.
+   */
+  public int getResumedSegments() {
+    return resumedSegments;
+  }
+
+  @Override
+  public String toString() {
+    return "DownloadResult{path=" + path + ", size=" + size + ", eTag=" + eTag + ", segments=" + segments
+        + ", resumedSegments=" + resumedSegments + "}";
+  }
+}
@@ -0,0 +1,117 @@
+package com.truongvietdung.download;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.BitSet;
+import java.util.Objects;
+import java.util.Properties;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Progress of one download, kept next to the partial file so that an interrupted transfer resumes from
+ * the segments already written. It is only trusted when validator, size and segment size all match.
+ */
+final class DownloadState {
+
+  private final Path file;
+  private final String validator;
+  private final long length;
+  private final long segmentSize;
+  private final BitSet completed;
+  // not a monitor: complete() writes a file, which would pin a virtual thread to its carrier
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private DownloadState(Path file, String validator, long length, long segmentSize, BitSet completed) {
+    this.file = file;
+    this.validator = validator;
+    this.length = length;
+    this.segmentSize = segmentSize;
+    this.completed = completed;
+  }
+
+  static DownloadState create(Path file, String validator, long length, long segmentSize) {
+    return new DownloadState(file, validator, length, segmentSize, new BitSet());
+  }
+
+  /**
+   * Returns the saved state if it describes the same representation and segmentation, otherwise
+   * {@code null}.
+   */
+  static DownloadState load(Path file, String validator, long length, long segmentSize) throws IOException {
+    if (validator == null) {
+      return null;
+    }
+    Properties properties = new Properties();
+    try (InputStream in = Files.newInputStream(file)) {
+      properties.load(in);
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+    if (!Objects.equals(validator, properties.getProperty("validator"))
+        || !String.valueOf(length).equals(properties.getProperty("length"))
+        || !String.valueOf(segmentSize).equals(properties.getProperty("segmentSize"))) {
+      return null;
+    }
+    BitSet completed = new BitSet();
+    for (String segment : properties.getProperty("completed", "").split(",")) {
+      if (!segment.isEmpty()) {
+        completed.set(Integer.parseInt(segment));
+      }
+    }
+    return new DownloadState(file, validator, length, segmentSize, completed);
+  }
+
+  boolean isCompleted(int segment) {
+    lock.lock();
+    try {
+      return completed.get(segment);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  int getCompletedCount() {
+    lock.lock();
+    try {
+      return completed.cardinality();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * Records the segment and rewrites the state file; the file is replaced atomically so a crash leaves
+   * either the old or the new state.
+   */
+  void complete(int segment) throws IOException {
+    lock.lock();
+    try {
+      completed.set(segment);
+      if (validator != null) {
+        store();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void store() throws IOException {
+    Properties properties = new Properties();
+    properties.setProperty("validator", validator);
+    properties.setProperty("length", String.valueOf(length));
+    properties.setProperty("segmentSize", String.valueOf(segmentSize));
+    StringBuilder segments = new StringBuilder();
+    completed.stream().forEach(i -> segments.append(segments.length() == 0 ? "" : ",").append(i));
+    properties.setProperty("completed", segments.toString());
+    Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+    try (OutputStream out = Files.newOutputStream(temporary)) {
+      properties.store(out, null);
+    }
+    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+}
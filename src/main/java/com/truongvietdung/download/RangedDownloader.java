@@ -0,0 +1,350 @@
+package com.truongvietdung.download;
+
+import com.truongvietdung.exchange.Admission;
+import com.truongvietdung.exchange.ExchangePipeline;
+import com.truongvietdung.exchange.ExchangeRequest;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Downloads one resource straight into a file. The first request asks for the first segment; when the
+ * server answers {@code 206} the remaining segments are fetched as concurrent {@code Range} requests over
+ * pooled connections, each written at its offset, otherwise the whole body is streamed to disk.
+ *
+ * <p>Data goes to {@code <target>.part} and progress to {@code <target>.download}; both survive a
+ * failure, and the next download of the same target skips segments already written as long as the
+ * {@code ETag} (or {@code Last-Modified}) and size are unchanged. Segments are requested with
+ * {@code If-Range} and checked against the expected {@code Content-Range}, so a resource that changes
+ * mid-transfer fails the download instead of producing a mixed file.
+ *
+ * <p>Every request is admitted by the {@link ExchangePipeline} of the partner, so segments count against
+ * its concurrency limit and circuit breaker and are recorded in its metrics. Segments are fetched by the
+ * calling thread together with up to {@link DownloadOptions#getParallelism()} - 1 helpers on
+ * {@code executor}; helpers the executor has not started by the time the caller runs out of segments are
+ * skipped, so a saturated executor slows the download down but never blocks it.
+ */
+public class RangedDownloader {
+
+  private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)");
+  private static final String IDENTITY = "identity";
+
+  private final RestTemplate restTemplate;
+  private final ExchangePipeline exchangePipeline;
+  private final URI uri;
+  private final HttpHeaders headers;
+  private final DownloadOptions options;
+  private final Executor executor;
+
+  public RangedDownloader(RestTemplate restTemplate, ExchangePipeline exchangePipeline, URI uri, HttpHeaders headers,
+      DownloadOptions options, Executor executor) {
+    this.restTemplate = restTemplate;
+    this.exchangePipeline = exchangePipeline;
+    this.uri = uri;
+    this.headers = headers;
+    this.options = options;
+    this.executor = executor;
+  }
+
+  public DownloadResult download(Path target) {
+    Path part = target.resolveSibling(target.getFileName() + ".part");
+    Path progress = target.resolveSibling(target.getFileName() + ".download");
+    try {
+      DownloadResult result;
+      try (FileChannel channel = FileChannel.open(part, StandardOpenOption.CREATE, StandardOpenOption.WRITE)) {
+        result = download(channel, target, progress);
+      }
+      Files.move(part, target, StandardCopyOption.ATOMIC_MOVE);
+      Files.deleteIfExists(progress);
+      return result;
+    } catch (IOException e) {
+      throw new ResourceAccessException("I/O error downloading \"" + uri + "\" to " + target + ": "
+          + e.getMessage(), e);
+    }
+  }
+
+  private DownloadResult download(FileChannel channel, Path target, Path progress) throws IOException {
+    long segmentSize = options.getSegmentSize();
+    Segment first;
+    try {
+      first = fetch(channel, 0, segmentSize - 1, null);
+    } catch (HttpClientErrorException e) {
+      if (e.getRawStatusCode() != HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE.value()) {
+        throw e;
+      }
+      first = fetch(channel, -1, -1, null);
+    }
+    if (!first.partial) {
+      channel.truncate(first.written);
+      return new DownloadResult(target, first.written, first.eTag, 1, 0);
+    }
+
+    long length = first.total;
+    int segments = (int) ((length + segmentSize - 1) / segmentSize);
+    DownloadState state = DownloadState.load(progress, first.validator, length, segmentSize);
+    // the first segment came with the probe, so it never counts as resumed
+    int resumed = state == null ? 0 : state.getCompletedCount() - (state.isCompleted(0) ? 1 : 0);
+    if (state == null) {
+      state = DownloadState.create(progress, first.validator, length, segmentSize);
+    }
+    persist(channel, state, 0);
+    fetchRemaining(channel, first, state, segments);
+    channel.truncate(length);
+    channel.force(false);
+    if (channel.size() != length) {
+      throw new RestClientException("Downloaded " + channel.size() + " of " + length + " bytes from " + uri);
+    }
+    return new DownloadResult(target, length, first.eTag, segments, resumed);
+  }
+
+  private void fetchRemaining(FileChannel channel, Segment first, DownloadState state, int segments) {
+    List<Integer> pending = new ArrayList<>();
+    for (int i = 1; i < segments; i++) {
+      if (!state.isCompleted(i)) {
+        pending.add(i);
+      }
+    }
+    if (pending.isEmpty()) {
+      return;
+    }
+    AtomicInteger next = new AtomicInteger();
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Runnable worker = () -> {
+      for (int i = next.getAndIncrement(); i < pending.size() && failure.get() == null; i = next.getAndIncrement()) {
+        try {
+          fetchSegment(channel, first, state, pending.get(i));
+        } catch (Throwable e) {
+          failure.compareAndSet(null, e);
+        }
+      }
+    };
+    List<Helper> helpers = new ArrayList<>();
+    for (int i = 1; i < Math.min(options.getParallelism(), pending.size()); i++) {
+      Helper helper = new Helper(worker);
+      try {
+        executor.execute(helper);
+      } catch (RejectedExecutionException e) {
+        break;
+      }
+      helpers.add(helper);
+    }
+    worker.run();
+    helpers.forEach(Helper::awaitOrSkip);
+    Throwable e = failure.get();
+    if (e instanceof RuntimeException) {
+      throw (RuntimeException) e;
+    }
+    if (e instanceof Error) {
+      throw (Error) e;
+    }
+  }
+
+  private void fetchSegment(FileChannel channel, Segment first, DownloadState state, int segment) {
+    long start = segment * options.getSegmentSize();
+    long end = Math.min(first.total, start + options.getSegmentSize()) - 1;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        Segment fetched = fetch(channel, start, end, first.validator);
+        if (!fetched.partial || fetched.total != first.total
+            || first.eTag != null && !first.eTag.equals(fetched.eTag)) {
+          throw new RestClientException("Resource " + uri + " changed during download");
+        }
+        persist(channel, state, segment);
+        return;
+      } catch (ResourceAccessException | HttpServerErrorException e) {
+        if (attempt >= options.getMaxAttempts()) {
+          throw e;
+        }
+      } catch (IOException e) {
+        throw new ResourceAccessException("I/O error recording download progress: " + e.getMessage(), e);
+      }
+    }
+  }
+
+  /**
+   * Records the segment as done only once its bytes are on disk, so that after a crash a resumed download
+   * never skips a segment whose data was still in the page cache.
+   */
+  private static void persist(FileChannel channel, DownloadState state, int segment) throws IOException {
+    channel.force(false);
+    state.complete(segment);
+  }
+
+  /**
+   * Requests bytes {@code start..end}, or the whole resource when {@code start} is negative, and writes
+   * the body at its offset in {@code channel}.
+   */
+  private Segment fetch(FileChannel channel, long start, long end, String validator) {
+    Admission admission = exchangePipeline.admit(new ExchangeRequest(HttpMethod.GET, uri, null, null));
+    Segment fetched;
+    try {
+      fetched = execute(channel, start, end, validator);
+    } catch (RuntimeException | Error e) {
+      admission.onError(e);
+      throw e;
+    }
+    admission.onResponse(fetched.statusCode);
+    return fetched;
+  }
+
+  private Segment execute(FileChannel channel, long start, long end, String validator) {
+    return restTemplate.execute(uri, HttpMethod.GET, request -> {
+      HttpHeaders requestHeaders = request.getHeaders();
+      headers.forEach((name, values) -> {
+        if (!HttpHeaders.CONTENT_TYPE.equalsIgnoreCase(name)) {
+          requestHeaders.put(name, new ArrayList<>(values));
+        }
+      });
+      // ranges address the encoded representation, so ask for the bytes as stored
+      requestHeaders.set(HttpHeaders.ACCEPT_ENCODING, IDENTITY);
+      if (start >= 0) {
+        requestHeaders.setRange(Collections.singletonList(HttpRange.createByteRange(start, end)));
+      }
+      if (validator != null) {
+        requestHeaders.set(HttpHeaders.IF_RANGE, validator);
+      }
+    }, response -> {
+      Segment segment = new Segment();
+      segment.statusCode = response.getRawStatusCode();
+      HttpHeaders responseHeaders = response.getHeaders();
+      segment.eTag = responseHeaders.getETag();
+      segment.validator = getValidator(responseHeaders);
+      long offset = 0;
+      long expected = -1;
+      if (response.getRawStatusCode() == HttpStatus.PARTIAL_CONTENT.value()) {
+        String contentRange = responseHeaders.getFirst(HttpHeaders.CONTENT_RANGE);
+        Matcher matcher = CONTENT_RANGE.matcher(String.valueOf(contentRange));
+        if (!matcher.matches() || "*".equals(matcher.group(3))) {
+          throw new RestClientException("Unexpected Content-Range " + contentRange + " from " + uri);
+        }
+        segment.partial = true;
+        segment.total = Long.parseLong(matcher.group(3));
+        // a range past the end is answered up to the last byte
+        if (Long.parseLong(matcher.group(1)) != start
+            || Long.parseLong(matcher.group(2)) != Math.min(end, segment.total - 1)) {
+          throw new RestClientException("Content-Range " + contentRange + " does not match bytes " + start + "-"
+              + end + " of " + uri);
+        }
+        offset = start;
+        expected = Math.min(end, segment.total - 1) - start + 1;
+      } else if (start > 0) {
+        // If-Range no longer matched, the full new representation is on its way
+        throw new RestClientException("Resource " + uri + " changed during download");
+      }
+      segment.written = write(response.getBody(), channel, offset);
+      if (expected >= 0 && segment.written != expected) {
+        throw new ResourceAccessException("Received " + segment.written + " of " + expected + " bytes of " + uri
+            + " from offset " + start);
+      }
+      return segment;
+    });
+  }
+
+  private long write(InputStream body, FileChannel channel, long offset) throws IOException {
+    byte[] buffer = new byte[options.getBufferSize()];
+    long position = offset;
+    for (int read = body.read(buffer); read >= 0; read = body.read(buffer)) {
+      ByteBuffer chunk = ByteBuffer.wrap(buffer, 0, read);
+      while (chunk.hasRemaining()) {
+        position += channel.write(chunk, position);
+      }
+    }
+    return position - offset;
+  }
+
+  /**
+   * Returns a validator usable with {@code If-Range}: a strong ETag, else {@code Last-Modified}.
+   */
+  private static String getValidator(HttpHeaders responseHeaders) {
+    String eTag = responseHeaders.getETag();
+    if (eTag != null && !eTag.startsWith("W/")) {
+      return eTag;
+    }
+    return responseHeaders.getFirst(HttpHeaders.LAST_MODIFIED);
+  }
+
+  private static final class Segment {
+
+    private int statusCode;
+    private boolean partial;
+    private long total;
+    private long written;
+    private String eTag;
+    private String validator;
+  }
+
+  /**
+   * Helper task that runs at most once: either on the executor or, if it has not started by then, not at
+   * all because the caller skipped it.
+   */
+  private static final class Helper implements Runnable {
+
+    private final Runnable worker;
+    private final AtomicBoolean claimed = new AtomicBoolean();
+    private final CountDownLatch done = new CountDownLatch(1);
+
+    Helper(Runnable worker) {
+      this.worker = worker;
+    }
+
+    @Override
+    public void run() {
+      if (!claimed.compareAndSet(false, true)) {
+        return;
+      }
+      try {
+        worker.run();
+      } finally {
+        done.countDown();
+      }
+    }
+
+    /**
+     * Waits for a running helper, which is still writing to the file; the wait is not interruptible for
+     * that reason, an interrupt is kept for the caller.
+     */
+    void awaitOrSkip() {
+      if (claimed.compareAndSet(false, true)) {
+        return;
+      }
+      boolean interrupted = false;
+      for (;;) {
+        try {
+          done.await();
+          break;
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+  }
+}
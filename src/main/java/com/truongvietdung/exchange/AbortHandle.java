@@ -0,0 +1,67 @@
+package com.truongvietdung.exchange;
+
+import org.apache.http.client.methods.HttpUriRequest;
+
+/**
+ * Lets one thread abort the HTTP request another thread is executing. A handle is bound to the executing
+ * thread; the request factory registers every request it creates on that thread with the bound handle.
+ * Aborting closes the connection, so a blocked read fails at once.
+ */
+public final class AbortHandle {
+
+  private static final ThreadLocal<AbortHandle> CURRENT = new ThreadLocal<>();
+
+  private volatile Runnable abortAction;
+  private volatile boolean aborted;
+
+  public static AbortHandle bind() {
+    AbortHandle abortHandle = new AbortHandle();
+    CURRENT.set(abortHandle);
+    return abortHandle;
+  }
+
+  public static void unbind() {
+    CURRENT.remove();
+  }
+
+  /**
+   * Called by the request factory for every request created on the current thread.
+   */
+  public static void register(HttpUriRequest request) {
+    register(request::abort);
+  }
+
+  /**
+   * Same as {@link #register(HttpUriRequest)} for transports whose requests are aborted some other way.
+   */
+  public static void register(Runnable abortAction) {
+    AbortHandle abortHandle = CURRENT.get();
+    if (abortHandle != null) {
+      abortHandle.abortAction = abortAction;
+      if (abortHandle.aborted) {
+        abortAction.run();
+      }
+    }
+  }
+
+  /**
+   * Returns whether the handle bound to the current thread was aborted, i.e. whether a failure of the
+   * running request was caused by the caller rather than the partner.
+   */
+  public static boolean isCurrentAborted() {
+    AbortHandle abortHandle = CURRENT.get();
+    return abortHandle != null && abortHandle.aborted;
+  }
+
+  public void abort() {
+    aborted = true;
+    Runnable current = abortAction;
+    if (current != null) {
+      current.run();
+    }
+  }
+
+  public boolean isAborted() {
+    return aborted;
+  }
+}
@@ -0,0 +1,100 @@
+package com.truongvietdung.exchange;
+
+import com.truongvietdung.config.ConcurrencyLimitInfo;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Concurrency limit that follows the partner's latency instead of a fixed pool size. The round trip is
+ * smoothed over {@code shortWindow} samples and compared with its lowest value over the last one or two
+ * windows of {@code longWindow} samples, which serves as the no-load baseline. The limit grows by a
+ * {@code sqrt(limit)} queue allowance while latency stays within {@code rttTolerance} of the baseline,
+ * shrinks in proportion when it climbs above it, and is cut multiplicatively when a call times out or the
+ * partner sheds load.
+ */
+public class AdaptiveConcurrencyLimiter {
+
+  private final ConcurrencyLimitInfo concurrencyLimitInfo;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final LongAdder rejected = new LongAdder();
+  private final double alpha;
+  private volatile double limit;
+  private double rtt;
+  private double windowMinRtt;
+  private double previousWindowMinRtt = Double.MAX_VALUE;
+  private int samples;
+
+  public AdaptiveConcurrencyLimiter(ConcurrencyLimitInfo concurrencyLimitInfo) {
+    this.concurrencyLimitInfo = concurrencyLimitInfo;
+    this.alpha = 2.0 / (concurrencyLimitInfo.getShortWindow() + 1);
+    this.limit = concurrencyLimitInfo.getInitialLimit();
+  }
+
+  /**
+   * Takes a slot and returns the number of calls in flight including this one, or {@code -1} when the
+   * limit is reached.
+   */
+  public int tryAcquire() {
+    for (int current = inFlight.get(); ; current = inFlight.get()) {
+      if (current >= (int) limit) {
+        rejected.increment();
+        return -1;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return current + 1;
+      }
+    }
+  }
+
+  /**
+   * Releases the slot and adjusts the limit from the call's round trip.
+   *
+   * @param inFlightAtStart value returned by {@link #tryAcquire()}
+   * @param dropped whether the partner timed out or shed the call
+   */
+  public void release(long rttNanos, int inFlightAtStart, boolean dropped) {
+    inFlight.decrementAndGet();
+    synchronized (this) {
+      double current = limit;
+      double next;
+      if (dropped) {
+        next = current * concurrencyLimitInfo.getBackoffRatio();
+      } else {
+        rtt = rtt == 0 ? rttNanos : rtt + (rttNanos - rtt) * alpha;
+        if (++samples >= concurrencyLimitInfo.getLongWindow() || windowMinRtt == 0) {
+          samples = 0;
+          previousWindowMinRtt = windowMinRtt == 0 ? Double.MAX_VALUE : windowMinRtt;
+          windowMinRtt = rtt;
+        }
+        windowMinRtt = Math.min(windowMinRtt, rtt);
+        double baselineRtt = Math.min(windowMinRtt, previousWindowMinRtt);
+        double gradient = Math.max(0.5, Math.min(1.0, concurrencyLimitInfo.getRttTolerance() * baselineRtt / rtt));
+        // a call that did not use most of the limit says nothing about a higher one
+        double queueSize = inFlightAtStart * 2 < current ? 0 : Math.sqrt(current);
+        double target = current * gradient + queueSize;
+        next = current * (1 - concurrencyLimitInfo.getSmoothing()) + target * concurrencyLimitInfo.getSmoothing();
+      }
+      limit = Math.max(concurrencyLimitInfo.getMinLimit(), Math.min(concurrencyLimitInfo.getMaxLimit(), next));
+    }
+  }
+
+  /**
+   * Releases the slot of a call that says nothing about the partner, such as a hedged attempt aborted by
+   * the caller, without adjusting the limit.
+   */
+  public void cancel() {
+    inFlight.decrementAndGet();
+  }
+
+  public int getLimit() {
+    return (int) limit;
+  }
+
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  public long getRejectedCount() {
+    return rejected.sum();
+  }
+}
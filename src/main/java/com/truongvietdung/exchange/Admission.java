@@ -0,0 +1,29 @@
+package com.truongvietdung.exchange;
+
+/**
+ * Call admitted by {@link ExchangePipeline#admit(ExchangeRequest)} that runs outside the filter chain
+ * because it cannot be repeated or shared: a streamed response, an upload, a download segment or an
+ * asynchronous call. Once the call is over exactly one of the methods must be called.
+ */
+public interface Admission {
+
+  Admission NONE = new Admission() {
+    @Override
+    public void onResponse(int statusCode) {
+    }
+
+    @Override
+    public void onError(Throwable e) {
+    }
+  };
+
+  /**
+   * The partner answered with the given status; for streamed bodies, called once the body is closed.
+   */
+  void onResponse(int statusCode);
+
+  /**
+   * The call failed with the exception the caller sees.
+   */
+  void onError(Throwable e);
+}
@@ -0,0 +1,13 @@
+package com.truongvietdung.exchange;
+
+/**
+ * {@link ExchangeFilter} that also guards calls made outside the chain: it cannot repeat, share or hedge
+ * them, but still rejects them and observes their outcome.
+ */
+public interface AdmissionFilter extends ExchangeFilter {
+
+  /**
+   * Admits one call, or throws the exception {@link #filter} would reject it with.
+   */
+  Admission admit(ExchangeRequest request);
+}
@@ -0,0 +1,134 @@
+package com.truongvietdung.exchange;
+
+import com.truongvietdung.config.CircuitBreakerInfo;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Count-based circuit breaker. While {@link State#CLOSED} the outcomes of the last {@code windowSize}
+ * calls are kept; once the failure or slow-call rate crosses its threshold the breaker opens and rejects
+ * every call for {@code openDuration}. It then lets {@code halfOpenProbes} calls through and closes or
+ * re-opens depending on their outcome.
+ *
+ * <p>Every permit carries the generation of the state it was issued in, so outcomes of calls started
+ * before a transition cannot influence the new state.
+ */
+@Slf4j
+public class CircuitBreaker {
+
+  public enum State {
+    CLOSED, OPEN, HALF_OPEN
+  }
+
+  private static final byte FAILED = 1;
+  private static final byte SLOW = 2;
+
+  private final String name;
+  private final CircuitBreakerInfo circuitBreakerInfo;
+  private final long slowCallNanos;
+  private final long openNanos;
+  private final byte[] outcomes;
+
+  private State state = State.CLOSED;
+  private long generation;
+  private long openedAt;
+  private int index;
+  private int calls;
+  private int failures;
+  private int slowCalls;
+  private int permitsIssued;
+  private long rejected;
+
+  public CircuitBreaker(String name, CircuitBreakerInfo circuitBreakerInfo) {
+    this.name = name;
+    this.circuitBreakerInfo = circuitBreakerInfo;
+    this.slowCallNanos = TimeUnit.MILLISECONDS.toNanos(circuitBreakerInfo.getSlowCallDuration());
+    this.openNanos = TimeUnit.MILLISECONDS.toNanos(circuitBreakerInfo.getOpenDuration());
+    this.outcomes = new byte[Math.max(circuitBreakerInfo.getWindowSize(), circuitBreakerInfo.getHalfOpenProbes())];
+  }
+
+  /**
+   * Returns a permit for one call, or {@code -1} when the call must be rejected.
+   */
+  public synchronized long tryAcquire() {
+    if (state == State.OPEN) {
+      if (System.nanoTime() - openedAt < openNanos) {
+        rejected++;
+        return -1;
+      }
+      transitionTo(State.HALF_OPEN);
+    }
+    if (state == State.HALF_OPEN) {
+      if (permitsIssued >= circuitBreakerInfo.getHalfOpenProbes()) {
+        rejected++;
+        return -1;
+      }
+      permitsIssued++;
+    }
+    return generation;
+  }
+
+  public synchronized void onResult(long permit, long durationNanos, boolean failed) {
+    if (permit != generation || state == State.OPEN) {
+      return;
+    }
+    byte outcome = (byte) ((failed ? FAILED : 0) | (durationNanos >= slowCallNanos ? SLOW : 0));
+    int window = state == State.HALF_OPEN ? circuitBreakerInfo.getHalfOpenProbes() : circuitBreakerInfo.getWindowSize();
+    if (calls == window) {
+      byte evicted = outcomes[index];
+      failures -= evicted & FAILED;
+      slowCalls -= (evicted & SLOW) >> 1;
+    } else {
+      calls++;
+    }
+    outcomes[index] = outcome;
+    failures += outcome & FAILED;
+    slowCalls += (outcome & SLOW) >> 1;
+    index = (index + 1) % window;
+
+    if (state == State.HALF_OPEN) {
+      if (calls == window) {
+        transitionTo(isAboveThreshold() ? State.OPEN : State.CLOSED);
+      }
+    } else if (calls >= circuitBreakerInfo.getMinimumCalls() && isAboveThreshold()) {
+      transitionTo(State.OPEN);
+    }
+  }
+
+  /**
+   * Gives back a permit whose call never reached the partner.
+   */
+  public synchronized void release(long permit) {
+    if (permit == generation && state == State.HALF_OPEN) {
+      permitsIssued--;
+    }
+  }
+
+  public synchronized State getState() {
+    return state;
+  }
+
+  public synchronized long getRejectedCount() {
+    return rejected;
+  }
+
+  private boolean isAboveThreshold() {
+    return failures * 100 >= circuitBreakerInfo.getFailureRateThreshold() * calls
+        || slowCalls * 100 >= circuitBreakerInfo.getSlowCallRateThreshold() * calls;
+  }
+
+  private void transitionTo(State newState) {
+    log.warn("Circuit breaker of 3rd [{}] changed from {} to {} [calls: {}, failures: {}, slow: {}]",
+        name, state, newState, calls, failures, slowCalls);
+    state = newState;
+    generation++;
+    index = 0;
+    calls = 0;
+    failures = 0;
+    slowCalls = 0;
+    permitsIssued = 0;
+    if (newState == State.OPEN) {
+      openedAt = System.nanoTime();
+    }
+  }
+}
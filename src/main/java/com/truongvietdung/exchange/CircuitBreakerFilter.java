@@ -0,0 +1,72 @@
+package com.truongvietdung.exchange;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Guards the exchange with a {@link CircuitBreaker}. I/O errors and 5xx responses count as failures;
+ * 4xx responses prove the partner is alive and count as successes.
+ */
+public class CircuitBreakerFilter implements AdmissionFilter {
+
+  private final CircuitBreaker circuitBreaker;
+
+  public CircuitBreakerFilter(CircuitBreaker circuitBreaker) {
+    this.circuitBreaker = circuitBreaker;
+  }
+
+  @Override
+  public ResponseEntity<?> filter(ExchangeRequest request, ExchangeExecution execution) {
+    long permit = acquire(request);
+    long start = System.nanoTime();
+    try {
+      ResponseEntity<?> response = execution.execute(request);
+      circuitBreaker.onResult(permit, System.nanoTime() - start, false);
+      return response;
+    } catch (RuntimeException | Error e) {
+      // an Error must release the permit too: a half-open probe that is never reported keeps the breaker
+      // rejecting every call
+      onError(permit, start, e);
+      throw e;
+    }
+  }
+
+  @Override
+  public Admission admit(ExchangeRequest request) {
+    long permit = acquire(request);
+    long start = System.nanoTime();
+    return new Admission() {
+      @Override
+      public void onResponse(int statusCode) {
+        circuitBreaker.onResult(permit, System.nanoTime() - start, statusCode >= 500);
+      }
+
+      @Override
+      public void onError(Throwable e) {
+        CircuitBreakerFilter.this.onError(permit, start, e);
+      }
+    };
+  }
+
+  public CircuitBreaker getCircuitBreaker() {
+    return circuitBreaker;
+  }
+
+  private long acquire(ExchangeRequest request) {
+    long permit = circuitBreaker.tryAcquire();
+    if (permit < 0) {
+      throw new CircuitBreakerOpenException("Circuit breaker is open, rejected " + request);
+    }
+    return permit;
+  }
+
+  private void onError(long permit, long start, Throwable e) {
+    if (e instanceof ThirdPartyRejectedException) {
+      circuitBreaker.release(permit);
+      return;
+    }
+    boolean failed = e instanceof ResourceAccessException || e instanceof HttpServerErrorException;
+    circuitBreaker.onResult(permit, System.nanoTime() - start, failed);
+  }
+}
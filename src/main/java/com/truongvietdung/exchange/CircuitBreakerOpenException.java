@@ -0,0 +1,10 @@
+package com.truongvietdung.exchange;
+
+public class CircuitBreakerOpenException extends ThirdPartyRejectedException {
+
+  private static final long serialVersionUID = 1L;
+
+  public CircuitBreakerOpenException(String msg) {
+    super(msg);
+  }
+}
@@ -0,0 +1,10 @@
+package com.truongvietdung.exchange;
+
+public class ConcurrencyLimitExceededException extends ThirdPartyRejectedException {
+
+  private static final long serialVersionUID = 1L;
+
+  public ConcurrencyLimitExceededException(String msg) {
+    super(msg);
+  }
+}
@@ -0,0 +1,83 @@
+package com.truongvietdung.exchange;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Admits a call only while the {@link AdaptiveConcurrencyLimiter} of the key has room, so excess calls
+ * fail with {@link ConcurrencyLimitExceededException} instead of queueing for a pooled connection.
+ * I/O errors, {@code 429} and {@code 503} are treated as dropped calls; attempts aborted through their
+ * {@link AbortHandle}, such as the losing attempt of a hedged call, are neither drops nor RTT samples.
+ */
+public class ConcurrencyLimitFilter implements AdmissionFilter {
+
+  private final AdaptiveConcurrencyLimiter limiter;
+
+  public ConcurrencyLimitFilter(AdaptiveConcurrencyLimiter limiter) {
+    this.limiter = limiter;
+  }
+
+  @Override
+  public ResponseEntity<?> filter(ExchangeRequest request, ExchangeExecution execution) {
+    int inFlight = acquire(request);
+    long start = System.nanoTime();
+    boolean dropped = false;
+    boolean aborted = false;
+    try {
+      return execution.execute(request);
+    } catch (RuntimeException e) {
+      aborted = e instanceof ResourceAccessException && AbortHandle.isCurrentAborted();
+      dropped = isDropped(e);
+      throw e;
+    } finally {
+      if (aborted) {
+        limiter.cancel();
+      } else {
+        limiter.release(System.nanoTime() - start, inFlight, dropped);
+      }
+    }
+  }
+
+  @Override
+  public Admission admit(ExchangeRequest request) {
+    int inFlight = acquire(request);
+    long start = System.nanoTime();
+    return new Admission() {
+      @Override
+      public void onResponse(int statusCode) {
+        limiter.release(System.nanoTime() - start, inFlight, isDropped(statusCode));
+      }
+
+      @Override
+      public void onError(Throwable e) {
+        limiter.release(System.nanoTime() - start, inFlight, isDropped(e));
+      }
+    };
+  }
+
+  public AdaptiveConcurrencyLimiter getLimiter() {
+    return limiter;
+  }
+
+  private int acquire(ExchangeRequest request) {
+    int inFlight = limiter.tryAcquire();
+    if (inFlight < 0) {
+      throw new ConcurrencyLimitExceededException(
+          "Concurrency limit of " + limiter.getLimit() + " reached, rejected " + request);
+    }
+    return inFlight;
+  }
+
+  private static boolean isDropped(Throwable e) {
+    if (e instanceof HttpStatusCodeException) {
+      return isDropped(((HttpStatusCodeException) e).getRawStatusCode());
+    }
+    return e instanceof ResourceAccessException;
+  }
+
+  private static boolean isDropped(int statusCode) {
+    return statusCode == HttpStatus.TOO_MANY_REQUESTS.value() || statusCode == HttpStatus.SERVICE_UNAVAILABLE.value();
+  }
+}
@@ -0,0 +1,12 @@
+package com.truongvietdung.exchange;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Remainder of an {@link ExchangePipeline}; may be invoked several times and from any thread.
+ */
+@FunctionalInterface
+public interface ExchangeExecution {
+
+  ResponseEntity<?> execute(ExchangeRequest request);
+}
@@ -0,0 +1,13 @@
+package com.truongvietdung.exchange;
+
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Wraps the decoded exchange of one {@link com.truongvietdung.config.ApiInfo} key. Unlike a
+ * {@code ClientHttpRequestInterceptor} a filter sees the typed result and the exceptions raised by the
+ * error handler, so it can share, repeat or reject whole calls.
+ */
+public interface ExchangeFilter {
+
+  ResponseEntity<?> filter(ExchangeRequest request, ExchangeExecution execution);
+}
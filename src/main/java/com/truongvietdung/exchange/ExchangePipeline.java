@@ -0,0 +1,118 @@
+package com.truongvietdung.exchange;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Ordered {@link ExchangeFilter}s of one {@link com.truongvietdung.config.ApiInfo} key, ending in a plain
+ * {@link RestTemplate#exchange} call. The first filter is the outermost one.
+ */
+public final class ExchangePipeline {
+
+  public static final ExchangePipeline EMPTY = new ExchangePipeline(Collections.emptyList());
+
+  private final List<ExchangeFilter> filters;
+
+  public ExchangePipeline(List<? extends ExchangeFilter> filters) {
+    this.filters = Collections.unmodifiableList(new ArrayList<>(filters));
+  }
+
+  public List<ExchangeFilter> getFilters() {
+    return filters;
+  }
+
+  public boolean isEmpty() {
+    return filters.isEmpty();
+  }
+
+  /**
+   * Returns the filter of the given type, or {@code null} when the key does not use it.
+   */
+  public <F extends ExchangeFilter> F getFilter(Class<F> filterType) {
+    for (ExchangeFilter filter : filters) {
+      if (filterType.isInstance(filter)) {
+        return filterType.cast(filter);
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Admits a call made outside the chain through the {@link AdmissionFilter}s, outermost first; when an
+   * inner one rejects it, the outer ones see the rejection as the outcome. The returned admission reports
+   * the outcome to them innermost first, once.
+   */
+  public Admission admit(ExchangeRequest request) {
+    List<Admission> admissions = new ArrayList<>();
+    for (ExchangeFilter filter : filters) {
+      if (!(filter instanceof AdmissionFilter)) {
+        continue;
+      }
+      try {
+        admissions.add(((AdmissionFilter) filter).admit(request));
+      } catch (RuntimeException | Error e) {
+        new CompositeAdmission(admissions).onError(e);
+        throw e;
+      }
+    }
+    return admissions.isEmpty() ? Admission.NONE : new CompositeAdmission(admissions);
+  }
+
+  @SuppressWarnings("unchecked")
+  public <T> ResponseEntity<T> exchange(RestTemplate restTemplate, ExchangeRequest request) {
+    ExchangeExecution terminal = exchangeRequest -> restTemplate.exchange(exchangeRequest.getUri(),
+        exchangeRequest.getHttpMethod(), exchangeRequest.getEntity(), exchangeRequest.getResponseType());
+    return (ResponseEntity<T>) new Chain(0, terminal).execute(request);
+  }
+
+  private final class Chain implements ExchangeExecution {
+
+    private final int index;
+    private final ExchangeExecution terminal;
+
+    Chain(int index, ExchangeExecution terminal) {
+      this.index = index;
+      this.terminal = terminal;
+    }
+
+    @Override
+    public ResponseEntity<?> execute(ExchangeRequest request) {
+      if (index == filters.size()) {
+        return terminal.execute(request);
+      }
+      return filters.get(index).filter(request, new Chain(index + 1, terminal));
+    }
+  }
+
+  private static final class CompositeAdmission implements Admission {
+
+    private final List<Admission> admissions;
+    private final AtomicBoolean completed = new AtomicBoolean();
+
+    CompositeAdmission(List<Admission> admissions) {
+      this.admissions = admissions;
+    }
+
+    @Override
+    public void onResponse(int statusCode) {
+      if (completed.compareAndSet(false, true)) {
+        for (int i = admissions.size() - 1; i >= 0; i--) {
+          admissions.get(i).onResponse(statusCode);
+        }
+      }
+    }
+
+    @Override
+    public void onError(Throwable e) {
+      if (completed.compareAndSet(false, true)) {
+        for (int i = admissions.size() - 1; i >= 0; i--) {
+          admissions.get(i).onError(e);
+        }
+      }
+    }
+  }
+}
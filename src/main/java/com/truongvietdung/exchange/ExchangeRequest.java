@@ -0,0 +1,51 @@
+package com.truongvietdung.exchange;
+
+import java.net.URI;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Fully resolved request handed through an {@link ExchangePipeline}: everything needed to repeat the call,
+ * so filters may execute it more than once or from another thread.
+ */
+public final class ExchangeRequest {
+
+  private final HttpMethod httpMethod;
+  private final URI uri;
+  private final HttpEntity<?> entity;
+  private final ParameterizedTypeReference<?> responseType;
+
+  public ExchangeRequest(HttpMethod httpMethod, URI uri, HttpEntity<?> entity,
+      ParameterizedTypeReference<?> responseType) {
+    this.httpMethod = httpMethod;
+    this.uri = uri;
+    this.entity = entity;
+    this.responseType = responseType;
+  }
+
+  public HttpMethod getHttpMethod() {
+    return httpMethod;
+  }
+
+  public URI getUri() {
+    return uri;
+  }
+
+  public HttpEntity<?> getEntity() {
+    return entity;
+  }
+
+  public ParameterizedTypeReference<?> getResponseType() {
+    return responseType;
+  }
+
+  public ExchangeRequest withEntity(HttpEntity<?> entity) {
+    return new ExchangeRequest(httpMethod, uri, entity, responseType);
+  }
+
+  @Override
+  public String toString() {
+    return httpMethod + " " + uri;
+  }
+}
@@ -0,0 +1,182 @@
+package com.truongvietdung.exchange;
+
+import com.truongvietdung.config.HedgeInfo;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Sends a second attempt of a GET/HEAD that has not answered within the configured latency percentile
+ * and returns whichever attempt succeeds first; the other one is aborted, releasing its connection. The
+ * primary attempt runs on the calling thread, the hedge on {@code executor}. Hedges are paid for from a
+ * {@link RetryBudget}, so at most {@code maxHedgeRatio} of the calls are duplicated.
+ */
+public class HedgingFilter implements ExchangeFilter {
+
+  private final HedgeInfo hedgeInfo;
+  private final ScheduledExecutorService scheduler;
+  private final Executor executor;
+  private final LatencyWindow latencyWindow;
+  private final RetryBudget hedgeBudget;
+  private final LongAdder hedges = new LongAdder();
+  private final LongAdder hedgeWins = new LongAdder();
+
+  public HedgingFilter(HedgeInfo hedgeInfo, ScheduledExecutorService scheduler, Executor executor) {
+    this.hedgeInfo = hedgeInfo;
+    this.scheduler = scheduler;
+    this.executor = executor;
+    this.latencyWindow = new LatencyWindow(hedgeInfo.getWindowSize(), hedgeInfo.getPercentile());
+    this.hedgeBudget = new RetryBudget(hedgeInfo.getMaxHedgeRatio(), hedgeInfo.getMaxHedgeTokens(), 0);
+  }
+
+  @Override
+  public ResponseEntity<?> filter(ExchangeRequest request, ExchangeExecution execution) {
+    if (!isHedgeable(request)) {
+      return execution.execute(request);
+    }
+    hedgeBudget.deposit();
+    AbortHandle primary = AbortHandle.bind();
+    Hedge hedge = new Hedge(request, execution, primary);
+    ScheduledFuture<?> timer = scheduler.schedule(hedge::start, getDelay(), TimeUnit.MILLISECONDS);
+    long start = System.nanoTime();
+    try {
+      ResponseEntity<?> response = execution.execute(request);
+      latencyWindow.record(System.nanoTime() - start);
+      if (hedge.winner.compareAndSet(false, true)) {
+        timer.cancel(false);
+        hedge.abort();
+      }
+      return response;
+    } catch (RuntimeException e) {
+      timer.cancel(false);
+      // claims the hedge, unless the timer already did and the hedge is on its way
+      if (hedge.started.compareAndSet(false, true)) {
+        throw e;
+      }
+      return hedge.await(e);
+    } finally {
+      AbortHandle.unbind();
+    }
+  }
+
+  public long getHedgeCount() {
+    return hedges.sum();
+  }
+
+  /**
+   * Number of calls answered by the hedge rather than the primary attempt.
+   */
+  public long getHedgeWinCount() {
+    return hedgeWins.sum();
+  }
+
+  public double getHedgeWinRate() {
+    long sent = hedges.sum();
+    return sent == 0 ? 0 : (double) hedgeWins.sum() / sent;
+  }
+
+  public RetryBudget getHedgeBudget() {
+    return hedgeBudget;
+  }
+
+  public LatencyWindow getLatencyWindow() {
+    return latencyWindow;
+  }
+
+  private boolean isHedgeable(ExchangeRequest request) {
+    return (request.getHttpMethod() == HttpMethod.GET || request.getHttpMethod() == HttpMethod.HEAD)
+        && !request.getEntity().hasBody();
+  }
+
+  private long getDelay() {
+    if (latencyWindow.getCount() < hedgeInfo.getMinSamples()) {
+      return hedgeInfo.getInitialDelay();
+    }
+    return Math.max(hedgeInfo.getMinDelay(), TimeUnit.NANOSECONDS.toMillis(latencyWindow.getPercentile()));
+  }
+
+  private final class Hedge implements Runnable {
+
+    private final ExchangeRequest request;
+    private final ExchangeExecution execution;
+    private final AbortHandle primary;
+    private final AtomicBoolean started = new AtomicBoolean();
+    private final AtomicBoolean winner = new AtomicBoolean();
+    private final CompletableFuture<ResponseEntity<?>> result = new CompletableFuture<>();
+    private volatile AbortHandle abortHandle;
+
+    Hedge(ExchangeRequest request, ExchangeExecution execution, AbortHandle primary) {
+      this.request = request;
+      this.execution = execution;
+      this.primary = primary;
+    }
+
+    void start() {
+      if (!started.compareAndSet(false, true)) {
+        return;
+      }
+      if (winner.get() || !hedgeBudget.tryWithdraw()) {
+        result.completeExceptionally(new IllegalStateException("Hedge not sent"));
+        return;
+      }
+      try {
+        executor.execute(this);
+        hedges.increment();
+      } catch (RejectedExecutionException e) {
+        result.completeExceptionally(e);
+      }
+    }
+
+    @Override
+    public void run() {
+      abortHandle = AbortHandle.bind();
+      long start = System.nanoTime();
+      try {
+        if (winner.get()) {
+          abortHandle.abort();
+        }
+        ResponseEntity<?> response = execution.execute(request);
+        latencyWindow.record(System.nanoTime() - start);
+        if (winner.compareAndSet(false, true)) {
+          hedgeWins.increment();
+          primary.abort();
+        }
+        result.complete(response);
+      } catch (RuntimeException | Error e) {
+        result.completeExceptionally(e);
+      } finally {
+        AbortHandle.unbind();
+      }
+    }
+
+    void abort() {
+      AbortHandle current = abortHandle;
+      if (current != null) {
+        current.abort();
+      }
+    }
+
+    /**
+     * Returns the hedge's response after the primary attempt failed, or rethrows the primary failure if
+     * the hedge failed too.
+     */
+    ResponseEntity<?> await(RuntimeException primaryFailure) {
+      try {
+        return result.get();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw primaryFailure;
+      } catch (ExecutionException e) {
+        throw primaryFailure;
+      }
+    }
+  }
+}
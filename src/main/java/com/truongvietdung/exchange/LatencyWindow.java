@@ -0,0 +1,56 @@
+package com.truongvietdung.exchange;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Latencies of the last {@code size} calls. Recording is lock-free; the percentile is recomputed from a
+ * sorted copy at most once every {@code size / 10} recordings.
+ */
+public class LatencyWindow {
+
+  private final AtomicLongArray samples;
+  private final AtomicLong count = new AtomicLong();
+  private final double percentile;
+  private final int refreshInterval;
+  private volatile long cachedPercentile = -1;
+  private volatile long computedAt;
+
+  public LatencyWindow(int size, double percentile) {
+    this.samples = new AtomicLongArray(size);
+    this.percentile = percentile;
+    this.refreshInterval = Math.max(1, size / 10);
+  }
+
+  public void record(long latencyNanos) {
+    long index = count.getAndIncrement();
+    samples.set((int) (index % samples.length()), latencyNanos);
+  }
+
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Returns the configured percentile in nanoseconds, or {@code -1} before any sample was recorded.
+   */
+  public long getPercentile() {
+    long current = count.get();
+    if (current == 0) {
+      return -1;
+    }
+    if (cachedPercentile < 0 || current - computedAt >= refreshInterval) {
+      int size = (int) Math.min(current, samples.length());
+      long[] sorted = new long[size];
+      for (int i = 0; i < size; i++) {
+        sorted[i] = samples.get(i);
+      }
+      Arrays.sort(sorted);
+      int rank = (int) Math.ceil(percentile / 100 * size) - 1;
+      cachedPercentile = sorted[Math.max(0, Math.min(size - 1, rank))];
+      computedAt = current;
+    }
+    return cachedPercentile;
+  }
+}
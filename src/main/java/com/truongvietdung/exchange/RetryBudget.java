@@ -0,0 +1,61 @@
+package com.truongvietdung.exchange;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket that limits retries to a share of the traffic: every first attempt deposits
+ * {@code ratio} tokens, every retry withdraws one. A small per-second reserve keeps retries possible for
+ * low-traffic partners. When a partner is down, retries therefore stay bounded by the request rate
+ * instead of multiplying it.
+ */
+public class RetryBudget {
+
+  private static final long SCALE = 1_000;
+
+  private final long deposit;
+  private final long maxBalance;
+  private final int minRetriesPerSecond;
+  private final AtomicLong balance = new AtomicLong();
+  private long reserveSecond;
+  private int reserveUsed;
+
+  public RetryBudget(double ratio, int maxTokens, int minRetriesPerSecond) {
+    this.deposit = (long) (ratio * SCALE);
+    this.maxBalance = maxTokens * SCALE;
+    this.minRetriesPerSecond = minRetriesPerSecond;
+  }
+
+  public void deposit() {
+    long current = balance.get();
+    if (current < maxBalance) {
+      balance.accumulateAndGet(deposit, (value, amount) -> Math.min(maxBalance, value + amount));
+    }
+  }
+
+  public boolean tryWithdraw() {
+    for (long current = balance.get(); current >= SCALE; current = balance.get()) {
+      if (balance.compareAndSet(current, current - SCALE)) {
+        return true;
+      }
+    }
+    return tryReserve();
+  }
+
+  public double getBalance() {
+    return (double) balance.get() / SCALE;
+  }
+
+  private synchronized boolean tryReserve() {
+    long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+    if (second != reserveSecond) {
+      reserveSecond = second;
+      reserveUsed = 0;
+    }
+    if (reserveUsed < minRetriesPerSecond) {
+      reserveUsed++;
+      return true;
+    }
+    return false;
+  }
+}
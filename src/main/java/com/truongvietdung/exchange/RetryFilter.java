@@ -0,0 +1,136 @@
+package com.truongvietdung.exchange;
+
+import com.truongvietdung.config.RetryInfo;
+import java.net.ConnectException;
+import java.net.UnknownHostException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.http.conn.ConnectTimeoutException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Retries failed exchanges with exponential backoff and jitter, honouring {@code Retry-After}. Status
+ * codes and I/O errors are retried only for the configured (idempotent) methods; connection failures,
+ * where the request never reached the partner, are retried for every method. Each retry must be paid
+ * for by the {@link RetryBudget} of the key.
+ */
+@Slf4j
+public class RetryFilter implements ExchangeFilter {
+
+  private final RetryInfo retryInfo;
+  private final RetryBudget retryBudget;
+  private final LongAdder retries = new LongAdder();
+  private final LongAdder budgetExhausted = new LongAdder();
+
+  public RetryFilter(RetryInfo retryInfo) {
+    this.retryInfo = retryInfo;
+    this.retryBudget = new RetryBudget(retryInfo.getBudgetRatio(), retryInfo.getBudgetMaxTokens(),
+        retryInfo.getBudgetMinRetriesPerSecond());
+  }
+
+  @Override
+  public ResponseEntity<?> filter(ExchangeRequest request, ExchangeExecution execution) {
+    retryBudget.deposit();
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return execution.execute(request);
+      } catch (RestClientException e) {
+        long delay = getRetryDelay(request, e, attempt);
+        if (delay < 0) {
+          throw e;
+        }
+        if (!retryBudget.tryWithdraw()) {
+          budgetExhausted.increment();
+          throw e;
+        }
+        retries.increment();
+        log.debug("Retrying {} in {} ms after attempt {}: {}", request, delay, attempt, e.getMessage());
+        sleep(delay, e);
+      }
+    }
+  }
+
+  public RetryBudget getRetryBudget() {
+    return retryBudget;
+  }
+
+  public long getRetryCount() {
+    return retries.sum();
+  }
+
+  /**
+   * Number of retries skipped because the budget was empty.
+   */
+  public long getBudgetExhaustedCount() {
+    return budgetExhausted.sum();
+  }
+
+  /**
+   * Returns how long to wait before the next attempt, or {@code -1} when the failure must not be retried.
+   */
+  private long getRetryDelay(ExchangeRequest request, RestClientException e, int attempt) {
+    if (attempt >= retryInfo.getMaxAttempts()) {
+      return -1;
+    }
+    boolean idempotent = retryInfo.getMethods().contains(request.getHttpMethod());
+    long backoff = getBackoff(attempt);
+    if (e instanceof HttpStatusCodeException) {
+      HttpStatusCodeException statusCodeException = (HttpStatusCodeException) e;
+      if (!idempotent || !retryInfo.getStatuses().contains(statusCodeException.getRawStatusCode())) {
+        return -1;
+      }
+      long retryAfter = getRetryAfter(statusCodeException.getResponseHeaders());
+      if (retryAfter > retryInfo.getMaxRetryAfter()) {
+        return -1;
+      }
+      return Math.max(backoff, retryAfter);
+    }
+    if (e instanceof ResourceAccessException && (idempotent || isConnectFailure(e))) {
+      return backoff;
+    }
+    return -1;
+  }
+
+  private long getBackoff(int attempt) {
+    double backoff = Math.min(retryInfo.getMaxBackoff(),
+        retryInfo.getInitialBackoff() * Math.pow(retryInfo.getMultiplier(), attempt - 1));
+    return (long) (backoff * (1 - retryInfo.getJitter() * ThreadLocalRandom.current().nextDouble()));
+  }
+
+  private long getRetryAfter(HttpHeaders headers) {
+    String retryAfter = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+    if (retryAfter == null) {
+      return 0;
+    }
+    try {
+      return TimeUnit.SECONDS.toMillis(Long.parseLong(retryAfter.trim()));
+    } catch (NumberFormatException ignored) {
+      try {
+        return Math.max(0, headers.getFirstDate(HttpHeaders.RETRY_AFTER) - System.currentTimeMillis());
+      } catch (IllegalArgumentException ignoredDate) {
+        return 0;
+      }
+    }
+  }
+
+  private boolean isConnectFailure(RestClientException e) {
+    Throwable cause = e.getCause();
+    return cause instanceof ConnectException || cause instanceof ConnectTimeoutException
+        || cause instanceof UnknownHostException;
+  }
+
+  private void sleep(long delay, RestClientException e) {
+    try {
+      Thread.sleep(delay);
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package com.truongvietdung.exchange;
+
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.URI;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.ClassUtils;
+import org.springframework.web.client.ResourceAccessException;
+
+/**
+ * Collapses concurrent identical GET/HEAD requests (same URI, headers and response type) into one
+ * upstream call. Each follower gets its own copy of the leader's response, so callers may modify the
+ * bodies they receive: immutable bodies (strings, boxed primitives, enums, protobuf messages) are shared,
+ * byte arrays are cloned and other bodies are serialized once with {@code objectMapper} when the leader's
+ * response arrives and deserialized per follower. A follower whose body cannot be copied that way makes its
+ * own call. Failures of the leader's call are rethrown to the followers as is.
+ */
+public class SingleFlightFilter implements ExchangeFilter {
+
+  private static final Class<?> PROTOBUF_MESSAGE = ClassUtils.isPresent("com.google.protobuf.MessageLite",
+      SingleFlightFilter.class.getClassLoader())
+      ? ClassUtils.resolveClassName("com.google.protobuf.MessageLite", SingleFlightFilter.class.getClassLoader())
+      : null;
+
+  private final ObjectMapper objectMapper;
+  private final ConcurrentMap<Flight, Call> inFlight = new ConcurrentHashMap<>();
+  private final LongAdder executed = new LongAdder();
+  private final LongAdder collapsed = new LongAdder();
+
+  public SingleFlightFilter(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public ResponseEntity<?> filter(ExchangeRequest request, ExchangeExecution execution) {
+    if (!isCoalescable(request)) {
+      return execution.execute(request);
+    }
+    Flight flight = new Flight(request);
+    for (;;) {
+      Call call = new Call();
+      Call leader = inFlight.putIfAbsent(flight, call);
+      if (leader == null) {
+        return lead(flight, call, request, execution);
+      }
+      if (leader.join()) {
+        return follow(leader, request, execution);
+      }
+      // the leader already has its response and takes no more followers
+      inFlight.remove(flight, leader);
+    }
+  }
+
+  /**
+   * Number of upstream calls made by leaders, and by followers whose copy failed.
+   */
+  public long getExecutedCount() {
+    return executed.sum();
+  }
+
+  /**
+   * Number of calls answered by another caller's in-flight request.
+   */
+  public long getCollapsedCount() {
+    return collapsed.sum();
+  }
+
+  private boolean isCoalescable(ExchangeRequest request) {
+    return (request.getHttpMethod() == HttpMethod.GET || request.getHttpMethod() == HttpMethod.HEAD)
+        && !request.getEntity().hasBody();
+  }
+
+  private ResponseEntity<?> lead(Flight flight, Call call, ExchangeRequest request, ExchangeExecution execution) {
+    executed.increment();
+    ResponseEntity<?> response;
+    try {
+      response = execution.execute(request);
+    } catch (RuntimeException | Error e) {
+      inFlight.remove(flight, call);
+      call.close();
+      call.result.completeExceptionally(e);
+      throw e;
+    }
+    inFlight.remove(flight, call);
+    // the snapshot is taken before the leader's caller gets the body and can modify it
+    if (call.close() > 0) {
+      call.result.complete(snapshot(response, request));
+    }
+    return response;
+  }
+
+  private ResponseEntity<?> follow(Call leader, ExchangeRequest request, ExchangeExecution execution) {
+    collapsed.increment();
+    Snapshot snapshot = await(leader.result, request);
+    if (snapshot != null) {
+      try {
+        return snapshot.copy(objectMapper);
+      } catch (IOException | RuntimeException ignored) {
+        // not copyable after all, fall through to a call of our own
+      }
+    }
+    collapsed.decrement();
+    executed.increment();
+    return execution.execute(request);
+  }
+
+  /**
+   * Returns the response in a form each follower can copy, or {@code null} if its body cannot be copied.
+   */
+  private Snapshot snapshot(ResponseEntity<?> response, ExchangeRequest request) {
+    Object body = response.getBody();
+    if (body == null || isImmutable(body)) {
+      return new Snapshot(response, null, null);
+    }
+    if (body instanceof byte[]) {
+      return new Snapshot(response, ((byte[]) body).clone(), null);
+    }
+    try {
+      JavaType type = objectMapper.constructType(request.getResponseType().getType());
+      return new Snapshot(response, objectMapper.writerFor(type).writeValueAsBytes(body), type);
+    } catch (IOException | RuntimeException e) {
+      return null;
+    }
+  }
+
+  private static boolean isImmutable(Object body) {
+    return body instanceof String || ClassUtils.isPrimitiveWrapper(body.getClass()) || body instanceof Enum
+        || body instanceof BigDecimal || body instanceof BigInteger || body instanceof UUID
+        || PROTOBUF_MESSAGE != null && PROTOBUF_MESSAGE.isInstance(body);
+  }
+
+  private Snapshot await(CompletableFuture<Snapshot> leader, ExchangeRequest request) {
+    try {
+      return leader.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new ResourceAccessException("Interrupted while waiting for in-flight " + request);
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw (Error) cause;
+    }
+  }
+
+  private static final class Call {
+
+    private final CompletableFuture<Snapshot> result = new CompletableFuture<>();
+    private final AtomicInteger followers = new AtomicInteger();
+
+    /**
+     * Registers a follower; fails once the leader has closed the call.
+     */
+    boolean join() {
+      for (;;) {
+        int count = followers.get();
+        if (count < 0) {
+          return false;
+        }
+        if (followers.compareAndSet(count, count + 1)) {
+          return true;
+        }
+      }
+    }
+
+    /**
+     * Stops taking followers and returns how many joined.
+     */
+    int close() {
+      return followers.getAndSet(-1);
+    }
+  }
+
+  private static final class Snapshot {
+
+    private final ResponseEntity<?> response;
+    private final byte[] body;
+    private final JavaType type;
+
+    Snapshot(ResponseEntity<?> response, byte[] body, JavaType type) {
+      this.response = response;
+      this.body = body;
+      this.type = type;
+    }
+
+    ResponseEntity<?> copy(ObjectMapper objectMapper) throws IOException {
+      if (body == null) {
+        return response;
+      }
+      Object copy = type == null ? body.clone() : objectMapper.readerFor(type).readValue(body);
+      return ResponseEntity.status(response.getStatusCodeValue()).headers(response.getHeaders()).body(copy);
+    }
+  }
+
+  private static final class Flight {
+
+    private final HttpMethod httpMethod;
+    private final URI uri;
+    private final HttpHeaders headers;
+    private final Type responseType;
+    private final int hashCode;
+
+    Flight(ExchangeRequest request) {
+      this.httpMethod = request.getHttpMethod();
+      this.uri = request.getUri();
+      this.headers = request.getEntity().getHeaders();
+      this.responseType = request.getResponseType().getType();
+      this.hashCode = Objects.hash(httpMethod, uri, headers, responseType);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (!(o instanceof Flight)) {
+        return false;
+      }
+      Flight flight = (Flight) o;
+      return httpMethod == flight.httpMethod && uri.equals(flight.uri) && headers.equals(flight.headers)
+          && responseType.equals(flight.responseType);
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+}
@@ -0,0 +1,15 @@
+package com.truongvietdung.exchange;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown when an {@link ExchangeFilter} refuses a call without sending it to the partner.
+ */
+public class ThirdPartyRejectedException extends RestClientException {
+
+  private static final long serialVersionUID = 1L;
+
+  public ThirdPartyRejectedException(String msg) {
+    super(msg);
+  }
+}
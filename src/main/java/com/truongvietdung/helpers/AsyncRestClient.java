@@ -0,0 +1,173 @@
+package com.truongvietdung.helpers;
+
+import com.truongvietdung.config.interceptor.AsyncRequestExecution;
+import com.truongvietdung.config.interceptor.AsyncRequestInterceptor;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Non-blocking client of one {@link com.truongvietdung.config.ApiInfo} key, the asynchronous counterpart of
+ * its {@link RestTemplate}: bodies are written and read by the template's message converters, errors
+ * raised by its error handler, and requests pass through those of its interceptors that implement
+ * {@link AsyncRequestInterceptor}, in the same order. The response is decoded on the thread that completes
+ * the transport future.
+ */
+public class AsyncRestClient {
+
+  private final RestTemplate restTemplate;
+  private final List<AsyncRequestInterceptor> interceptors = new ArrayList<>();
+  private final Supplier<? extends AsyncRequestExecution> transportFactory;
+  private volatile AsyncRequestExecution transport;
+
+  /**
+   * The transport is created on first use, so keys that are never called asynchronously open no
+   * connections for it.
+   */
+  public AsyncRestClient(RestTemplate restTemplate, Supplier<? extends AsyncRequestExecution> transportFactory) {
+    this.restTemplate = restTemplate;
+    this.transportFactory = transportFactory;
+    for (ClientHttpRequestInterceptor interceptor : restTemplate.getInterceptors()) {
+      if (interceptor instanceof AsyncRequestInterceptor) {
+        interceptors.add((AsyncRequestInterceptor) interceptor);
+      }
+    }
+  }
+
+  public <T> CompletableFuture<ResponseEntity<T>> exchange(URI uri, HttpMethod method, HttpEntity<?> entity,
+      ParameterizedTypeReference<T> responseType) {
+    CompletableFuture<ResponseEntity<T>> result = new CompletableFuture<>();
+    BufferedRequest request = new BufferedRequest(method, uri);
+    try {
+      restTemplate.httpEntityCallback(entity, responseType.getType()).doWithRequest(request);
+    } catch (IOException e) {
+      result.completeExceptionally(ioError(method, uri, e));
+      return result;
+    } catch (RuntimeException e) {
+      result.completeExceptionally(e);
+      return result;
+    }
+    ResponseExtractor<ResponseEntity<T>> extractor = restTemplate.responseEntityExtractor(responseType.getType());
+    execute(0, request, request.body.toByteArray()).whenComplete((response, e) -> {
+      if (e != null) {
+        Throwable cause = unwrap(e);
+        result.completeExceptionally(cause instanceof IOException ? ioError(method, uri, (IOException) cause) : cause);
+        return;
+      }
+      try {
+        ResponseErrorHandler errorHandler = restTemplate.getErrorHandler();
+        if (errorHandler.hasError(response)) {
+          errorHandler.handleError(uri, method, response);
+        }
+        result.complete(extractor.extractData(response));
+      } catch (IOException ex) {
+        result.completeExceptionally(ioError(method, uri, ex));
+      } catch (RuntimeException ex) {
+        result.completeExceptionally(ex);
+      } finally {
+        response.close();
+      }
+    });
+    return result;
+  }
+
+  private CompletableFuture<ClientHttpResponse> execute(int index, HttpRequest request, byte[] body) {
+    try {
+      if (index == interceptors.size()) {
+        return getTransport().executeAsync(request, body);
+      }
+      return interceptors.get(index).interceptAsync(request, body,
+          (nextRequest, nextBody) -> execute(index + 1, nextRequest, nextBody));
+    } catch (RuntimeException e) {
+      CompletableFuture<ClientHttpResponse> failed = new CompletableFuture<>();
+      failed.completeExceptionally(e);
+      return failed;
+    }
+  }
+
+  private AsyncRequestExecution getTransport() {
+    AsyncRequestExecution current = transport;
+    if (current == null) {
+      synchronized (this) {
+        if (transport == null) {
+          transport = transportFactory.get();
+        }
+        current = transport;
+      }
+    }
+    return current;
+  }
+
+  private static Throwable unwrap(Throwable e) {
+    while ((e instanceof CompletionException || e instanceof UncheckedIOException) && e.getCause() != null) {
+      e = e.getCause();
+    }
+    return e;
+  }
+
+  private static ResourceAccessException ioError(HttpMethod method, URI uri, IOException e) {
+    return new ResourceAccessException("I/O error on " + method + " request for \"" + uri + "\": " + e.getMessage(),
+        e);
+  }
+
+  /**
+   * Collects what the request callback writes, to be handed to the interceptors and the transport.
+   */
+  private static final class BufferedRequest implements ClientHttpRequest {
+
+    private final HttpMethod method;
+    private final URI uri;
+    private final HttpHeaders headers = new HttpHeaders();
+    private final ByteArrayOutputStream body = new ByteArrayOutputStream(256);
+
+    BufferedRequest(HttpMethod method, URI uri) {
+      this.method = method;
+      this.uri = uri;
+    }
+
+    @Override
+    public String getMethodValue() {
+      return method.name();
+    }
+
+    @Override
+    public URI getURI() {
+      return uri;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+
+    @Override
+    public OutputStream getBody() {
+      return body;
+    }
+
+    @Override
+    public ClientHttpResponse execute() {
+      throw new UnsupportedOperationException("Sent through AsyncRestClient");
+    }
+  }
+}
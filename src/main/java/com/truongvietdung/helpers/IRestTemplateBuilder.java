@@ -1,18 +1,57 @@
 package com.truongvietdung.helpers;
 
+import com.truongvietdung.concurrent.CallExecutors;
+import com.truongvietdung.download.DownloadOptions;
+import com.truongvietdung.download.DownloadResult;
+import com.truongvietdung.download.RangedDownloader;
+import com.truongvietdung.exchange.ExchangePipeline;
+import com.truongvietdung.upload.UploadBody;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpMethod;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.web.client.ResponseExtractor;
 
 public interface IRestTemplateBuilder {
   IRestTemplateBuilder setUrl(String url);
 
+  IRestTemplateBuilder setUrl(UrlTemplate urlTemplate);
+
+  IRestTemplateBuilder uriVariable(String name, Object value);
+
+  IRestTemplateBuilder uriVariables(Map<String, ?> uriVariables);
+
   UrlBuilder urlBuilder(String url);
 
   UrlBuilder urlBuilder();
 
   IRestTemplateBuilder setHttpMethod(HttpMethod httpMethod);
 
+  /**
+   * Routes {@code getResponse*} and {@code getResponseEntity*} through the given filters. Asynchronous,
+   * streamed, upload and download calls cannot be repeated or shared, so they are only admitted by the
+   * filters that implement {@link com.truongvietdung.exchange.AdmissionFilter}: the circuit breaker, the
+   * concurrency limit and metrics.
+   */
+  IRestTemplateBuilder setExchangePipeline(ExchangePipeline exchangePipeline);
+
+  /**
+   * Factory used by {@code upload}; it must not buffer request bodies so that they are streamed to the
+   * connection. Without one, uploads go through the template and are buffered.
+   */
+  IRestTemplateBuilder setStreamingRequestFactory(ClientHttpRequestFactory streamingRequestFactory);
+
+  /**
+   * Executor used by {@code submit}, normally {@link CallExecutors#newCallExecutor(String, int)}.
+   */
+  IRestTemplateBuilder setCallExecutor(Executor callExecutor);
+
   HttpHeaderBuilder headersBuilder();
 
   <T> T getResponse(ParameterizedTypeReference<T> responseType);
@@ -22,4 +61,68 @@ public interface IRestTemplateBuilder {
   <T> ResponseEntity<T> getResponseEntity(Class<T> responseType);
 
   <T> ResponseEntity<T> getResponseEntity(ParameterizedTypeReference<T> responseType);
+
+  <T> CompletableFuture<T> getResponseAsync(ParameterizedTypeReference<T> responseType);
+
+  <T> CompletableFuture<T> getResponseAsync(Class<T> responseType);
+
+  /**
+   * Sends the request on the partner's {@link AsyncRestClient} without blocking a thread; codec, timeouts
+   * and interceptors are those of its template, and the call is admitted, but not retried, by the exchange
+   * filters.
+   */
+  <T> CompletableFuture<ResponseEntity<T>> getResponseEntityAsync(Class<T> responseType);
+
+  <T> CompletableFuture<ResponseEntity<T>> getResponseEntityAsync(ParameterizedTypeReference<T> responseType);
+
+  /**
+   * Runs {@link #getResponseEntity(Class)} on the call executor. Unlike {@code getResponseEntityAsync} the
+   * call goes through all exchange filters; it blocks a thread, which on Java 21 is a virtual one. On Java 8
+   * the executor's queue is bounded, and a call it rejects fails the future with a
+   * {@link java.util.concurrent.RejectedExecutionException}. The builder must not be changed until the future
+   * completes.
+   */
+  <T> CompletableFuture<ResponseEntity<T>> submit(Class<T> responseType);
+
+  <T> CompletableFuture<ResponseEntity<T>> submit(ParameterizedTypeReference<T> responseType);
+
+  /**
+   * Sends {@code body} as it is read from its source instead of the builder body; bypasses interceptors
+   * and is never retried, since the body is neither held in memory nor necessarily repeatable.
+   */
+  <T> T upload(UploadBody body, Class<T> responseType);
+
+  <T> T upload(UploadBody body, ParameterizedTypeReference<T> responseType);
+
+  /**
+   * GETs the resource into {@code target} with default {@link DownloadOptions}.
+   */
+  DownloadResult download(Path target);
+
+  /**
+   * GETs the resource into {@code target}, in concurrent ranges when the server supports them, resuming
+   * an earlier interrupted download of the same target; see {@link RangedDownloader}. Ranges are fetched
+   * on the call executor next to the calling thread, or one after another when no executor is set.
+   */
+  DownloadResult download(Path target, DownloadOptions options);
+
+  /**
+   * Hands the unbuffered response to the extractor as it arrives; the connection is released when the
+   * extractor returns.
+   */
+  <T> T stream(ResponseExtractor<T> responseExtractor);
+
+  /**
+   * Returns the unbuffered response body; the stream must be closed. Closing it after the body was read to
+   * the end releases the pooled connection, closing it earlier aborts the request.
+   */
+  InputStream getResponseAsInputStream();
+
+  /**
+   * Lazily decodes a JSON array response into its elements; the stream must be closed. Closing it before the
+   * body was read to the end aborts the request instead of downloading the rest.
+   */
+  <T> Stream<T> getResponseAsStream(Class<T> elementType);
+
+  <T> Stream<T> getResponseAsStream(ParameterizedTypeReference<T> elementType);
 }
@@ -0,0 +1,174 @@
+package com.truongvietdung.helpers;
+
+import com.truongvietdung.exchange.ExchangePipeline;
+import com.truongvietdung.exchange.ExchangeRequest;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.util.CollectionUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Immutable, thread-safe request whose method, URL template, static headers and response type are fixed
+ * up front. Each execution only supplies URI variables, body and optional extra headers; static headers
+ * are shared and only copied when a call adds headers of its own.
+ */
+public final class PreparedRequest<T> {
+
+  private final RestTemplate restTemplate;
+  private final HttpMethod httpMethod;
+  private final UrlTemplate urlTemplate;
+  private final HttpHeaders headers;
+  private final ParameterizedTypeReference<T> responseType;
+  private final ExchangePipeline exchangePipeline;
+
+  private PreparedRequest(Builder<T> builder) {
+    this.restTemplate = builder.restTemplate;
+    this.httpMethod = builder.httpMethod;
+    this.urlTemplate = builder.urlTemplate;
+    HttpHeaders headers = new HttpHeaders();
+    builder.headers.forEach((headerName, headerValues) -> headers.put(headerName, new ArrayList<>(headerValues)));
+    this.headers = HttpHeaders.readOnlyHttpHeaders(headers);
+    this.responseType = builder.responseType;
+    this.exchangePipeline = builder.exchangePipeline;
+  }
+
+  public static <T> Builder<T> builder(RestTemplate restTemplate, HttpMethod httpMethod, UrlTemplate urlTemplate,
+      ParameterizedTypeReference<T> responseType) {
+    return new Builder<>(restTemplate, httpMethod, urlTemplate, responseType);
+  }
+
+  public static <T> Builder<T> builder(RestTemplate restTemplate, HttpMethod httpMethod, UrlTemplate urlTemplate,
+      Class<T> responseType) {
+    return new Builder<>(restTemplate, httpMethod, urlTemplate, ParameterizedTypeReference.forType(responseType));
+  }
+
+  public T execute() {
+    return exchange(Collections.emptyMap(), null, null).getBody();
+  }
+
+  public T execute(Map<String, ?> uriVariables) {
+    return exchange(uriVariables, null, null).getBody();
+  }
+
+  public T execute(Map<String, ?> uriVariables, Object body) {
+    return exchange(uriVariables, body, null).getBody();
+  }
+
+  public ResponseEntity<T> exchange(Map<String, ?> uriVariables, Object body) {
+    return exchange(uriVariables, body, null);
+  }
+
+  public ResponseEntity<T> exchange(Map<String, ?> uriVariables, Object body, HttpHeaders extraHeaders) {
+    URI uri = urlTemplate.expand(uriVariables);
+    HttpEntity<Object> entity = new PreparedEntity<>(ObjectUtils.isEmpty(body) ? null : body,
+        CollectionUtils.isEmpty(extraHeaders) ? headers : overlay(extraHeaders));
+    try {
+      if (exchangePipeline.isEmpty()) {
+        return restTemplate.exchange(uri, httpMethod, entity, responseType);
+      }
+      return exchangePipeline.exchange(restTemplate, new ExchangeRequest(httpMethod, uri, entity, responseType));
+    } catch (HttpClientErrorException | HttpServerErrorException | ResourceAccessException e) {
+      RestTemplateBuilder.logFailure(httpMethod, uri, e);
+      throw e;
+    }
+  }
+
+  public HttpMethod getHttpMethod() {
+    return httpMethod;
+  }
+
+  public UrlTemplate getUrlTemplate() {
+    return urlTemplate;
+  }
+
+  public HttpHeaders getHeaders() {
+    return headers;
+  }
+
+  private HttpHeaders overlay(HttpHeaders extraHeaders) {
+    HttpHeaders merged = new HttpHeaders();
+    merged.putAll(headers);
+    merged.putAll(extraHeaders);
+    return merged;
+  }
+
+  /**
+   * {@link HttpEntity} copies the headers it is given on construction; this one hands out the shared
+   * instance instead.
+   */
+  private static final class PreparedEntity<B> extends HttpEntity<B> {
+
+    private final HttpHeaders headers;
+
+    PreparedEntity(B body, HttpHeaders headers) {
+      super(body);
+      this.headers = headers;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+      return headers;
+    }
+  }
+
+  public static final class Builder<T> {
+
+    private final RestTemplate restTemplate;
+    private final HttpMethod httpMethod;
+    private final UrlTemplate urlTemplate;
+    private final ParameterizedTypeReference<T> responseType;
+    private final HttpHeaders headers = new HttpHeaders();
+    private ExchangePipeline exchangePipeline = ExchangePipeline.EMPTY;
+
+    private Builder(RestTemplate restTemplate, HttpMethod httpMethod, UrlTemplate urlTemplate,
+        ParameterizedTypeReference<T> responseType) {
+      this.restTemplate = restTemplate;
+      this.httpMethod = httpMethod;
+      this.urlTemplate = urlTemplate;
+      this.responseType = responseType;
+      this.headers.setContentType(MediaType.APPLICATION_JSON);
+    }
+
+    public Builder<T> header(String headerName, String headerValue) {
+      this.headers.add(headerName, headerValue);
+      return this;
+    }
+
+    public Builder<T> headers(HttpHeaders headers) {
+      this.headers.putAll(headers);
+      return this;
+    }
+
+    public Builder<T> contentType(MediaType mediaType) {
+      this.headers.setContentType(mediaType);
+      return this;
+    }
+
+    public Builder<T> accept(MediaType... mediaTypes) {
+      this.headers.setAccept(Arrays.asList(mediaTypes));
+      return this;
+    }
+
+    public Builder<T> exchangePipeline(ExchangePipeline exchangePipeline) {
+      this.exchangePipeline = exchangePipeline;
+      return this;
+    }
+
+    public PreparedRequest<T> build() {
+      return new PreparedRequest<>(this);
+    }
+  }
+}
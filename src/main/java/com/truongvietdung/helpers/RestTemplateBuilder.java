@@ -1,18 +1,42 @@
 package com.truongvietdung.helpers;
 
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.truongvietdung.download.DownloadOptions;
+import com.truongvietdung.download.DownloadResult;
+import com.truongvietdung.download.RangedDownloader;
+import com.truongvietdung.exchange.AbortHandle;
+import com.truongvietdung.exchange.Admission;
+import com.truongvietdung.exchange.ExchangePipeline;
+import com.truongvietdung.exchange.ExchangeRequest;
+import com.truongvietdung.upload.UploadBody;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Type;
 import java.net.InetSocketAddress;
 import java.net.URI;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.time.Duration;
 import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Locale.LanguageRange;
 import java.util.Map;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.CacheControl;
@@ -23,11 +47,23 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpRange;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.StreamingHttpOutputMessage;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
 import org.springframework.util.MultiValueMap;
 import org.springframework.util.ObjectUtils;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpMessageConverterExtractor;
 import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseErrorHandler;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
 
@@ -38,7 +74,13 @@ public class RestTemplateBuilder<BodyType> implements IRestTemplateBuilder, UrlB
   private HttpMethod httpMethod;
   private BodyType body;
   private RestTemplate restTemplate;
+  private AsyncRestClient asyncRestClient;
   private UriComponentsBuilder builder;
+  private UrlTemplate urlTemplate;
+  private Map<String, Object> uriVariables;
+  private ExchangePipeline exchangePipeline = ExchangePipeline.EMPTY;
+  private ClientHttpRequestFactory streamingRequestFactory;
+  private Executor callExecutor;
 
   public static IRestTemplateBuilder getInstance(RestTemplate restTemplate, HttpMethod httpMethod) {
     RestTemplateBuilder<Object> restTemplateBuilder = new RestTemplateBuilder<>();
@@ -58,20 +100,87 @@ public class RestTemplateBuilder<BodyType> implements IRestTemplateBuilder, UrlB
     return restTemplateBuilder;
   }
 
+  public static IRestTemplateBuilder getInstance(RestTemplate restTemplate, AsyncRestClient asyncRestClient,
+      HttpMethod httpMethod) {
+    RestTemplateBuilder<Object> restTemplateBuilder = new RestTemplateBuilder<>();
+    restTemplateBuilder.restTemplate = restTemplate;
+    restTemplateBuilder.asyncRestClient = asyncRestClient;
+    restTemplateBuilder.body = null;
+    restTemplateBuilder.setContentType(MediaType.APPLICATION_JSON);
+    restTemplateBuilder.setHttpMethod(httpMethod);
+    return restTemplateBuilder;
+  }
+
+  public static <B> IRestTemplateBuilder getInstance(RestTemplate restTemplate, AsyncRestClient asyncRestClient,
+      HttpMethod httpMethod, B body) {
+    RestTemplateBuilder<B> restTemplateBuilder = new RestTemplateBuilder<>();
+    restTemplateBuilder.restTemplate = restTemplate;
+    restTemplateBuilder.asyncRestClient = asyncRestClient;
+    restTemplateBuilder.body = body;
+    restTemplateBuilder.setContentType(MediaType.APPLICATION_JSON);
+    restTemplateBuilder.setHttpMethod(httpMethod);
+    return restTemplateBuilder;
+  }
+
   @Override
   public IRestTemplateBuilder setHttpMethod(HttpMethod httpMethod) {
     this.httpMethod = httpMethod;
     return this;
   }
 
+  @Override
+  public IRestTemplateBuilder setExchangePipeline(ExchangePipeline exchangePipeline) {
+    this.exchangePipeline = exchangePipeline;
+    return this;
+  }
+
+  @Override
+  public IRestTemplateBuilder setStreamingRequestFactory(ClientHttpRequestFactory streamingRequestFactory) {
+    this.streamingRequestFactory = streamingRequestFactory;
+    return this;
+  }
+
+  @Override
+  public IRestTemplateBuilder setCallExecutor(Executor callExecutor) {
+    this.callExecutor = callExecutor;
+    return this;
+  }
+
   @Override
   public IRestTemplateBuilder setUrl(String url) {
+    this.urlTemplate = null;
     this.builder = UriComponentsBuilder.fromUriString(url);
     return this;
   }
 
+  @Override
+  public IRestTemplateBuilder setUrl(UrlTemplate urlTemplate) {
+    this.urlTemplate = urlTemplate;
+    this.builder = null;
+    return this;
+  }
+
+  @Override
+  public IRestTemplateBuilder uriVariable(String name, Object value) {
+    if (this.uriVariables == null) {
+      this.uriVariables = new HashMap<>();
+    }
+    this.uriVariables.put(name, value);
+    return this;
+  }
+
+  @Override
+  public IRestTemplateBuilder uriVariables(Map<String, ?> uriVariables) {
+    if (this.uriVariables == null) {
+      this.uriVariables = new HashMap<>();
+    }
+    this.uriVariables.putAll(uriVariables);
+    return this;
+  }
+
   @Override
   public UrlBuilder urlBuilder(String url) {
+    this.urlTemplate = null;
     this.builder = UriComponentsBuilder.fromUriString(url);
     return this;
   }
@@ -88,111 +197,515 @@ public class RestTemplateBuilder<BodyType> implements IRestTemplateBuilder, UrlB
 
   @Override
   public <ResponseType> ResponseType getResponse(ParameterizedTypeReference<ResponseType> responseType) {
-    HttpEntity<BodyType> entity;
-    if(ObjectUtils.isEmpty(this.body)) {
-      entity = new HttpEntity<>(this.httpHeaders);
-    } else {
-      entity = new HttpEntity<>(this.body, this.httpHeaders);
+    return getResponseEntity(responseType).getBody();
+  }
+
+  @Override
+  public <ResponseType> ResponseType getResponse(Class<ResponseType> responseType) {
+    return getResponseEntity(responseType).getBody();
+  }
+
+  @Override
+  public <T> ResponseEntity<T> getResponseEntity(Class<T> responseType) {
+    return getResponseEntity(ParameterizedTypeReference.<T>forType(responseType));
+  }
+
+  @Override
+  public <T> ResponseEntity<T> getResponseEntity(ParameterizedTypeReference<T> responseType) {
+    return exchange(this.httpMethod, getUri(), getHttpEntity(), responseType);
+  }
+
+  @Override
+  public <T> CompletableFuture<ResponseEntity<T>> submit(Class<T> responseType) {
+    return submit(ParameterizedTypeReference.<T>forType(responseType));
+  }
+
+  @Override
+  public <T> CompletableFuture<ResponseEntity<T>> submit(ParameterizedTypeReference<T> responseType) {
+    if (this.callExecutor == null) {
+      throw new IllegalStateException("No call executor configured for this builder");
     }
+    HttpMethod method = this.httpMethod;
+    URI uri = getUri();
+    HttpEntity<BodyType> entity = getHttpEntity();
+    try {
+      return CompletableFuture.supplyAsync(() -> exchange(method, uri, entity, responseType), this.callExecutor);
+    } catch (RejectedExecutionException e) {
+      CompletableFuture<ResponseEntity<T>> rejected = new CompletableFuture<>();
+      rejected.completeExceptionally(e);
+      return rejected;
+    }
+  }
 
+  private <T> ResponseEntity<T> exchange(HttpMethod method, URI uri, HttpEntity<BodyType> entity,
+      ParameterizedTypeReference<T> responseType) {
     try {
-      return restTemplate.exchange(this.builder.build().toUri(), this.httpMethod, entity, responseType).getBody();
-    } catch(HttpClientErrorException | HttpServerErrorException e) {
-      int httpStatusCode = e.getRawStatusCode();
-      String message = e.getResponseBodyAsString();
-      log.error("Fail when communicating to 3rd [{}: {}, {}, {}]", this.httpMethod, this.builder.build().toUriString(), httpStatusCode, message);
-      throw e;
-    } catch(ResourceAccessException e) {
-      String message = e.getMessage();
-      log.error("Fail when communicating to 3rd [{}: {}, {}]", this.httpMethod, this.builder.build().toUriString(), message);
+      if (exchangePipeline.isEmpty()) {
+        return restTemplate.exchange(uri, method, entity, responseType);
+      }
+      return exchangePipeline.exchange(restTemplate, new ExchangeRequest(method, uri, entity, responseType));
+    } catch (HttpClientErrorException | HttpServerErrorException | ResourceAccessException e) {
+      logFailure(e, uri);
       throw e;
     }
   }
 
   @Override
-  public <ResponseType> ResponseType getResponse(Class<ResponseType> responseType) {
-    HttpEntity<BodyType> entity;
+  public <T> CompletableFuture<T> getResponseAsync(ParameterizedTypeReference<T> responseType) {
+    return getResponseEntityAsync(responseType).thenApply(ResponseEntity::getBody);
+  }
+
+  @Override
+  public <T> CompletableFuture<T> getResponseAsync(Class<T> responseType) {
+    return getResponseEntityAsync(responseType).thenApply(ResponseEntity::getBody);
+  }
+
+  @Override
+  public <T> CompletableFuture<ResponseEntity<T>> getResponseEntityAsync(Class<T> responseType) {
+    return getResponseEntityAsync(ParameterizedTypeReference.<T>forType(responseType));
+  }
+
+  @Override
+  public <T> CompletableFuture<ResponseEntity<T>> getResponseEntityAsync(ParameterizedTypeReference<T> responseType) {
+    checkAsyncRestClient();
+    URI uri = getUri();
+    Admission admission;
+    CompletableFuture<ResponseEntity<T>> future;
+    try {
+      admission = exchangePipeline.admit(new ExchangeRequest(this.httpMethod, uri, null, responseType));
+    } catch (RuntimeException e) {
+      future = new CompletableFuture<>();
+      future.completeExceptionally(e);
+      return future;
+    }
+    try {
+      future = asyncRestClient.exchange(uri, this.httpMethod, getHttpEntity(), responseType);
+    } catch (RuntimeException | Error e) {
+      admission.onError(e);
+      throw e;
+    }
+    return whenFailed(future.whenComplete((response, e) -> {
+      if (e != null) {
+        admission.onError(e instanceof CompletionException && e.getCause() != null ? e.getCause() : e);
+      } else {
+        admission.onResponse(response.getStatusCodeValue());
+      }
+    }), uri);
+  }
+
+  /**
+   * Templates without query parameters added through {@link UrlBuilder} resolve without parsing; the
+   * {@link UriComponentsBuilder} is only materialized, from the template's cached prototype, when needed.
+   */
+  private URI getUri() {
+    if (this.builder != null) {
+      return this.uriVariables == null
+          ? this.builder.build().toUri()
+          : this.builder.encode().buildAndExpand(this.uriVariables).toUri();
+    }
+    return this.uriVariables == null ? this.urlTemplate.toUri() : this.urlTemplate.expand(this.uriVariables);
+  }
+
+  private UriComponentsBuilder getBuilder() {
+    if (this.builder == null) {
+      this.builder = this.urlTemplate.newBuilder();
+    }
+    return this.builder;
+  }
+
+  private HttpEntity<BodyType> getHttpEntity() {
     if (ObjectUtils.isEmpty(this.body)) {
-      entity = new HttpEntity<>(this.httpHeaders);
-    } else {
-      entity = new HttpEntity<>(body, httpHeaders);
+      return new HttpEntity<>(this.httpHeaders);
+    }
+    return new HttpEntity<>(this.body, this.httpHeaders);
+  }
+
+  private void checkAsyncRestClient() {
+    if (this.asyncRestClient == null) {
+      throw new IllegalStateException("No AsyncRestClient configured for this builder");
     }
+  }
+
+  private <T> CompletableFuture<ResponseEntity<T>> whenFailed(CompletableFuture<ResponseEntity<T>> future, URI uri) {
+    return future.whenComplete((response, e) -> {
+      if (e != null) {
+        logFailure(e, uri);
+      }
+    });
+  }
 
+  @Override
+  public <T> T upload(UploadBody body, Class<T> responseType) {
+    return upload(body, (Type) responseType);
+  }
+
+  @Override
+  public <T> T upload(UploadBody body, ParameterizedTypeReference<T> responseType) {
+    return upload(body, responseType.getType());
+  }
+
+  private <T> T upload(UploadBody body, Type responseType) {
+    URI uri = getUri();
+    Admission admission = admit(uri);
+    ClientHttpResponse response = null;
     try {
-      return restTemplate.exchange(this.builder.build().toUri(), this.httpMethod, entity, responseType).getBody();
-    } catch (HttpClientErrorException | HttpServerErrorException e) {
-      int httpStatusCode = e.getRawStatusCode();
-      String message = e.getResponseBodyAsString();
-      log.error("Fail when communicating to 3rd [{}: {}, {}, {}]", this.httpMethod, this.builder.build().toUriString(), httpStatusCode, message);
+      ClientHttpRequestFactory requestFactory = this.streamingRequestFactory != null
+          ? this.streamingRequestFactory
+          : restTemplate.getRequestFactory();
+      ClientHttpRequest request = requestFactory.createRequest(uri, this.httpMethod);
+      request.getHeaders().putAll(this.httpHeaders);
+      request.getHeaders().setContentType(body.getContentType());
+      if (body.getContentLength() >= 0) {
+        request.getHeaders().setContentLength(body.getContentLength());
+      }
+      if (request instanceof StreamingHttpOutputMessage) {
+        ((StreamingHttpOutputMessage) request).setBody(body::writeTo);
+      } else {
+        body.writeTo(request.getBody());
+      }
+      response = request.execute();
+      ResponseErrorHandler errorHandler = restTemplate.getErrorHandler();
+      if (errorHandler.hasError(response)) {
+        errorHandler.handleError(uri, this.httpMethod, response);
+      }
+      T result = new HttpMessageConverterExtractor<T>(responseType, restTemplate.getMessageConverters())
+          .extractData(response);
+      admission.onResponse(response.getRawStatusCode());
+      return result;
+    } catch (IOException e) {
+      ResourceAccessException exception = new ResourceAccessException(
+          "I/O error on " + this.httpMethod + " request for \"" + uri + "\": " + e.getMessage(), e);
+      admission.onError(exception);
+      logFailure(exception, uri);
+      throw exception;
+    } catch (RestClientException e) {
+      admission.onError(e);
+      logFailure(e, uri);
       throw e;
-    } catch (ResourceAccessException e) {
-      String message = e.getMessage();
-      log.error("Fail when communicating to 3rd [{}: {}, {}]", this.httpMethod, this.builder.build().toUriString(), message);
+    } catch (RuntimeException | Error e) {
+      admission.onError(e);
       throw e;
+    } finally {
+      closeQuietly(response);
     }
   }
 
   @Override
-  public <T> ResponseEntity<T> getResponseEntity(Class<T> responseType) {
-    HttpEntity<BodyType> entity;
-    if (ObjectUtils.isEmpty(this.body)) {
-      entity = new HttpEntity<>(this.httpHeaders);
-    } else {
-      entity = new HttpEntity<>(body, httpHeaders);
+  public DownloadResult download(Path target) {
+    return download(target, new DownloadOptions());
+  }
+
+  @Override
+  public DownloadResult download(Path target, DownloadOptions options) {
+    URI uri = getUri();
+    try {
+      Executor executor = this.callExecutor != null ? this.callExecutor : Runnable::run;
+      return new RangedDownloader(restTemplate, exchangePipeline, uri, this.httpHeaders, options, executor)
+          .download(target);
+    } catch (RestClientException e) {
+      logFailure(HttpMethod.GET, uri, e);
+      throw e;
     }
+  }
 
+  @Override
+  public <T> T stream(ResponseExtractor<T> responseExtractor) {
+    URI uri = getUri();
+    Admission admission = admit(uri);
     try {
-      return restTemplate.exchange(this.builder.build().toUri(), this.httpMethod, entity, responseType);
-    } catch (HttpClientErrorException | HttpServerErrorException e) {
-      int httpStatusCode = e.getRawStatusCode();
-      String message = e.getResponseBodyAsString();
-      log.error("Fail when communicating to 3rd [{}: {}, {}, {}]", this.httpMethod, this.builder.build().toUriString(), httpStatusCode, message);
+      return restTemplate.execute(uri, this.httpMethod, restTemplate.httpEntityCallback(getHttpEntity()),
+          response -> {
+            T result = responseExtractor.extractData(response);
+            admission.onResponse(response.getRawStatusCode());
+            return result;
+          });
+    } catch (RestClientException e) {
+      admission.onError(e);
+      logFailure(e, uri);
       throw e;
-    } catch (ResourceAccessException e) {
-      String message = e.getMessage();
-      log.error("Fail when communicating to 3rd [{}: {}, {}]", this.httpMethod, this.builder.build().toUriString(), message);
+    } catch (RuntimeException | Error e) {
+      admission.onError(e);
       throw e;
     }
   }
 
   @Override
-  public <T> ResponseEntity<T> getResponseEntity(ParameterizedTypeReference<T> responseType) {
-    HttpEntity<BodyType> entity;
-    if (ObjectUtils.isEmpty(this.body)) {
-      entity = new HttpEntity<>(this.httpHeaders);
-    } else {
-      entity = new HttpEntity<>(body, httpHeaders);
+  public InputStream getResponseAsInputStream() {
+    URI uri = getUri();
+    return openResponse(uri, admit(uri));
+  }
+
+  @Override
+  public <T> Stream<T> getResponseAsStream(Class<T> elementType) {
+    return getResponseAsStream((Type) elementType);
+  }
+
+  @Override
+  public <T> Stream<T> getResponseAsStream(ParameterizedTypeReference<T> elementType) {
+    return getResponseAsStream(elementType.getType());
+  }
+
+  /**
+   * Decodes a JSON array element by element: only the element being read is held in memory. Closing the
+   * stream before the body was read to the end aborts the request instead of downloading the rest.
+   */
+  private <T> Stream<T> getResponseAsStream(Type elementType) {
+    URI uri = getUri();
+    Admission admission = admit(uri);
+    ResponseInputStream body = openResponse(uri, admission);
+    try {
+      ObjectMapper objectMapper = getObjectMapper(body.getContentType());
+      MappingIterator<T> iterator = objectMapper.readerFor(objectMapper.getTypeFactory().constructType(elementType))
+          .readValues(body);
+      ResponseInputStream source = body;
+      return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+          .onClose(() -> {
+            try {
+              iterator.close();
+            } catch (IOException ignored) {
+            } finally {
+              source.close();
+            }
+          });
+    } catch (IOException e) {
+      ResourceAccessException exception = new ResourceAccessException(
+          "I/O error on " + this.httpMethod + " request for \"" + uri + "\": " + e.getMessage(), e);
+      body.fail(e);
+      body.close();
+      logFailure(exception, uri);
+      throw exception;
+    }
+  }
+
+  /**
+   * Picks the Jackson converter for the response format (JSON, Smile, CBOR), falling back to JSON.
+   */
+  private ObjectMapper getObjectMapper(MediaType contentType) {
+    ObjectMapper json = null;
+    for (HttpMessageConverter<?> messageConverter : restTemplate.getMessageConverters()) {
+      if (!(messageConverter instanceof AbstractJackson2HttpMessageConverter)) {
+        continue;
+      }
+      AbstractJackson2HttpMessageConverter jacksonConverter = (AbstractJackson2HttpMessageConverter) messageConverter;
+      if (contentType != null && jacksonConverter.canRead(Object.class, contentType)) {
+        return jacksonConverter.getObjectMapper();
+      }
+      if (json == null && jacksonConverter instanceof MappingJackson2HttpMessageConverter) {
+        json = jacksonConverter.getObjectMapper();
+      }
     }
+    return json != null ? json : new ObjectMapper();
+  }
+
+  private Admission admit(URI uri) {
+    return exchangePipeline.admit(new ExchangeRequest(this.httpMethod, uri, null, null));
+  }
 
+  /**
+   * Executes the request without reading the body; the caller owns the returned body and must close it.
+   * The request is executed under an {@link AbortHandle} so that closing an unfinished body can abort it.
+   * Failures are reported to {@code admission}.
+   */
+  private ResponseInputStream openResponse(URI uri, Admission admission) {
+    ClientHttpResponse response = null;
+    AbortHandle abortHandle = AbortHandle.bind();
     try {
-      return restTemplate.exchange(this.builder.build().toUri(), this.httpMethod, entity, responseType);
-    } catch (HttpClientErrorException | HttpServerErrorException e) {
-      int httpStatusCode = e.getRawStatusCode();
-      String message = e.getResponseBodyAsString();
-      log.error("Fail when communicating to 3rd [{}: {}, {}, {}]", this.httpMethod, this.builder.build().toUriString(), httpStatusCode, message);
+      ClientHttpRequest request = restTemplate.getRequestFactory().createRequest(uri, this.httpMethod);
+      restTemplate.httpEntityCallback(getHttpEntity()).doWithRequest(request);
+      response = request.execute();
+      ResponseErrorHandler errorHandler = restTemplate.getErrorHandler();
+      if (errorHandler.hasError(response)) {
+        errorHandler.handleError(uri, this.httpMethod, response);
+      }
+      return new ResponseInputStream(response, admission, abortHandle);
+    } catch (IOException e) {
+      closeQuietly(response);
+      ResourceAccessException exception = new ResourceAccessException(
+          "I/O error on " + this.httpMethod + " request for \"" + uri + "\": " + e.getMessage(), e);
+      admission.onError(exception);
+      logFailure(exception, uri);
+      throw exception;
+    } catch (RestClientException e) {
+      closeQuietly(response);
+      admission.onError(e);
+      logFailure(e, uri);
       throw e;
-    } catch (ResourceAccessException e) {
-      String message = e.getMessage();
-      log.error("Fail when communicating to 3rd [{}: {}, {}]", this.httpMethod, this.builder.build().toUriString(), message);
+    } catch (RuntimeException | Error e) {
+      closeQuietly(response);
+      admission.onError(e);
       throw e;
+    } finally {
+      AbortHandle.unbind();
+    }
+  }
+
+  private void closeQuietly(ClientHttpResponse response) {
+    if (response != null) {
+      response.close();
+    }
+  }
+
+  private void logFailure(Throwable e, URI uri) {
+    logFailure(this.httpMethod, uri, e);
+  }
+
+  static void logFailure(HttpMethod httpMethod, URI uri, Throwable e) {
+    if (e instanceof HttpStatusCodeException) {
+      HttpStatusCodeException statusCodeException = (HttpStatusCodeException) e;
+      log.error("Fail when communicating to 3rd [{}: {}, {}, {}]", httpMethod, uri,
+          statusCodeException.getRawStatusCode(), statusCodeException.getResponseBodyAsString());
+    } else {
+      log.error("Fail when communicating to 3rd [{}: {}, {}]", httpMethod, uri, e.getMessage());
+    }
+  }
+
+  /**
+   * Body of a streamed response; closing it releases the connection and reports the outcome to the
+   * admission, as a failure if reading the body failed.
+   */
+  private static class ResponseInputStream extends FilterInputStream {
+
+    private static final int DRAIN_LIMIT = 8 * 1024;
+
+    private final ClientHttpResponse response;
+    private final Admission admission;
+    private final AbortHandle abortHandle;
+    private final int statusCode;
+    private final MediaType contentType;
+    private final long contentLength;
+    private long position;
+    private boolean eof;
+    private IOException failure;
+    private boolean closed;
+
+    ResponseInputStream(ClientHttpResponse response, Admission admission, AbortHandle abortHandle)
+        throws IOException {
+      super(response.getBody());
+      this.response = response;
+      this.admission = admission;
+      this.abortHandle = abortHandle;
+      this.statusCode = response.getRawStatusCode();
+      this.contentType = response.getHeaders().getContentType();
+      this.contentLength = response.getHeaders().getContentLength();
+    }
+
+    MediaType getContentType() {
+      return contentType;
+    }
+
+    void fail(IOException e) {
+      failure = e;
+    }
+
+    private boolean isFullyRead() {
+      return eof || contentLength >= 0 && position >= contentLength;
+    }
+
+    /**
+     * Reads what is left of a nearly consumed body; returns whether the end was reached within the limit.
+     */
+    private boolean drain() {
+      byte[] buffer = new byte[DRAIN_LIMIT];
+      try {
+        int drained = 0;
+        while (drained < DRAIN_LIMIT) {
+          int read = in.read(buffer, drained, DRAIN_LIMIT - drained);
+          if (read < 0) {
+            return true;
+          }
+          drained += read;
+        }
+        return in.read() < 0;
+      } catch (IOException e) {
+        return false;
+      }
+    }
+
+    @Override
+    public int read() throws IOException {
+      try {
+        int b = super.read();
+        if (b < 0) {
+          eof = true;
+        } else {
+          position++;
+        }
+        return b;
+      } catch (IOException e) {
+        failure = e;
+        throw e;
+      }
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+      try {
+        int n = super.read(b, off, len);
+        if (n < 0) {
+          eof = true;
+        } else {
+          position += n;
+        }
+        return n;
+      } catch (IOException e) {
+        failure = e;
+        throw e;
+      }
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+      try {
+        long skipped = super.skip(n);
+        position += skipped;
+        return skipped;
+      } catch (IOException e) {
+        failure = e;
+        throw e;
+      }
+    }
+
+    /**
+     * Closing a body that was not read to the end aborts the request: the transport would otherwise read
+     * (and discard) the rest of it to keep the connection reusable, which for a large or slow body costs far
+     * more than opening a new connection. Decoders often stop right before the end (Jackson after the
+     * closing bracket, before the last chunk of a chunked or decompressed body), so up to
+     * {@link #DRAIN_LIMIT} bytes are read first and only a body with more left is aborted.
+     */
+    @Override
+    public void close() {
+      if (closed) {
+        return;
+      }
+      closed = true;
+      if (!isFullyRead() && !drain()) {
+        abortHandle.abort();
+      }
+      response.close();
+      if (failure != null) {
+        admission.onError(new ResourceAccessException("I/O error reading the response body: " + failure.getMessage(),
+            failure));
+      } else {
+        admission.onResponse(statusCode);
+      }
     }
   }
 
   @Override
   public UrlBuilder queryParam(String name, Object... values) {
-    builder.queryParam(name, values);
+    getBuilder().queryParam(name, values);
     return this;
   }
 
   @Override
   public UrlBuilder queryParam(String name, Collection<?> values) {
-    builder.queryParam(name, values);
+    getBuilder().queryParam(name, values);
     return this;
   }
 
   @Override
   public UrlBuilder queryParam(MultiValueMap<String, String> params) {
-    builder.queryParams(params);
+    getBuilder().queryParams(params);
     return this;
   }
 
@@ -0,0 +1,149 @@
+package com.truongvietdung.helpers;
+
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+/**
+ * URL with optional {@code {name}} variables, parsed once and expanded many times by plain string
+ * concatenation. Literal parts are encoded at compile time, variable values on every expansion.
+ */
+public final class UrlTemplate {
+
+  private static final char[] HEX_DIGITS = "0123456789ABCDEF".toCharArray();
+  private static final BitSet ALLOWED_LITERAL_CHARS = new BitSet(128);
+
+  static {
+    for (char c = 'a'; c <= 'z'; c++) {
+      ALLOWED_LITERAL_CHARS.set(c);
+      ALLOWED_LITERAL_CHARS.set(Character.toUpperCase(c));
+    }
+    for (char c = '0'; c <= '9'; c++) {
+      ALLOWED_LITERAL_CHARS.set(c);
+    }
+    for (char c : "-._~:/?#[]@!$&'()*+,;=%".toCharArray()) {
+      ALLOWED_LITERAL_CHARS.set(c);
+    }
+  }
+
+  private final String url;
+  private final String[] literals;
+  private final String[] variableNames;
+  private volatile URI uri;
+  private volatile UriComponentsBuilder prototype;
+
+  private UrlTemplate(String url, String[] literals, String[] variableNames) {
+    this.url = url;
+    this.literals = literals;
+    this.variableNames = variableNames;
+  }
+
+  public static UrlTemplate compile(String url) {
+    List<String> literals = new ArrayList<>();
+    List<String> variableNames = new ArrayList<>();
+    int literalStart = 0;
+    int open = url.indexOf('{');
+    while (open >= 0) {
+      int close = url.indexOf('}', open);
+      if (close < 0) {
+        break;
+      }
+      literals.add(encodeLiteral(url.substring(literalStart, open)));
+      variableNames.add(url.substring(open + 1, close).trim());
+      literalStart = close + 1;
+      open = url.indexOf('{', literalStart);
+    }
+    literals.add(encodeLiteral(url.substring(literalStart)));
+    return new UrlTemplate(url, literals.toArray(new String[0]), variableNames.toArray(new String[0]));
+  }
+
+  public String getUrl() {
+    return url;
+  }
+
+  public boolean hasVariables() {
+    return variableNames.length > 0;
+  }
+
+  /**
+   * Returns the URI without expanding variables, which stay in it as encoded {@code {name}}. Literal parts
+   * are encoded exactly as in {@link #expand(Map)}, so escapes already in the URL are kept; computed on
+   * first use and then shared.
+   */
+  public URI toUri() {
+    URI result = uri;
+    if (result == null) {
+      StringBuilder unexpanded = new StringBuilder(url.length() + 4 * variableNames.length);
+      for (int i = 0; i < variableNames.length; i++) {
+        unexpanded.append(literals[i]).append(encodeLiteral("{" + variableNames[i] + "}"));
+      }
+      result = URI.create(unexpanded.append(literals[variableNames.length]).toString());
+      uri = result;
+    }
+    return result;
+  }
+
+  public URI expand(Map<String, ?> uriVariables) {
+    if (!hasVariables()) {
+      return toUri();
+    }
+    StringBuilder expanded = new StringBuilder(url.length() + 16 * variableNames.length);
+    for (int i = 0; i < variableNames.length; i++) {
+      expanded.append(literals[i]);
+      String name = variableNames[i];
+      Object value = uriVariables.get(name);
+      if (value == null && !uriVariables.containsKey(name)) {
+        throw new IllegalArgumentException("Map has no value for '" + name + "'");
+      }
+      if (value != null) {
+        expanded.append(UriUtils.encode(value.toString(), StandardCharsets.UTF_8));
+      }
+    }
+    expanded.append(literals[variableNames.length]);
+    return URI.create(expanded.toString());
+  }
+
+  /**
+   * Returns a fresh builder for this URL, cloned from a prototype that is parsed only once.
+   */
+  public UriComponentsBuilder newBuilder() {
+    UriComponentsBuilder result = prototype;
+    if (result == null) {
+      result = UriComponentsBuilder.fromUriString(url);
+      prototype = result;
+    }
+    return result.cloneBuilder();
+  }
+
+  @Override
+  public String toString() {
+    return url;
+  }
+
+  private static String encodeLiteral(String literal) {
+    StringBuilder encoded = null;
+    for (int i = 0; i < literal.length(); i++) {
+      char c = literal.charAt(i);
+      if (c < 128 && ALLOWED_LITERAL_CHARS.get(c)) {
+        if (encoded != null) {
+          encoded.append(c);
+        }
+        continue;
+      }
+      if (encoded == null) {
+        encoded = new StringBuilder(literal.length() + 16).append(literal, 0, i);
+      }
+      int charCount = Character.charCount(literal.codePointAt(i));
+      for (byte b : literal.substring(i, i + charCount).getBytes(StandardCharsets.UTF_8)) {
+        encoded.append('%').append(HEX_DIGITS[(b >> 4) & 0xF]).append(HEX_DIGITS[b & 0xF]);
+      }
+      i += charCount - 1;
+    }
+    return encoded != null ? encoded.toString() : literal;
+  }
+}
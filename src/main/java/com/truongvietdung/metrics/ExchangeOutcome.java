@@ -0,0 +1,39 @@
+package com.truongvietdung.metrics;
+
+import com.truongvietdung.exchange.ThirdPartyRejectedException;
+import org.springframework.web.client.HttpStatusCodeException;
+import org.springframework.web.client.ResourceAccessException;
+
+public final class ExchangeOutcome {
+
+  public static final String IO_ERROR = "IO_ERROR";
+  public static final String REJECTED = "REJECTED";
+  public static final String ERROR = "ERROR";
+
+  private static final String[] STATUS_CLASSES = {"1xx", "2xx", "3xx", "4xx", "5xx"};
+
+  private ExchangeOutcome() {
+  }
+
+  public static String of(int statusCode) {
+    int statusClass = statusCode / 100;
+    return statusClass >= 1 && statusClass <= 5 ? STATUS_CLASSES[statusClass - 1] : ERROR;
+  }
+
+  public static String of(Throwable e) {
+    if (e instanceof HttpStatusCodeException) {
+      return of(((HttpStatusCodeException) e).getRawStatusCode());
+    }
+    if (e instanceof ThirdPartyRejectedException) {
+      return REJECTED;
+    }
+    if (e instanceof ResourceAccessException) {
+      return IO_ERROR;
+    }
+    return ERROR;
+  }
+
+  public static boolean isError(String outcome) {
+    return !"1xx".equals(outcome) && !"2xx".equals(outcome) && !"3xx".equals(outcome);
+  }
+}
@@ -0,0 +1,54 @@
+package com.truongvietdung.metrics;
+
+import java.util.Objects;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Identifies one series of measurements: partner key, HTTP method and outcome.
+ */
+public final class ExchangeTags {
+
+  private final String key;
+  private final HttpMethod httpMethod;
+  private final String outcome;
+
+  public ExchangeTags(String key, HttpMethod httpMethod, String outcome) {
+    this.key = key;
+    this.httpMethod = httpMethod;
+    this.outcome = outcome;
+  }
+
+  public String getKey() {
+    return key;
+  }
+
+  public HttpMethod getHttpMethod() {
+    return httpMethod;
+  }
+
+  public String getOutcome() {
+    return outcome;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof ExchangeTags)) {
+      return false;
+    }
+    ExchangeTags that = (ExchangeTags) o;
+    return key.equals(that.key) && httpMethod == that.httpMethod && outcome.equals(that.outcome);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(key, httpMethod, outcome);
+  }
+
+  @Override
+  public String toString() {
+    return key + " " + httpMethod + " " + outcome;
+  }
+}
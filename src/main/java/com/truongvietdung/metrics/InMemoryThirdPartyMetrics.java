@@ -0,0 +1,74 @@
+package com.truongvietdung.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Keeps one {@link LatencyHistogram} per key, method and outcome, plus the registered pools, for
+ * inspection from the application (e.g. an actuator endpoint or a periodic log).
+ */
+public class InMemoryThirdPartyMetrics implements ThirdPartyMetrics {
+
+  private final ConcurrentMap<ExchangeTags, LatencyHistogram> histograms = new ConcurrentHashMap<>();
+  private final ConcurrentMap<String, Supplier<PoolStats>> pools = new ConcurrentHashMap<>();
+
+  @Override
+  public void recordExchange(String key, HttpMethod httpMethod, String outcome, long durationNanos) {
+    ExchangeTags tags = new ExchangeTags(key, httpMethod, outcome);
+    LatencyHistogram histogram = histograms.get(tags);
+    if (histogram == null) {
+      histogram = histograms.computeIfAbsent(tags, t -> new LatencyHistogram());
+    }
+    histogram.record(durationNanos);
+  }
+
+  @Override
+  public void registerPool(String pool, Supplier<PoolStats> stats) {
+    pools.put(pool, stats);
+  }
+
+  public Map<ExchangeTags, LatencyHistogram> getHistograms() {
+    return Collections.unmodifiableMap(histograms);
+  }
+
+  public LatencyHistogram getHistogram(String key, HttpMethod httpMethod, String outcome) {
+    return histograms.get(new ExchangeTags(key, httpMethod, outcome));
+  }
+
+  public long getRequestCount(String key) {
+    long total = 0;
+    for (Map.Entry<ExchangeTags, LatencyHistogram> entry : histograms.entrySet()) {
+      if (entry.getKey().getKey().equals(key)) {
+        total += entry.getValue().getCount();
+      }
+    }
+    return total;
+  }
+
+  public long getErrorCount(String key) {
+    long total = 0;
+    for (Map.Entry<ExchangeTags, LatencyHistogram> entry : histograms.entrySet()) {
+      if (entry.getKey().getKey().equals(key) && ExchangeOutcome.isError(entry.getKey().getOutcome())) {
+        total += entry.getValue().getCount();
+      }
+    }
+    return total;
+  }
+
+  /**
+   * Returns the current totals of the named pool, or {@code null} if no such pool was registered.
+   */
+  public PoolStats getPoolStats(String pool) {
+    Supplier<PoolStats> stats = pools.get(pool);
+    return stats != null ? stats.get() : null;
+  }
+
+  public Map<String, Supplier<PoolStats>> getPools() {
+    return Collections.unmodifiableMap(pools);
+  }
+}
@@ -0,0 +1,84 @@
+package com.truongvietdung.metrics;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Log-linear latency histogram in the style of HdrHistogram: microsecond values are kept exactly up to
+ * 32 and above that in 16 sub-buckets per power of two, so every percentile is accurate to about 6%.
+ * Recording is a single atomic increment; there is no lock and no allocation.
+ */
+public class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 4;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+  private final LongAdder count = new LongAdder();
+  private final LongAdder totalMicros = new LongAdder();
+  private final AtomicLong maxMicros = new AtomicLong();
+
+  public void record(long durationNanos) {
+    long micros = Math.max(0, TimeUnit.NANOSECONDS.toMicros(durationNanos));
+    counts.incrementAndGet(indexOf(micros));
+    count.increment();
+    totalMicros.add(micros);
+    for (long max = maxMicros.get(); micros > max && !maxMicros.compareAndSet(max, micros); max = maxMicros.get()) {
+      // retry until this value is recorded or a larger one won
+    }
+  }
+
+  public long getCount() {
+    return count.sum();
+  }
+
+  public long getMeanNanos() {
+    long current = count.sum();
+    return current == 0 ? 0 : TimeUnit.MICROSECONDS.toNanos(totalMicros.sum() / current);
+  }
+
+  public long getMaxNanos() {
+    return TimeUnit.MICROSECONDS.toNanos(maxMicros.get());
+  }
+
+  /**
+   * Returns the highest latency, in nanoseconds, below which {@code percentile} percent of the recorded
+   * values fall.
+   */
+  public long getPercentileNanos(double percentile) {
+    long total = count.sum();
+    if (total == 0) {
+      return 0;
+    }
+    long target = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+    long seen = 0;
+    for (int i = 0; i < BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= target) {
+        return TimeUnit.MICROSECONDS.toNanos(Math.min(highestValueOf(i), maxMicros.get()));
+      }
+    }
+    return getMaxNanos();
+  }
+
+  static int indexOf(long micros) {
+    if (micros < LINEAR_LIMIT) {
+      return (int) micros;
+    }
+    int shift = 63 - Long.numberOfLeadingZeros(micros) - SUB_BUCKET_BITS;
+    return (shift + 1) * SUB_BUCKETS + (int) ((micros >>> shift) - SUB_BUCKETS);
+  }
+
+  static long highestValueOf(int index) {
+    if (index < LINEAR_LIMIT) {
+      return index;
+    }
+    int shift = index / SUB_BUCKETS - 1;
+    long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << shift;
+    return lowest + (1L << shift) - 1;
+  }
+}
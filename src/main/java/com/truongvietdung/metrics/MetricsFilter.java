@@ -0,0 +1,52 @@
+package com.truongvietdung.metrics;
+
+import com.truongvietdung.exchange.Admission;
+import com.truongvietdung.exchange.AdmissionFilter;
+import com.truongvietdung.exchange.ExchangeExecution;
+import com.truongvietdung.exchange.ExchangeRequest;
+import org.springframework.http.ResponseEntity;
+
+/**
+ * Outermost filter: measures each logical call, including retries, hedges and rejections, as the caller
+ * sees it.
+ */
+public class MetricsFilter implements AdmissionFilter {
+
+  private final String key;
+  private final ThirdPartyMetrics metrics;
+
+  public MetricsFilter(String key, ThirdPartyMetrics metrics) {
+    this.key = key;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public ResponseEntity<?> filter(ExchangeRequest request, ExchangeExecution execution) {
+    long start = System.nanoTime();
+    try {
+      ResponseEntity<?> response = execution.execute(request);
+      metrics.recordExchange(key, request.getHttpMethod(), ExchangeOutcome.of(response.getStatusCodeValue()),
+          System.nanoTime() - start);
+      return response;
+    } catch (RuntimeException e) {
+      metrics.recordExchange(key, request.getHttpMethod(), ExchangeOutcome.of(e), System.nanoTime() - start);
+      throw e;
+    }
+  }
+
+  @Override
+  public Admission admit(ExchangeRequest request) {
+    long start = System.nanoTime();
+    return new Admission() {
+      @Override
+      public void onResponse(int statusCode) {
+        metrics.recordExchange(key, request.getHttpMethod(), ExchangeOutcome.of(statusCode), System.nanoTime() - start);
+      }
+
+      @Override
+      public void onError(Throwable e) {
+        metrics.recordExchange(key, request.getHttpMethod(), ExchangeOutcome.of(e), System.nanoTime() - start);
+      }
+    };
+  }
+}
@@ -0,0 +1,59 @@
+package com.truongvietdung.metrics;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Publishes partner calls as the {@code third_party.requests} timer (tags {@code key}, {@code method},
+ * {@code outcome}, with a percentile histogram) and pool totals as {@code third_party.pool.*} gauges.
+ * Requires {@code micrometer-core} on the classpath; enable it with
+ * {@code @Bean ThirdPartyMetrics thirdPartyMetrics(MeterRegistry registry)}.
+ */
+public class MicrometerThirdPartyMetrics implements ThirdPartyMetrics {
+
+  private final MeterRegistry meterRegistry;
+  private final ConcurrentMap<ExchangeTags, Timer> timers = new ConcurrentHashMap<>();
+
+  public MicrometerThirdPartyMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+  }
+
+  @Override
+  public void recordExchange(String key, HttpMethod httpMethod, String outcome, long durationNanos) {
+    ExchangeTags tags = new ExchangeTags(key, httpMethod, outcome);
+    Timer timer = timers.get(tags);
+    if (timer == null) {
+      timer = timers.computeIfAbsent(tags, t -> Timer.builder("third_party.requests")
+          .tag("key", t.getKey())
+          .tag("method", t.getHttpMethod().name())
+          .tag("outcome", t.getOutcome())
+          .publishPercentileHistogram()
+          .register(meterRegistry));
+    }
+    timer.record(durationNanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * The gauges hold {@code stats} strongly: callers pass method references bound to their connection
+   * managers, which nothing else keeps, so Micrometer's default weak reference would turn them into NaN at
+   * the next collection.
+   */
+  @Override
+  public void registerPool(String pool, Supplier<PoolStats> stats) {
+    Gauge.builder("third_party.pool.leased", stats, s -> s.get().getLeased()).tag("pool", pool)
+        .strongReference(true).register(meterRegistry);
+    Gauge.builder("third_party.pool.pending", stats, s -> s.get().getPending()).tag("pool", pool)
+        .strongReference(true).register(meterRegistry);
+    Gauge.builder("third_party.pool.available", stats, s -> s.get().getAvailable()).tag("pool", pool)
+        .strongReference(true).register(meterRegistry);
+    Gauge.builder("third_party.pool.max", stats, s -> s.get().getMax()).tag("pool", pool)
+        .strongReference(true).register(meterRegistry);
+  }
+}
@@ -0,0 +1,25 @@
+package com.truongvietdung.metrics;
+
+import java.util.function.Supplier;
+import org.apache.http.pool.PoolStats;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Receives the measurements of every partner call. The default, {@link InMemoryThirdPartyMetrics}, keeps
+ * them in process; declare a bean of this type, e.g. {@link MicrometerThirdPartyMetrics}, to publish them
+ * elsewhere.
+ */
+public interface ThirdPartyMetrics {
+
+  /**
+   * @param key the {@link com.truongvietdung.config.ApiInfo} key
+   * @param outcome status class such as {@code 2xx}, or {@link ExchangeOutcome#IO_ERROR},
+   *     {@link ExchangeOutcome#REJECTED}, {@link ExchangeOutcome#ERROR}
+   */
+  void recordExchange(String key, HttpMethod httpMethod, String outcome, long durationNanos);
+
+  /**
+   * Called once for every connection pool; {@code stats} returns the current totals of the pool.
+   */
+  void registerPool(String pool, Supplier<PoolStats> stats);
+}
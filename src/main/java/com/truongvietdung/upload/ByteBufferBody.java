@@ -0,0 +1,46 @@
+package com.truongvietdung.upload;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import org.springframework.http.MediaType;
+
+/**
+ * Heap, direct or memory-mapped buffer; heap buffers are written from their backing array, the others
+ * through a channel without materializing the whole buffer as a {@code byte[]}.
+ */
+class ByteBufferBody implements UploadBody {
+
+  private final ByteBuffer buffer;
+  private final MediaType contentType;
+
+  ByteBufferBody(ByteBuffer buffer, MediaType contentType) {
+    this.buffer = buffer;
+    this.contentType = contentType;
+  }
+
+  @Override
+  public long getContentLength() {
+    return buffer.remaining();
+  }
+
+  @Override
+  public MediaType getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    if (buffer.hasArray()) {
+      out.write(buffer.array(), buffer.arrayOffset() + buffer.position(), buffer.remaining());
+      return;
+    }
+    ByteBuffer source = buffer.duplicate();
+    WritableByteChannel target = Channels.newChannel(out);
+    while (source.hasRemaining()) {
+      target.write(source);
+    }
+  }
+}
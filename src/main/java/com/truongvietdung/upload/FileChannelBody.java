@@ -0,0 +1,64 @@
+package com.truongvietdung.upload;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.springframework.http.MediaType;
+
+/**
+ * Region of a file handed to the connection with {@link FileChannel#transferTo}, chunk by chunk, so the
+ * file is never loaded onto the heap.
+ */
+class FileChannelBody implements UploadBody {
+
+  private final Path path;
+  private final FileChannel channel;
+  private final long position;
+  private final long count;
+  private final MediaType contentType;
+
+  FileChannelBody(Path path, FileChannel channel, long position, long count, MediaType contentType) {
+    this.path = path;
+    this.channel = channel;
+    this.position = position;
+    this.count = count;
+    this.contentType = contentType;
+  }
+
+  @Override
+  public long getContentLength() {
+    return count;
+  }
+
+  @Override
+  public MediaType getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    if (channel != null) {
+      transfer(channel, out);
+      return;
+    }
+    try (FileChannel fileChannel = FileChannel.open(path, StandardOpenOption.READ)) {
+      transfer(fileChannel, out);
+    }
+  }
+
+  private void transfer(FileChannel fileChannel, OutputStream out) throws IOException {
+    WritableByteChannel target = Channels.newChannel(out);
+    long transferred = 0;
+    while (transferred < count) {
+      long sent = fileChannel.transferTo(position + transferred, count - transferred, target);
+      if (sent <= 0) {
+        throw new IOException("File ended after " + transferred + " of " + count + " bytes");
+      }
+      transferred += sent;
+    }
+  }
+}
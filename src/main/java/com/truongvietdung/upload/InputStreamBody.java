@@ -0,0 +1,37 @@
+package com.truongvietdung.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import org.springframework.http.MediaType;
+import org.springframework.util.StreamUtils;
+
+class InputStreamBody implements UploadBody {
+
+  private final InputStream inputStream;
+  private final long contentLength;
+  private final MediaType contentType;
+
+  InputStreamBody(InputStream inputStream, long contentLength, MediaType contentType) {
+    this.inputStream = inputStream;
+    this.contentLength = contentLength;
+    this.contentType = contentType;
+  }
+
+  @Override
+  public long getContentLength() {
+    return contentLength;
+  }
+
+  @Override
+  public MediaType getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    try (InputStream in = inputStream) {
+      StreamUtils.copy(in, out);
+    }
+  }
+}
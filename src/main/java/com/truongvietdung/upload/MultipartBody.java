@@ -0,0 +1,124 @@
+package com.truongvietdung.upload;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.util.MimeTypeUtils;
+
+/**
+ * {@code multipart/form-data} body whose parts are written one after the other as the request is sent,
+ * so file parts never sit on the heap. The length is known, and the body sent with
+ * {@code Content-Length}, when every part has a known length.
+ */
+public final class MultipartBody implements UploadBody {
+
+  private static final byte[] CRLF = {'\r', '\n'};
+  private static final byte[] DASHES = {'-', '-'};
+
+  private final byte[] boundary;
+  private final List<Part> parts;
+  private final MediaType contentType;
+  private final long contentLength;
+
+  private MultipartBody(Builder builder) {
+    this.boundary = MimeTypeUtils.generateMultipartBoundary();
+    this.parts = Collections.unmodifiableList(new ArrayList<>(builder.parts));
+    this.contentType = new MediaType(MediaType.MULTIPART_FORM_DATA,
+        Collections.singletonMap("boundary", new String(boundary, StandardCharsets.US_ASCII)));
+    this.contentLength = computeContentLength();
+  }
+
+  public static Builder builder() {
+    return new Builder();
+  }
+
+  @Override
+  public long getContentLength() {
+    return contentLength;
+  }
+
+  @Override
+  public MediaType getContentType() {
+    return contentType;
+  }
+
+  @Override
+  public void writeTo(OutputStream out) throws IOException {
+    for (Part part : parts) {
+      out.write(DASHES);
+      out.write(boundary);
+      out.write(CRLF);
+      out.write(part.headers);
+      part.body.writeTo(out);
+      out.write(CRLF);
+    }
+    out.write(DASHES);
+    out.write(boundary);
+    out.write(DASHES);
+    out.write(CRLF);
+    out.flush();
+  }
+
+  private long computeContentLength() {
+    long length = DASHES.length + boundary.length + DASHES.length + CRLF.length;
+    for (Part part : parts) {
+      long partLength = part.body.getContentLength();
+      if (partLength < 0) {
+        return -1;
+      }
+      length += DASHES.length + boundary.length + CRLF.length + part.headers.length + partLength + CRLF.length;
+    }
+    return length;
+  }
+
+  private static final class Part {
+
+    private final byte[] headers;
+    private final UploadBody body;
+
+    Part(String name, String filename, UploadBody body) {
+      ContentDisposition.Builder disposition = ContentDisposition.builder("form-data").name(name);
+      if (filename != null) {
+        disposition.filename(filename);
+      }
+      String headerBlock = HttpHeaders.CONTENT_DISPOSITION + ": " + disposition.build() + "\r\n"
+          + HttpHeaders.CONTENT_TYPE + ": " + body.getContentType() + "\r\n"
+          + "\r\n";
+      this.headers = headerBlock.getBytes(StandardCharsets.UTF_8);
+      this.body = body;
+    }
+  }
+
+  public static final class Builder {
+
+    private final List<Part> parts = new ArrayList<>();
+
+    private Builder() {
+    }
+
+    public Builder field(String name, String value) {
+      return part(name, null, UploadBody.of(ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8)),
+          new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8)));
+    }
+
+    public Builder part(String name, UploadBody body) {
+      return part(name, null, body);
+    }
+
+    public Builder part(String name, String filename, UploadBody body) {
+      parts.add(new Part(name, filename, body));
+      return this;
+    }
+
+    public MultipartBody build() {
+      return new MultipartBody(this);
+    }
+  }
+}
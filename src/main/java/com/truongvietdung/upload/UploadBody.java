@@ -0,0 +1,70 @@
+package com.truongvietdung.upload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import org.springframework.http.MediaType;
+
+/**
+ * Request body that is written straight to the connection instead of being serialized into memory
+ * first. Bodies of known length are sent with {@code Content-Length}, the others chunked.
+ */
+public interface UploadBody {
+
+  /**
+   * Returns the body size in bytes, or {@code -1} when unknown.
+   */
+  long getContentLength();
+
+  MediaType getContentType();
+
+  void writeTo(OutputStream out) throws IOException;
+
+  static UploadBody of(Path path) throws IOException {
+    return of(path, MediaType.APPLICATION_OCTET_STREAM);
+  }
+
+  /**
+   * Streams the file from a channel opened for each write, so the body can be sent again on retry.
+   */
+  static UploadBody of(Path path, MediaType contentType) throws IOException {
+    return new FileChannelBody(path, null, 0, Files.size(path), contentType);
+  }
+
+  /**
+   * Streams {@code count} bytes of an open channel starting at {@code position}; the channel is neither
+   * moved nor closed.
+   */
+  static UploadBody of(FileChannel channel, long position, long count, MediaType contentType) {
+    return new FileChannelBody(null, channel, position, count, contentType);
+  }
+
+  /**
+   * Sends the remaining bytes of the buffer without changing its position.
+   */
+  static UploadBody of(ByteBuffer buffer, MediaType contentType) {
+    return new ByteBufferBody(buffer, contentType);
+  }
+
+  /**
+   * Maps the file read-only into memory and sends the mapping; the file must be smaller than 2 GiB.
+   */
+  static UploadBody map(Path path, MediaType contentType) throws IOException {
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      return new ByteBufferBody(channel.map(MapMode.READ_ONLY, 0, channel.size()), contentType);
+    }
+  }
+
+  /**
+   * Sends the stream once; {@code contentLength} may be {@code -1} to send it chunked.
+   */
+  static UploadBody of(InputStream inputStream, long contentLength, MediaType contentType) {
+    return new InputStreamBody(inputStream, contentLength, contentType);
+  }
+}
@@ -0,0 +1,26 @@
+package com.truongvietdung.concurrent;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors for blocking partner calls. This is the Java 21 variant: every call gets its own virtual
+ * thread, so {@code maxThreads} is ignored; callers that need a bound use the partner's concurrency
+ * limit instead.
+ */
+public final class CallExecutors {
+
+  private CallExecutors() {
+  }
+
+  public static ExecutorService newCallExecutor(String name, int maxThreads) {
+    return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 1).factory());
+  }
+
+  /**
+   * Returns whether {@link #newCallExecutor(String, int)} runs calls on virtual threads.
+   */
+  public static boolean isVirtual() {
+    return true;
+  }
+}
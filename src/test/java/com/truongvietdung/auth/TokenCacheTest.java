@@ -0,0 +1,158 @@
+package com.truongvietdung.auth;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.config.AuthInfo;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class TokenCacheTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void concurrentCallersShareOneFetch() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    AtomicInteger calls = new AtomicInteger();
+    TokenCache tokenCache = tokenCache(new AuthInfo(), () -> {
+      calls.incrementAndGet();
+      await(release);
+      return AccessToken.nonExpiring("t1");
+    });
+
+    List<Future<String>> callers = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      callers.add(executor.submit(tokenCache::getAuthorization));
+    }
+    Future<String> async = executor.submit(() -> tokenCache.getAuthorizationAsync().get());
+    Thread.sleep(100);
+    release.countDown();
+
+    for (Future<String> caller : callers) {
+      assertThat(caller.get(5, TimeUnit.SECONDS)).isEqualTo("Bearer t1");
+    }
+    assertThat(async.get(5, TimeUnit.SECONDS)).isEqualTo("Bearer t1");
+    assertThat(calls.get()).isEqualTo(1);
+    assertThat(tokenCache.getFetchCount()).isEqualTo(1);
+  }
+
+  @Test
+  void errorFromTheProviderReleasesWaitersAndAllowsTheNextFetch() {
+    AtomicInteger calls = new AtomicInteger();
+    TokenCache tokenCache = tokenCache(new AuthInfo(), () -> {
+      if (calls.incrementAndGet() == 1) {
+        throw new AssertionError("provider bug");
+      }
+      return AccessToken.nonExpiring("t2");
+    });
+
+    assertThatThrownBy(tokenCache::getAuthorization).isInstanceOf(AssertionError.class);
+    assertThat(tokenCache.getAuthorization()).isEqualTo("Bearer t2");
+  }
+
+  @Test
+  void waitingForAHangingProviderTimesOut() {
+    CountDownLatch release = new CountDownLatch(1);
+    TokenCache tokenCache = tokenCache(new AuthInfo().setFetchTimeout(100), () -> {
+      await(release);
+      return AccessToken.nonExpiring("t3");
+    });
+    executor.execute(tokenCache::getToken);
+
+    try {
+      long start = System.nanoTime();
+      assertThatThrownBy(() -> {
+        Thread.sleep(50);
+        tokenCache.getToken();
+      }).isInstanceOf(IllegalStateException.class).hasMessageContaining("Timed out");
+      assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+    } finally {
+      release.countDown();
+    }
+  }
+
+  @Test
+  void invalidateOnlyDropsTheRejectedToken() {
+    AtomicInteger calls = new AtomicInteger();
+    TokenCache tokenCache = tokenCache(new AuthInfo(), () -> AccessToken.nonExpiring("t" + calls.incrementAndGet()));
+
+    String first = tokenCache.getAuthorization();
+    tokenCache.invalidate(first);
+    String second = tokenCache.getAuthorization();
+    tokenCache.invalidate(first);
+
+    assertThat(second).isEqualTo("Bearer t2");
+    assertThat(tokenCache.getAuthorization()).isEqualTo(second);
+    assertThat(tokenCache.getFetchCount()).isEqualTo(2);
+  }
+
+  @Test
+  void refreshAheadRejectedBySaturatedExecutorIsRetried() throws InterruptedException {
+    AtomicInteger rejections = new AtomicInteger();
+    Executor saturated = task -> {
+      if (rejections.incrementAndGet() <= 2) {
+        throw new RejectedExecutionException("saturated");
+      }
+      executor.execute(task);
+    };
+    AtomicInteger calls = new AtomicInteger();
+    TokenCache tokenCache = tokenCache(new AuthInfo().setRefreshAhead(4_950).setMinRefreshInterval(20), () ->
+        AccessToken.expiringIn("t" + calls.incrementAndGet(), 5_000), saturated);
+
+    assertThat(tokenCache.getAuthorization()).isEqualTo("Bearer t1");
+    for (int i = 0; i < 100 && tokenCache.getAuthorization().equals("Bearer t1"); i++) {
+      Thread.sleep(20);
+    }
+
+    assertThat(rejections.get()).isGreaterThan(2);
+    assertThat(tokenCache.getFetchCount()).as("refreshed in the background, not on expiry").isEqualTo(2);
+    assertThat(tokenCache.getAuthorization()).isEqualTo("Bearer t2");
+  }
+
+  private TokenCache tokenCache(AuthInfo authInfo, Supplier<AccessToken> fetch) {
+    return tokenCache(authInfo, fetch, executor);
+  }
+
+  private TokenCache tokenCache(AuthInfo authInfo, Supplier<AccessToken> fetch, Executor executor) {
+    CredentialProvider provider = new CredentialProvider() {
+      @Override
+      public String getName() {
+        return "test";
+      }
+
+      @Override
+      public AccessToken fetchToken() {
+        return fetch.get();
+      }
+    };
+    return new TokenCache("partner", provider, authInfo, scheduler, executor);
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,61 @@
+package com.truongvietdung.batch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.config.BatchInfo;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class MicroBatcherTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+  }
+
+  @Test
+  void fullBatchIsSentAtOnce() throws Exception {
+    List<List<Integer>> sent = new ArrayList<>();
+    MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", values -> {
+      sent.add(values);
+      return values.stream().map(String::valueOf).collect(Collectors.toList());
+    }, new BatchInfo().setMaxBatchSize(3).setLinger(60_000), scheduler, Runnable::run);
+
+    List<CompletableFuture<String>> results = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      results.add(batcher.submit(i));
+    }
+
+    assertThat(sent).containsExactly(Arrays.asList(0, 1, 2));
+    assertThat(results.get(2).get(1, TimeUnit.SECONDS)).isEqualTo("2");
+    assertThat(batcher.getPendingCount()).isZero();
+  }
+
+  @Test
+  void errorInTheBatchFunctionFailsEveryItem() {
+    MicroBatcher<Integer, String> batcher = new MicroBatcher<>("test", values -> {
+      throw new StackOverflowError();
+    }, new BatchInfo().setMaxBatchSize(10).setLinger(60_000), scheduler, Runnable::run);
+
+    CompletableFuture<String> first = batcher.submit(1);
+    CompletableFuture<String> second = batcher.submit(2);
+    batcher.flush();
+
+    assertThatThrownBy(() -> first.get(1, TimeUnit.SECONDS)).isInstanceOf(ExecutionException.class)
+        .hasCauseInstanceOf(StackOverflowError.class);
+    assertThat(second).isCompletedExceptionally();
+    assertThat(batcher.getPendingCount()).isZero();
+  }
+}
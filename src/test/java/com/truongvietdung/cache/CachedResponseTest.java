@@ -0,0 +1,88 @@
+package com.truongvietdung.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+class CachedResponseTest {
+
+  private static final long NOW = 1_700_000_000_000L;
+
+  @Test
+  void maxAgeWinsOverExpiresAndDefaultTtl() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setCacheControl("public, max-age=60");
+    headers.setDate(NOW);
+    headers.setExpires(NOW + 3_600_000);
+
+    CachedResponse cached = of(headers, 10_000);
+
+    assertThat(cached.isFresh(NOW + 59_000)).isTrue();
+    assertThat(cached.isFresh(NOW + 60_000)).isFalse();
+  }
+
+  @Test
+  void expiresIsRelativeToTheDateHeader() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setDate(NOW - 20_000);
+    headers.setExpires(NOW + 10_000);
+
+    CachedResponse cached = of(headers, 0);
+
+    // 30s lifetime counted from the local clock, not from the partner's
+    assertThat(cached.isFresh(NOW + 29_000)).isTrue();
+    assertThat(cached.isFresh(NOW + 30_000)).isFalse();
+  }
+
+  @Test
+  void noCacheIsStaleAtOnceAndDefaultTtlAppliesOtherwise() {
+    HttpHeaders noCache = new HttpHeaders();
+    noCache.setCacheControl("no-cache");
+    noCache.setETag("\"v1\"");
+
+    assertThat(of(noCache, 10_000).isFresh(NOW)).isFalse();
+    assertThat(of(noCache, 10_000).hasValidators()).isTrue();
+    assertThat(of(new HttpHeaders(), 10_000).isFresh(NOW + 9_999)).isTrue();
+    assertThat(of(new HttpHeaders(), 0).isFresh(NOW)).isFalse();
+  }
+
+  @Test
+  void revalidationRefreshesFreshnessAndKeepsTheBody() {
+    HttpHeaders headers = new HttpHeaders();
+    headers.setCacheControl("max-age=1");
+    headers.setETag("\"v1\"");
+    CachedResponse cached = of(headers, 0);
+    HttpHeaders notModified = new HttpHeaders();
+    notModified.setCacheControl("max-age=120");
+    notModified.setContentLength(0);
+
+    CachedResponse revalidated = cached.revalidated(notModified, 0, NOW + 5_000);
+
+    assertThat(revalidated.isFresh(NOW + 124_000)).isTrue();
+    assertThat(revalidated.getBody()).isEqualTo(cached.getBody());
+    assertThat(revalidated.getHeaders().getETag()).isEqualTo("\"v1\"");
+    assertThat(revalidated.getHeaders().getContentLength()).isEqualTo(-1);
+  }
+
+  @Test
+  void varyMatchesOnlyTheSameRequestHeaderValues() {
+    HttpHeaders requestHeaders = new HttpHeaders();
+    requestHeaders.set(HttpHeaders.ACCEPT_LANGUAGE, "vi");
+    HttpHeaders responseHeaders = new HttpHeaders();
+    responseHeaders.setVary(Collections.singletonList(HttpHeaders.ACCEPT_LANGUAGE));
+    CachedResponse cached = CachedResponse.of(200, "OK", requestHeaders, responseHeaders, new byte[0], 0, NOW);
+
+    HttpHeaders other = new HttpHeaders();
+    other.set(HttpHeaders.ACCEPT_LANGUAGE, "en");
+
+    assertThat(cached.matchesVary(requestHeaders)).isTrue();
+    assertThat(cached.matchesVary(other)).isFalse();
+    assertThat(cached.matchesVary(new HttpHeaders())).isFalse();
+  }
+
+  private static CachedResponse of(HttpHeaders responseHeaders, long defaultTtl) {
+    return CachedResponse.of(200, "OK", new HttpHeaders(), responseHeaders, new byte[] {1, 2, 3}, defaultTtl, NOW);
+  }
+}
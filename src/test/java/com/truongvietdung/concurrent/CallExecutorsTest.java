@@ -0,0 +1,39 @@
+package com.truongvietdung.concurrent;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.junit.jupiter.api.Assumptions.assumeFalse;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class CallExecutorsTest {
+
+  @Test
+  void platformExecutorRejectsCallsBeyondItsQueue() throws InterruptedException {
+    assumeFalse(CallExecutors.isVirtual());
+    ExecutorService executor = CallExecutors.newCallExecutor("test", 2);
+    CountDownLatch release = new CountDownLatch(1);
+    try {
+      // 2 running and 2 * 16 queued
+      for (int i = 0; i < 2 + 32; i++) {
+        executor.execute(() -> {
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        });
+      }
+
+      assertThatThrownBy(() -> executor.execute(() -> {
+      })).isInstanceOf(RejectedExecutionException.class);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+      executor.awaitTermination(5, TimeUnit.SECONDS);
+    }
+  }
+}
@@ -0,0 +1,27 @@
+package com.truongvietdung.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class EndpointResolverTest {
+
+  @Test
+  void repeatedSlashesInThePathAreCollapsed() {
+    assertThat(EndpointResolver.normalize("http://h//a///b/")).isEqualTo("http://h/a/b/");
+    assertThat(EndpointResolver.normalize("//a//b")).isEqualTo("/a/b");
+  }
+
+  @Test
+  void queryAndFragmentAreLeftUntouched() {
+    assertThat(EndpointResolver.normalize("http://h//a?next=//b#//c")).isEqualTo("http://h/a?next=//b#//c");
+  }
+
+  @Test
+  void baseUrlPrefixAndUriAreJoinedWithSingleSlashes() {
+    EndpointResolver resolver = new EndpointResolver(new ApiInfo().setBaseUrl("http://h/").setGatewayPrefix("/gw/"));
+
+    assertThat(resolver.getBaseUrl()).isEqualTo("http://h/gw/");
+    assertThat(resolver.resolve("/users/{id}").getUrl()).isEqualTo("http://h/gw/users/{id}");
+  }
+}
@@ -0,0 +1,145 @@
+package com.truongvietdung.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.exchange.AbortHandle;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.net.ssl.SSLContext;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+class Http2ClientTest {
+
+  private final MockWebServer server = new MockWebServer();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private Http2Client client;
+
+  @BeforeEach
+  void start() throws IOException {
+    server.setProtocols(Collections.singletonList(Protocol.H2_PRIOR_KNOWLEDGE));
+    server.start();
+  }
+
+  @AfterEach
+  void stop() throws IOException {
+    executor.shutdownNow();
+    if (client != null) {
+      client.close();
+    }
+    server.shutdown();
+  }
+
+  @Test
+  void concurrentCallsShareOneConnection() throws Exception {
+    int calls = 4;
+    CountDownLatch arrived = new CountDownLatch(calls);
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+        // answers only once every call is in flight, which needs them all open at the same time
+        arrived.countDown();
+        arrived.await(5, TimeUnit.SECONDS);
+        return new MockResponse().setBody("ok");
+      }
+    });
+    client = client(calls, 5_000);
+
+    List<Future<String>> bodies = new ArrayList<>();
+    for (int i = 0; i < calls; i++) {
+      bodies.add(executor.submit(() -> get("/")));
+    }
+
+    for (Future<String> body : bodies) {
+      assertThat(body.get(5, TimeUnit.SECONDS)).isEqualTo("ok");
+    }
+    assertThat(arrived.getCount()).isZero();
+    PoolStats stats = client.getPoolStats();
+    assertThat(stats.getLeased() + stats.getAvailable()).isEqualTo(1);
+  }
+
+  @Test
+  void streamIsHeldUntilTheBodyIsClosed() throws Exception {
+    server.enqueue(new MockResponse().setBody("first"));
+    server.enqueue(new MockResponse().setBody("second"));
+    client = client(1, 300);
+
+    ClientHttpResponse open = client.getRequestFactory().createRequest(server.url("/").uri(), HttpMethod.GET)
+        .execute();
+    assertThatThrownBy(() -> get("/"))
+        .isInstanceOf(InterruptedIOException.class)
+        .hasMessageContaining("No HTTP/2 stream");
+
+    open.close();
+
+    assertThat(get("/")).isEqualTo("second");
+  }
+
+  @Test
+  void abortCancelsTheStream() throws Exception {
+    CountDownLatch received = new CountDownLatch(1);
+    server.setDispatcher(new Dispatcher() {
+      @Override
+      public MockResponse dispatch(RecordedRequest request) {
+        if (request.getPath().equals("/slow")) {
+          received.countDown();
+          return new MockResponse().setBody("slow").setBodyDelay(30, TimeUnit.SECONDS);
+        }
+        return new MockResponse().setBody("next");
+      }
+    });
+    client = client(1, 60_000);
+    AbortHandle abortHandle = AbortHandle.bind();
+    long started = System.nanoTime();
+    try {
+      executor.submit(() -> {
+        received.await();
+        abortHandle.abort();
+        return null;
+      });
+
+      assertThatThrownBy(() -> get("/slow")).isInstanceOf(IOException.class);
+    } finally {
+      AbortHandle.unbind();
+    }
+
+    assertThat(TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - started)).isLessThan(10);
+    assertThat(abortHandle.isAborted()).isTrue();
+    // the cancelled stream was given back
+    assertThat(get("/next")).isEqualTo("next");
+  }
+
+  private Http2Client client(int maxConcurrentStreams, int readTimeout) throws Exception {
+    Http2Info http2 = new Http2Info().setEnabled(true).setPriorKnowledge(true)
+        .setMaxConcurrentStreams(maxConcurrentStreams);
+    return Http2RequestFactories.create(http2, readTimeout, 1_000, 30_000, SSLContext.getDefault());
+  }
+
+  private String get(String path) throws IOException {
+    URI uri = server.url(path).uri();
+    try (ClientHttpResponse response = client.getRequestFactory().createRequest(uri, HttpMethod.GET).execute()) {
+      return StreamUtils.copyToString(response.getBody(), StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package com.truongvietdung.config.interceptor;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.truongvietdung.cache.CachedClientHttpResponse;
+import com.truongvietdung.config.CacheInfo;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.util.StreamUtils;
+
+class CachingRequestInterceptorTest {
+
+  private final List<String> executed = new ArrayList<>();
+
+  @Test
+  void variantsOfOneResourceAreCachedSeparately() throws IOException {
+    CachingRequestInterceptor interceptor = new CachingRequestInterceptor("partner",
+        new CacheInfo().setEnabled(true).setDefaultTtl(60_000));
+    ClientHttpRequestExecution execution = (request, body) -> {
+      String language = request.getHeaders().getFirst(HttpHeaders.ACCEPT_LANGUAGE);
+      executed.add(language);
+      MockClientHttpResponse response = new MockClientHttpResponse(language.getBytes(), HttpStatus.OK);
+      response.getHeaders().setVary(Collections.singletonList(HttpHeaders.ACCEPT_LANGUAGE));
+      return response;
+    };
+
+    assertThat(body(interceptor.intercept(get("vi"), new byte[0], execution))).isEqualTo("vi");
+    assertThat(body(interceptor.intercept(get("en"), new byte[0], execution))).isEqualTo("en");
+    ClientHttpResponse vi = interceptor.intercept(get("vi"), new byte[0], execution);
+    ClientHttpResponse en = interceptor.intercept(get("en"), new byte[0], execution);
+
+    assertThat(executed).containsExactly("vi", "en");
+    assertThat(vi).isInstanceOf(CachedClientHttpResponse.class);
+    assertThat(body(vi)).isEqualTo("vi");
+    assertThat(body(en)).isEqualTo("en");
+  }
+
+  @Test
+  void bodyOverTheCapWithoutContentLengthIsPassedThroughUncached() throws IOException {
+    CachingRequestInterceptor interceptor = new CachingRequestInterceptor("partner",
+        new CacheInfo().setEnabled(true).setDefaultTtl(60_000).setMaxBodySize(10));
+    byte[] large = new byte[10_000];
+    for (int i = 0; i < large.length; i++) {
+      large[i] = (byte) i;
+    }
+    ClientHttpRequestExecution execution = (request, body) -> {
+      executed.add("large");
+      return new MockClientHttpResponse(new ByteArrayInputStream(large), HttpStatus.OK);
+    };
+
+    ClientHttpResponse first = interceptor.intercept(get("vi"), new byte[0], execution);
+    ClientHttpResponse second = interceptor.intercept(get("vi"), new byte[0], execution);
+
+    assertThat(StreamUtils.copyToByteArray(first.getBody())).isEqualTo(large);
+    assertThat(second).isNotInstanceOf(CachedClientHttpResponse.class);
+    assertThat(executed).hasSize(2);
+    assertThat(interceptor.getResponseCache().size()).isZero();
+  }
+
+  private static MockClientHttpRequest get(String language) {
+    MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("http://partner/items"));
+    request.getHeaders().set(HttpHeaders.ACCEPT_LANGUAGE, language);
+    return request;
+  }
+
+  private static String body(ClientHttpResponse response) throws IOException {
+    return new String(StreamUtils.copyToByteArray(response.getBody()));
+  }
+}
@@ -0,0 +1,58 @@
+package com.truongvietdung.download;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class DownloadStateTest {
+
+  private static final String ETAG = "\"v1\"";
+  private static final long LENGTH = 20_000;
+  private static final long SEGMENT_SIZE = 4_096;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void completedSegmentsSurviveAReload() throws IOException {
+    Path file = directory.resolve("data.bin.download");
+    DownloadState state = DownloadState.create(file, ETAG, LENGTH, SEGMENT_SIZE);
+    state.complete(0);
+    state.complete(3);
+
+    DownloadState resumed = DownloadState.load(file, ETAG, LENGTH, SEGMENT_SIZE);
+
+    assertThat(resumed).isNotNull();
+    assertThat(resumed.getCompletedCount()).isEqualTo(2);
+    assertThat(resumed.isCompleted(0)).isTrue();
+    assertThat(resumed.isCompleted(1)).isFalse();
+    assertThat(resumed.isCompleted(3)).isTrue();
+    assertThat(Files.exists(directory.resolve("data.bin.download.tmp"))).isFalse();
+  }
+
+  @Test
+  void stateOfAnotherRepresentationOrSegmentationIsIgnored() throws IOException {
+    Path file = directory.resolve("data.bin.download");
+    DownloadState.create(file, ETAG, LENGTH, SEGMENT_SIZE).complete(1);
+
+    assertThat(DownloadState.load(file, "\"v2\"", LENGTH, SEGMENT_SIZE)).isNull();
+    assertThat(DownloadState.load(file, ETAG, LENGTH + 1, SEGMENT_SIZE)).isNull();
+    assertThat(DownloadState.load(file, ETAG, LENGTH, SEGMENT_SIZE * 2)).isNull();
+    assertThat(DownloadState.load(file, null, LENGTH, SEGMENT_SIZE)).isNull();
+  }
+
+  @Test
+  void missingOrUnvalidatedStateIsNotResumed() throws IOException {
+    Path file = directory.resolve("data.bin.download");
+
+    assertThat(DownloadState.load(file, ETAG, LENGTH, SEGMENT_SIZE)).isNull();
+
+    // without a validator nothing identifies the representation, so progress is not written at all
+    DownloadState.create(file, null, LENGTH, SEGMENT_SIZE).complete(0);
+    assertThat(Files.exists(file)).isFalse();
+  }
+}
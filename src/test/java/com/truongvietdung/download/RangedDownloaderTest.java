@@ -0,0 +1,209 @@
+package com.truongvietdung.download;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.exchange.ExchangePipeline;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okio.Buffer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+class RangedDownloaderTest {
+
+  private static final int LENGTH = 100_000;
+  private static final int SEGMENT_SIZE = 10_000;
+
+  private final MockWebServer server = new MockWebServer();
+  private final RangeDispatcher dispatcher = new RangeDispatcher(data());
+  private final ExecutorService executor = Executors.newFixedThreadPool(3);
+
+  @TempDir
+  Path directory;
+
+  @BeforeEach
+  void start() throws IOException {
+    server.setDispatcher(dispatcher);
+    server.start();
+  }
+
+  @AfterEach
+  void stop() throws IOException {
+    executor.shutdownNow();
+    server.shutdown();
+  }
+
+  @Test
+  void remainingSegmentsAreFetchedAsParallelRanges() throws IOException {
+    Path target = directory.resolve("data.bin");
+
+    DownloadResult result = downloader(new DownloadOptions().setSegmentSize(SEGMENT_SIZE)).download(target);
+
+    assertThat(result.getSize()).isEqualTo(LENGTH);
+    assertThat(result.getSegments()).isEqualTo(10);
+    assertThat(result.getResumedSegments()).isZero();
+    assertThat(Files.readAllBytes(target)).isEqualTo(dispatcher.data);
+    assertThat(dispatcher.ranges).hasSize(10).doesNotHaveDuplicates()
+        .contains("bytes=0-9999", "bytes=90000-99999");
+    assertThat(dispatcher.maxInFlight.get()).isGreaterThan(1);
+    // every segment after the probe is conditional on the representation the probe saw
+    assertThat(dispatcher.validators).containsOnly(dispatcher.eTag).hasSize(9);
+    assertThat(directory.resolve("data.bin.part")).doesNotExist();
+    assertThat(directory.resolve("data.bin.download")).doesNotExist();
+  }
+
+  @Test
+  void failedDownloadResumesFromTheSegmentsAlreadyWritten() throws IOException {
+    Path target = directory.resolve("data.bin");
+    DownloadOptions options = new DownloadOptions().setSegmentSize(SEGMENT_SIZE).setParallelism(1)
+        .setMaxAttempts(2);
+    dispatcher.failing.add("bytes=50000-59999");
+
+    assertThatThrownBy(() -> downloader(options).download(target)).isInstanceOf(HttpServerErrorException.class);
+    assertThat(target).doesNotExist();
+    assertThat(directory.resolve("data.bin.part")).exists();
+    assertThat(directory.resolve("data.bin.download")).exists();
+
+    dispatcher.failing.clear();
+    dispatcher.ranges.clear();
+    DownloadResult result = downloader(options).download(target);
+
+    assertThat(result.getResumedSegments()).isEqualTo(4);
+    assertThat(Files.readAllBytes(target)).isEqualTo(dispatcher.data);
+    // the probe is always repeated, segments 1-4 are not
+    assertThat(dispatcher.ranges).containsExactly("bytes=0-9999", "bytes=50000-59999", "bytes=60000-69999",
+        "bytes=70000-79999", "bytes=80000-89999", "bytes=90000-99999");
+    assertThat(directory.resolve("data.bin.download")).doesNotExist();
+  }
+
+  @Test
+  void representationChangedMidTransferFailsTheDownload() {
+    Path target = directory.resolve("data.bin");
+    dispatcher.changeAfter = 3;
+
+    assertThatThrownBy(() -> downloader(new DownloadOptions().setSegmentSize(SEGMENT_SIZE).setParallelism(1))
+        .download(target))
+        .isInstanceOf(RestClientException.class)
+        .hasMessageContaining("changed during download");
+    assertThat(target).doesNotExist();
+  }
+
+  @Test
+  void contentRangeOtherThanRequestedFailsTheDownload() {
+    Path target = directory.resolve("data.bin");
+    dispatcher.shift = 1;
+
+    assertThatThrownBy(() -> downloader(new DownloadOptions().setSegmentSize(SEGMENT_SIZE)).download(target))
+        .isInstanceOf(RestClientException.class)
+        .hasMessageContaining("does not match bytes 0-9999");
+    assertThat(target).doesNotExist();
+  }
+
+  @Test
+  void serverWithoutRangeSupportIsDownloadedInOnePiece() throws IOException {
+    Path target = directory.resolve("data.bin");
+    dispatcher.ranged = false;
+
+    DownloadResult result = downloader(new DownloadOptions().setSegmentSize(SEGMENT_SIZE)).download(target);
+
+    assertThat(result.getSize()).isEqualTo(LENGTH);
+    assertThat(result.getSegments()).isEqualTo(1);
+    assertThat(Files.readAllBytes(target)).isEqualTo(dispatcher.data);
+    assertThat(server.getRequestCount()).isEqualTo(1);
+    assertThat(directory.resolve("data.bin.download")).doesNotExist();
+  }
+
+  private RangedDownloader downloader(DownloadOptions options) {
+    return new RangedDownloader(new RestTemplate(), ExchangePipeline.EMPTY, server.url("/data.bin").uri(),
+        new HttpHeaders(), options, executor);
+  }
+
+  private static byte[] data() {
+    byte[] data = new byte[LENGTH];
+    new Random(1).nextBytes(data);
+    return data;
+  }
+
+  /**
+   * Serves {@code data} honouring {@code Range} and {@code If-Range}, with knobs to fail ranges, change the
+   * representation, misreport the returned range or ignore ranges altogether.
+   */
+  private static final class RangeDispatcher extends Dispatcher {
+
+    private final byte[] data;
+    private final Queue<String> ranges = new ConcurrentLinkedQueue<>();
+    private final Queue<String> validators = new ConcurrentLinkedQueue<>();
+    private final Set<String> failing = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+    private volatile String eTag = "\"v1\"";
+    private volatile boolean ranged = true;
+    private volatile int changeAfter = Integer.MAX_VALUE;
+    private volatile int shift;
+
+    private RangeDispatcher(byte[] data) {
+      this.data = data;
+    }
+
+    @Override
+    public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+      maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+      try {
+        // long enough for the helpers to overlap
+        TimeUnit.MILLISECONDS.sleep(20);
+        if (requests.incrementAndGet() > changeAfter) {
+          eTag = "\"v2\"";
+        }
+        String range = request.getHeader(HttpHeaders.RANGE);
+        String validator = request.getHeader(HttpHeaders.IF_RANGE);
+        if (validator != null) {
+          validators.add(validator);
+        }
+        if (range != null && failing.contains(range)) {
+          return new MockResponse().setResponseCode(503);
+        }
+        if (range != null) {
+          ranges.add(range);
+        }
+        if (!ranged || range == null || validator != null && !validator.equals(eTag)) {
+          return new MockResponse().setHeader(HttpHeaders.ETAG, eTag).setBody(new Buffer().write(data));
+        }
+        List<Integer> bounds = Arrays.stream(range.substring("bytes=".length()).split("-"))
+            .map(Integer::valueOf).collect(Collectors.toList());
+        int start = bounds.get(0);
+        int end = Math.min(bounds.get(1), data.length - 1);
+        return new MockResponse().setResponseCode(206)
+            .setHeader(HttpHeaders.ETAG, eTag)
+            .setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + (start + shift) + "-" + (end + shift) + "/" + data.length)
+            .setBody(new Buffer().write(Arrays.copyOfRange(data, start, end + 1)));
+      } finally {
+        inFlight.decrementAndGet();
+      }
+    }
+  }
+}
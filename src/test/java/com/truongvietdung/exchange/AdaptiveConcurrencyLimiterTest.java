@@ -0,0 +1,96 @@
+package com.truongvietdung.exchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.config.ConcurrencyLimitInfo;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+
+class AdaptiveConcurrencyLimiterTest {
+
+  private static final long RTT = 10_000_000;
+
+  private final ConcurrencyLimitInfo info = new ConcurrencyLimitInfo()
+      .setEnabled(true)
+      .setInitialLimit(10)
+      .setMinLimit(2)
+      .setMaxLimit(50);
+
+  @Test
+  void rejectsBeyondTheLimit() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(info.setInitialLimit(2));
+
+    assertThat(limiter.tryAcquire()).isEqualTo(1);
+    assertThat(limiter.tryAcquire()).isEqualTo(2);
+    assertThat(limiter.tryAcquire()).isEqualTo(-1);
+    assertThat(limiter.getRejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void dropsCutTheLimitMultiplicativelyDownToMinLimit() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(info);
+
+    limiter.release(RTT, limiter.tryAcquire(), true);
+    assertThat(limiter.getLimit()).isEqualTo(9);
+    for (int i = 0; i < 100; i++) {
+      limiter.release(RTT, limiter.tryAcquire(), true);
+    }
+    assertThat(limiter.getLimit()).isEqualTo(2);
+    assertThat(limiter.getInFlight()).isZero();
+  }
+
+  @Test
+  void growsWhileFullyUsedAtBaselineLatencyUpToMaxLimit() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(info);
+    for (int i = 0; i < 1_000; i++) {
+      limiter.tryAcquire();
+      limiter.release(RTT, limiter.getLimit(), false);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(50);
+  }
+
+  @Test
+  void doesNotGrowWhenMostOfTheLimitIsUnused() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(info);
+    for (int i = 0; i < 1_000; i++) {
+      limiter.release(RTT, limiter.tryAcquire(), false);
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(10);
+  }
+
+  @Test
+  void shrinksWhenLatencyClimbsAboveTheBaseline() {
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(info.setInitialLimit(40));
+    for (int i = 0; i < 20; i++) {
+      limiter.tryAcquire();
+      limiter.release(RTT, limiter.getLimit(), false);
+    }
+    int before = limiter.getLimit();
+    for (int i = 0; i < 50; i++) {
+      limiter.tryAcquire();
+      limiter.release(RTT * 10, limiter.getLimit(), false);
+    }
+
+    assertThat(limiter.getLimit()).isLessThan(before);
+  }
+
+  @Test
+  void filterRejectsAtTheLimitAndTreatsIoErrorsAsDrops() {
+    ConcurrencyLimitFilter filter = new ConcurrencyLimitFilter(new AdaptiveConcurrencyLimiter(info));
+
+    assertThatThrownBy(() -> filter.filter(TestExchanges.get("http://partner/orders"),
+        TestExchanges.failing(new ResourceAccessException("Read timed out"))))
+        .isInstanceOf(ResourceAccessException.class);
+    assertThat(filter.getLimiter().getLimit()).isEqualTo(9);
+
+    AdaptiveConcurrencyLimiter full = new AdaptiveConcurrencyLimiter(info.setInitialLimit(2).setMinLimit(1));
+    ConcurrencyLimitFilter fullFilter = new ConcurrencyLimitFilter(full);
+    full.tryAcquire();
+    full.tryAcquire();
+    assertThatThrownBy(() -> fullFilter.filter(TestExchanges.get("http://partner/orders"), TestExchanges.ok()))
+        .isInstanceOf(ConcurrencyLimitExceededException.class);
+  }
+}
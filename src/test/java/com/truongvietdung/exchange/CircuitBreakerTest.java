@@ -0,0 +1,150 @@
+package com.truongvietdung.exchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.config.CircuitBreakerInfo;
+import com.truongvietdung.exchange.CircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+class CircuitBreakerTest {
+
+  private static final long FAST = 1_000;
+
+  private final CircuitBreakerInfo info = new CircuitBreakerInfo()
+      .setEnabled(true)
+      .setWindowSize(10)
+      .setMinimumCalls(4)
+      .setFailureRateThreshold(50)
+      .setSlowCallRateThreshold(100)
+      .setSlowCallDuration(1_000)
+      .setOpenDuration(50)
+      .setHalfOpenProbes(2);
+
+  @Test
+  void staysClosedBelowMinimumCalls() {
+    CircuitBreaker breaker = new CircuitBreaker("test", info);
+    for (int i = 0; i < 3; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, true);
+    }
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void opensAtFailureRateAndRejects() {
+    CircuitBreaker breaker = openBreaker();
+
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    assertThat(breaker.tryAcquire()).isNegative();
+    assertThat(breaker.getRejectedCount()).isEqualTo(1);
+  }
+
+  @Test
+  void opensAtSlowCallRate() {
+    CircuitBreaker breaker = new CircuitBreaker("test", info.setSlowCallRateThreshold(50));
+    for (int i = 0; i < 4; i++) {
+      breaker.onResult(breaker.tryAcquire(), 2_000_000_000L, false);
+    }
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+  }
+
+  @Test
+  void halfOpenProbesCloseTheBreaker() throws InterruptedException {
+    CircuitBreaker breaker = openBreaker();
+    Thread.sleep(60);
+
+    long first = breaker.tryAcquire();
+    long second = breaker.tryAcquire();
+    assertThat(breaker.getState()).isEqualTo(State.HALF_OPEN);
+    assertThat(breaker.tryAcquire()).as("only halfOpenProbes calls are admitted").isNegative();
+
+    breaker.onResult(first, FAST, false);
+    breaker.onResult(second, FAST, false);
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void failedProbesReopenTheBreaker() throws InterruptedException {
+    CircuitBreaker breaker = openBreaker();
+    Thread.sleep(60);
+
+    long first = breaker.tryAcquire();
+    long second = breaker.tryAcquire();
+    breaker.onResult(first, FAST, true);
+    breaker.onResult(second, FAST, true);
+
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+  }
+
+  @Test
+  void releasedProbeCanBeReissued() throws InterruptedException {
+    CircuitBreaker breaker = openBreaker();
+    Thread.sleep(60);
+
+    long first = breaker.tryAcquire();
+    breaker.tryAcquire();
+    breaker.release(first);
+
+    assertThat(breaker.tryAcquire()).isNotNegative();
+  }
+
+  @Test
+  void outcomesOfEarlierGenerationsAreIgnored() throws InterruptedException {
+    CircuitBreaker breaker = new CircuitBreaker("test", info);
+    long stale = breaker.tryAcquire();
+    for (int i = 0; i < 4; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, true);
+    }
+    Thread.sleep(60);
+    long probe = breaker.tryAcquire();
+
+    breaker.onResult(stale, FAST, true);
+    breaker.onResult(probe, FAST, false);
+    breaker.onResult(breaker.tryAcquire(), FAST, false);
+
+    assertThat(breaker.getState()).isEqualTo(State.CLOSED);
+  }
+
+  @Test
+  void filterRejectsWhileOpenAndCountsServerErrors() {
+    CircuitBreakerFilter filter = new CircuitBreakerFilter(new CircuitBreaker("test", info));
+    ExchangeRequest request = TestExchanges.get("http://partner/orders");
+    for (int i = 0; i < 4; i++) {
+      try {
+        filter.filter(request, TestExchanges.failing(TestExchanges.serverError()));
+      } catch (RuntimeException ignored) {
+        // counted by the breaker
+      }
+    }
+
+    assertThat(filter.getCircuitBreaker().getState()).isEqualTo(State.OPEN);
+    assertThatThrownBy(() -> filter.filter(request, TestExchanges.ok()))
+        .isInstanceOf(CircuitBreakerOpenException.class);
+  }
+
+  @Test
+  void errorInAProbeStillReportsItsPermit() throws InterruptedException {
+    CircuitBreaker breaker = openBreaker();
+    CircuitBreakerFilter filter = new CircuitBreakerFilter(breaker);
+    Thread.sleep(60);
+
+    for (int i = 0; i < 2; i++) {
+      assertThatThrownBy(() -> filter.filter(TestExchanges.get("http://partner/a"), request -> {
+        throw new StackOverflowError();
+      })).isInstanceOf(StackOverflowError.class);
+    }
+
+    // both probes were reported, so the breaker can leave half-open instead of rejecting forever
+    assertThat(breaker.getState()).isNotEqualTo(State.HALF_OPEN);
+    Thread.sleep(60);
+    assertThat(breaker.tryAcquire()).isNotNegative();
+  }
+
+  private CircuitBreaker openBreaker() {
+    CircuitBreaker breaker = new CircuitBreaker("test", info);
+    for (int i = 0; i < 4; i++) {
+      breaker.onResult(breaker.tryAcquire(), FAST, i % 2 == 0);
+    }
+    return breaker;
+  }
+}
@@ -0,0 +1,101 @@
+package com.truongvietdung.exchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.config.CircuitBreakerInfo;
+import com.truongvietdung.config.ConcurrencyLimitInfo;
+import com.truongvietdung.config.RetryInfo;
+import com.truongvietdung.exchange.CircuitBreaker.State;
+import com.truongvietdung.metrics.ExchangeOutcome;
+import com.truongvietdung.metrics.InMemoryThirdPartyMetrics;
+import com.truongvietdung.metrics.MetricsFilter;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.web.client.ResourceAccessException;
+
+class ExchangePipelineAdmissionTest {
+
+  private final InMemoryThirdPartyMetrics metrics = new InMemoryThirdPartyMetrics();
+  private final CircuitBreaker breaker = new CircuitBreaker("test", new CircuitBreakerInfo()
+      .setEnabled(true)
+      .setWindowSize(10)
+      .setMinimumCalls(4)
+      .setOpenDuration(60_000));
+  private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new ConcurrencyLimitInfo()
+      .setEnabled(true)
+      .setInitialLimit(2)
+      .setMinLimit(2)
+      .setMaxLimit(2));
+  private final ExchangePipeline pipeline = new ExchangePipeline(Arrays.asList(
+      new MetricsFilter("test", metrics),
+      new RetryFilter(new RetryInfo().setEnabled(true)),
+      new CircuitBreakerFilter(breaker),
+      new ConcurrencyLimitFilter(limiter)));
+
+  @Test
+  void admissionHoldsALimiterSlotUntilItCompletes() {
+    Admission first = pipeline.admit(TestExchanges.get("http://partner/stream"));
+    Admission second = pipeline.admit(TestExchanges.get("http://partner/stream"));
+
+    assertThat(limiter.getInFlight()).isEqualTo(2);
+    assertThatThrownBy(() -> pipeline.admit(TestExchanges.get("http://partner/stream")))
+        .isInstanceOf(ConcurrencyLimitExceededException.class);
+
+    first.onResponse(200);
+    second.onError(new ResourceAccessException("reset"));
+    assertThat(limiter.getInFlight()).isZero();
+    pipeline.admit(TestExchanges.get("http://partner/stream")).onResponse(200);
+    assertThat(metrics.getHistogram("test", HttpMethod.GET, "2xx").getCount()).isEqualTo(2);
+    assertThat(metrics.getHistogram("test", HttpMethod.GET, ExchangeOutcome.IO_ERROR).getCount()).isEqualTo(1);
+  }
+
+  @Test
+  void innerRejectionIsReportedToOuterFiltersAndReleasesTheBreakerPermit() {
+    Admission first = pipeline.admit(TestExchanges.get("http://partner/stream"));
+    Admission second = pipeline.admit(TestExchanges.get("http://partner/stream"));
+    for (int i = 0; i < 10; i++) {
+      assertThatThrownBy(() -> pipeline.admit(TestExchanges.get("http://partner/stream")))
+          .isInstanceOf(ConcurrencyLimitExceededException.class);
+    }
+
+    assertThat(metrics.getHistogram("test", HttpMethod.GET, ExchangeOutcome.REJECTED).getCount()).isEqualTo(10);
+    assertThat(breaker.getState()).as("rejections are not breaker results").isEqualTo(State.CLOSED);
+    first.onResponse(200);
+    second.onResponse(200);
+  }
+
+  @Test
+  void failedAdmittedCallsOpenTheBreaker() {
+    for (int i = 0; i < 2; i++) {
+      pipeline.admit(TestExchanges.get("http://partner/upload")).onError(new ResourceAccessException("timeout"));
+      pipeline.admit(TestExchanges.get("http://partner/upload")).onResponse(503);
+    }
+
+    assertThat(breaker.getState()).isEqualTo(State.OPEN);
+    assertThatThrownBy(() -> pipeline.admit(TestExchanges.get("http://partner/upload")))
+        .isInstanceOf(CircuitBreakerOpenException.class);
+    assertThat(limiter.getInFlight()).isZero();
+  }
+
+  @Test
+  void outcomeIsReportedOnce() {
+    Admission admission = pipeline.admit(TestExchanges.get("http://partner/stream"));
+
+    admission.onResponse(200);
+    admission.onError(new ResourceAccessException("late"));
+    admission.onResponse(200);
+
+    assertThat(limiter.getInFlight()).isZero();
+    assertThat(metrics.getRequestCount("test")).isEqualTo(1);
+  }
+
+  @Test
+  void pipelineWithoutAdmissionFiltersAdmitsEverything() {
+    ExchangePipeline retryOnly = new ExchangePipeline(
+        Arrays.asList(new RetryFilter(new RetryInfo().setEnabled(true))));
+
+    assertThat(retryOnly.admit(TestExchanges.get("http://partner/stream"))).isSameAs(Admission.NONE);
+  }
+}
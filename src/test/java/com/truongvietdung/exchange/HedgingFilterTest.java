@@ -0,0 +1,156 @@
+package com.truongvietdung.exchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.config.ConcurrencyLimitInfo;
+import com.truongvietdung.config.HedgeInfo;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.ResourceAccessException;
+
+class HedgingFilterTest {
+
+  private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final HedgeInfo info = new HedgeInfo()
+      .setEnabled(true)
+      .setInitialDelay(20)
+      .setMaxHedgeRatio(1.0)
+      .setMaxHedgeTokens(10);
+
+  @AfterEach
+  void shutdown() {
+    scheduler.shutdownNow();
+    executor.shutdownNow();
+  }
+
+  @Test
+  void fastPrimarySendsNoHedge() {
+    HedgingFilter filter = new HedgingFilter(info, scheduler, executor);
+
+    assertThat(filter.filter(TestExchanges.get("http://partner/orders"), TestExchanges.ok()).getBody())
+        .isEqualTo("ok");
+    assertThat(filter.getHedgeCount()).isZero();
+  }
+
+  @Test
+  void hedgeAnswersASlowPrimaryAndAbortsIt() {
+    HedgingFilter filter = new HedgingFilter(info, scheduler, executor);
+    AtomicInteger attempts = new AtomicInteger();
+    CountDownLatch primaryAborted = new CountDownLatch(1);
+
+    ResponseEntity<?> response = filter.filter(TestExchanges.get("http://partner/orders"), request -> {
+      if (attempts.incrementAndGet() == 1) {
+        return blockUntilAborted(primaryAborted);
+      }
+      return ResponseEntity.ok("hedge");
+    });
+
+    assertThat(response.getBody()).isEqualTo("hedge");
+    assertThat(filter.getHedgeCount()).isEqualTo(1);
+    assertThat(filter.getHedgeWinCount()).isEqualTo(1);
+    assertThat(primaryAborted.getCount()).isZero();
+  }
+
+  @Test
+  void primaryFailingBeforeTheDelayStartsNoHedgeAndKeepsTheBudget() throws InterruptedException {
+    HedgingFilter filter = new HedgingFilter(info.setInitialDelay(50), scheduler, executor);
+
+    RuntimeException failure = new ResourceAccessException("Connection refused");
+    assertThatThrownBy(() -> filter.filter(TestExchanges.get("http://partner/orders"),
+        TestExchanges.failing(failure)))
+        .isSameAs(failure);
+    Thread.sleep(100);
+
+    assertThat(filter.getHedgeCount()).isZero();
+    assertThat(filter.getHedgeBudget().getBalance()).isEqualTo(1.0);
+  }
+
+  @Test
+  void primaryFailureWaitsForAStartedHedge() {
+    HedgingFilter filter = new HedgingFilter(info.setInitialDelay(1), scheduler, executor);
+    AtomicInteger attempts = new AtomicInteger();
+
+    ResponseEntity<?> response = filter.filter(TestExchanges.get("http://partner/orders"), request -> {
+      if (attempts.incrementAndGet() == 1) {
+        sleep(100);
+        throw new ResourceAccessException("Connection reset");
+      }
+      return ResponseEntity.ok("hedge");
+    });
+
+    assertThat(response.getBody()).isEqualTo("hedge");
+  }
+
+  @Test
+  void losingAttemptDoesNotShrinkTheConcurrencyLimit() {
+    // latency never lowers this limit, only drops would
+    AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(new ConcurrencyLimitInfo()
+        .setInitialLimit(10)
+        .setRttTolerance(1_000));
+    ExchangePipeline pipeline = new ExchangePipeline(Arrays.asList(
+        new HedgingFilter(info, scheduler, executor), new ConcurrencyLimitFilter(limiter)));
+    AtomicInteger attempts = new AtomicInteger();
+
+    for (int i = 0; i < 5; i++) {
+      attempts.set(0);
+      pipelineExchange(pipeline, request -> {
+        if (attempts.incrementAndGet() == 1) {
+          return blockUntilAborted(new CountDownLatch(1));
+        }
+        return ResponseEntity.ok("hedge");
+      });
+    }
+
+    assertThat(limiter.getLimit()).isEqualTo(10);
+    awaitIdle(limiter);
+  }
+
+  private static ResponseEntity<?> blockUntilAborted(CountDownLatch aborted) {
+    CountDownLatch released = new CountDownLatch(1);
+    AbortHandle.register(() -> {
+      aborted.countDown();
+      released.countDown();
+    });
+    try {
+      released.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    throw new ResourceAccessException("Request aborted");
+  }
+
+  private static void pipelineExchange(ExchangePipeline pipeline, ExchangeExecution terminal) {
+    ExchangeExecution chain = terminal;
+    for (int i = pipeline.getFilters().size() - 1; i >= 0; i--) {
+      ExchangeFilter filter = pipeline.getFilters().get(i);
+      ExchangeExecution next = chain;
+      chain = request -> filter.filter(request, next);
+    }
+    chain.execute(TestExchanges.get("http://partner/orders"));
+  }
+
+  private static void awaitIdle(AdaptiveConcurrencyLimiter limiter) {
+    for (int i = 0; i < 100 && limiter.getInFlight() > 0; i++) {
+      sleep(10);
+    }
+    assertThat(limiter.getInFlight()).isZero();
+  }
+
+  private static void sleep(long millis) {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package com.truongvietdung.exchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+
+class RetryBudgetTest {
+
+  @Test
+  void depositsAllowOneRetryPerRatioOfCalls() {
+    RetryBudget budget = new RetryBudget(0.2, 100, 0);
+    for (int i = 0; i < 10; i++) {
+      budget.deposit();
+    }
+
+    assertThat(budget.getBalance()).isEqualTo(2.0);
+    assertThat(budget.tryWithdraw()).isTrue();
+    assertThat(budget.tryWithdraw()).isTrue();
+    assertThat(budget.tryWithdraw()).isFalse();
+  }
+
+  @Test
+  void balanceIsCappedAtMaxTokens() {
+    RetryBudget budget = new RetryBudget(1.0, 3, 0);
+    for (int i = 0; i < 10; i++) {
+      budget.deposit();
+    }
+
+    assertThat(budget.getBalance()).isEqualTo(3.0);
+  }
+
+  @Test
+  void reserveAllowsRetriesWithoutTraffic() {
+    RetryBudget budget = new RetryBudget(0.2, 100, 2);
+    int granted = 0;
+    for (int i = 0; i < 5; i++) {
+      granted += budget.tryWithdraw() ? 1 : 0;
+    }
+
+    // the reserve is per second, a test crossing a second boundary may get it twice
+    assertThat(granted).isBetween(2, 4);
+  }
+}
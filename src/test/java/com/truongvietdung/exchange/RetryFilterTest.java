@@ -0,0 +1,64 @@
+package com.truongvietdung.exchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.truongvietdung.config.RetryInfo;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+
+class RetryFilterTest {
+
+  @Test
+  void filterRetriesRetryableStatusesUpToMaxAttempts() {
+    RetryFilter filter = new RetryFilter(fastRetries());
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThatThrownBy(() -> filter.filter(TestExchanges.get("http://partner/orders"), request -> {
+      attempts.incrementAndGet();
+      throw TestExchanges.serverError();
+    })).isInstanceOf(HttpServerErrorException.class);
+    assertThat(attempts).hasValue(3);
+    assertThat(filter.getRetryCount()).isEqualTo(2);
+  }
+
+  @Test
+  void filterDoesNotRetryClientErrorsOrNonIdempotentMethods() {
+    RetryFilter filter = new RetryFilter(fastRetries());
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThatThrownBy(() -> filter.filter(TestExchanges.get("http://partner/orders"), request -> {
+      attempts.incrementAndGet();
+      throw HttpClientErrorException.create(HttpStatus.BAD_REQUEST, "Bad Request", null, null, null);
+    })).isInstanceOf(HttpClientErrorException.class);
+    ExchangeRequest get = TestExchanges.get("http://partner/orders");
+    ExchangeRequest post = new ExchangeRequest(HttpMethod.POST, get.getUri(), get.getEntity(), get.getResponseType());
+    assertThatThrownBy(() -> filter.filter(post, request -> {
+      attempts.incrementAndGet();
+      throw TestExchanges.serverError();
+    })).isInstanceOf(HttpServerErrorException.class);
+
+    assertThat(attempts).hasValue(2);
+  }
+
+  @Test
+  void filterStopsRetryingWhenTheBudgetIsEmpty() {
+    RetryFilter filter = new RetryFilter(fastRetries().setBudgetRatio(0).setBudgetMinRetriesPerSecond(0));
+    AtomicInteger attempts = new AtomicInteger();
+
+    assertThatThrownBy(() -> filter.filter(TestExchanges.get("http://partner/orders"), request -> {
+      attempts.incrementAndGet();
+      throw TestExchanges.serverError();
+    })).isInstanceOf(HttpServerErrorException.class);
+    assertThat(attempts).hasValue(1);
+    assertThat(filter.getBudgetExhaustedCount()).isEqualTo(1);
+  }
+
+  private RetryInfo fastRetries() {
+    return new RetryInfo().setEnabled(true).setInitialBackoff(1).setMaxBackoff(1).setBudgetRatio(1.0);
+  }
+}
@@ -0,0 +1,118 @@
+package com.truongvietdung.exchange;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+
+class SingleFlightFilterTest {
+
+  private static final int FOLLOWERS = 4;
+
+  private final ExecutorService executor = Executors.newCachedThreadPool();
+  private final SingleFlightFilter filter = new SingleFlightFilter(new ObjectMapper());
+  private final AtomicInteger calls = new AtomicInteger();
+
+  @AfterEach
+  void shutdown() {
+    executor.shutdownNow();
+  }
+
+  @Test
+  void followersGetTheirOwnCopyOfAMutableBody() throws Exception {
+    List<Future<ResponseEntity<?>>> callers = callConcurrently(
+        r -> ResponseEntity.ok().header("X-Version", "1").body(new ArrayList<>(Arrays.asList("a", "b"))));
+
+    List<Object> bodies = new ArrayList<>();
+    for (Future<ResponseEntity<?>> caller : callers) {
+      ResponseEntity<?> response = caller.get(5, TimeUnit.SECONDS);
+      assertThat(response.getStatusCodeValue()).isEqualTo(200);
+      assertThat(response.getHeaders().getFirst("X-Version")).isEqualTo("1");
+      assertThat(response.getBody()).isEqualTo(Arrays.asList("a", "b"));
+      assertThat(bodies).noneMatch(body -> body == response.getBody());
+      bodies.add(response.getBody());
+    }
+    assertThat(calls.get()).isEqualTo(1);
+    assertThat(filter.getCollapsedCount()).isEqualTo(FOLLOWERS);
+  }
+
+  @Test
+  void followersGetTheLeadersFailure() throws Exception {
+    HttpServerErrorException failure = TestExchanges.serverError();
+    List<Future<ResponseEntity<?>>> callers = callConcurrently(r -> {
+      throw failure;
+    });
+
+    for (Future<ResponseEntity<?>> caller : callers) {
+      assertThatThrownBy(() -> caller.get(5, TimeUnit.SECONDS)).hasCause(failure);
+    }
+    assertThat(calls.get()).isEqualTo(1);
+  }
+
+  @Test
+  void callsAfterTheLeaderFinishedAreNotCoalesced() {
+    ExchangeRequest request = request();
+    ExchangeExecution execution = r -> ResponseEntity.ok(new ArrayList<>(Arrays.asList("a", String.valueOf(
+        calls.incrementAndGet()))));
+
+    filter.filter(request, execution);
+    filter.filter(request, execution);
+
+    assertThat(filter.getExecutedCount()).isEqualTo(2);
+    assertThat(filter.getCollapsedCount()).isZero();
+  }
+
+  /**
+   * Starts a leader blocked in the call and {@link #FOLLOWERS} followers, then lets the leader's call
+   * return {@code response}.
+   */
+  private List<Future<ResponseEntity<?>>> callConcurrently(ExchangeExecution response) throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    ExchangeRequest request = request();
+    ExchangeExecution execution = r -> {
+      calls.incrementAndGet();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return response.execute(r);
+    };
+    List<Future<ResponseEntity<?>>> callers = new ArrayList<>();
+    callers.add(executor.submit(() -> filter.filter(request, execution)));
+    while (calls.get() == 0) {
+      Thread.sleep(5);
+    }
+    for (int i = 0; i < FOLLOWERS; i++) {
+      callers.add(executor.submit(() -> filter.filter(request, execution)));
+    }
+    while (filter.getCollapsedCount() < FOLLOWERS) {
+      Thread.sleep(5);
+    }
+    release.countDown();
+    return callers;
+  }
+
+  private static ExchangeRequest request() {
+    return new ExchangeRequest(HttpMethod.GET, URI.create("http://partner/items"), HttpEntity.EMPTY,
+        new ParameterizedTypeReference<List<String>>() {
+        });
+  }
+}
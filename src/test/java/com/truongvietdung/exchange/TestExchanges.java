@@ -0,0 +1,37 @@
+package com.truongvietdung.exchange;
+
+import java.net.URI;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+
+/**
+ * Requests and terminal executions for filter tests.
+ */
+final class TestExchanges {
+
+  private TestExchanges() {
+  }
+
+  static ExchangeRequest get(String uri) {
+    return new ExchangeRequest(HttpMethod.GET, URI.create(uri), HttpEntity.EMPTY,
+        ParameterizedTypeReference.forType(String.class));
+  }
+
+  static ExchangeExecution ok() {
+    return request -> ResponseEntity.ok("ok");
+  }
+
+  static ExchangeExecution failing(RuntimeException exception) {
+    return request -> {
+      throw exception;
+    };
+  }
+
+  static HttpServerErrorException serverError() {
+    return HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", null, null, null);
+  }
+}
@@ -0,0 +1,79 @@
+package com.truongvietdung.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.truongvietdung.config.ApiInfo;
+import com.truongvietdung.config.ThirdPartyConfiguration;
+import java.io.InputStream;
+import java.util.Map;
+import java.util.stream.Stream;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+
+/**
+ * Connection reuse of streamed responses: a body consumed up to its end keeps the connection pooled, one
+ * closed early is aborted.
+ */
+class ResponseStreamTest {
+
+  private final MockWebServer server = new MockWebServer();
+  private final ThirdPartyConfiguration configuration = new ThirdPartyConfiguration();
+
+  @BeforeEach
+  void start() throws Exception {
+    server.start();
+    configuration.put("partner", new ApiInfo().setBaseUrl(server.url("/").toString()));
+    configuration.thirdPartyRestTemplate();
+  }
+
+  @AfterEach
+  void stop() throws Exception {
+    configuration.destroy();
+    server.shutdown();
+  }
+
+  @Test
+  void decodedChunkedArrayKeepsTheConnection() throws InterruptedException {
+    for (int i = 0; i < 2; i++) {
+      server.enqueue(new MockResponse().setHeader("Content-Type", "application/json")
+          .setChunkedBody("[{\"id\":1},{\"id\":2}]\n", 4));
+    }
+
+    for (int i = 0; i < 2; i++) {
+      try (Stream<Map> items = builder().getResponseAsStream(Map.class)) {
+        assertThat(items.count()).isEqualTo(2);
+      }
+    }
+
+    assertThat(server.takeRequest().getSequenceNumber()).isZero();
+    assertThat(server.takeRequest().getSequenceNumber()).isEqualTo(1);
+  }
+
+  @Test
+  void bodyClosedEarlyIsAborted() throws Exception {
+    server.enqueue(new MockResponse().setChunkedBody(new String(new byte[1024 * 1024]), 16 * 1024));
+    server.enqueue(new MockResponse().setBody("ok"));
+
+    try (InputStream body = builder().getResponseAsInputStream()) {
+      assertThat(body.read(new byte[100])).isPositive();
+    }
+    try (InputStream body = builder().getResponseAsInputStream()) {
+      assertThat(body.read(new byte[2])).isEqualTo(2);
+    }
+
+    server.takeRequest();
+    // a new connection: the first one was not drained to be reused
+    assertThat(server.takeRequest().getSequenceNumber()).isZero();
+  }
+
+  private IRestTemplateBuilder builder() {
+    return RestTemplateBuilder.getInstance(configuration.getRestTemplate("partner"),
+        configuration.getAsyncRestClient("partner"), HttpMethod.GET)
+        .setUrl(server.url("/items").toString())
+        .setExchangePipeline(configuration.getExchangePipeline("partner"));
+  }
+}
@@ -0,0 +1,42 @@
+package com.truongvietdung.helpers;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.Collections;
+import org.junit.jupiter.api.Test;
+
+class UrlTemplateTest {
+
+  @Test
+  void escapesInLiteralsAreKeptWithAndWithoutVariables() {
+    assertThat(UrlTemplate.compile("http://h/a%20b/x").toUri()).hasToString("http://h/a%20b/x");
+    assertThat(UrlTemplate.compile("http://h/a%20b/{id}").expand(Collections.singletonMap("id", "x")))
+        .hasToString("http://h/a%20b/x");
+  }
+
+  @Test
+  void literalsAreEncodedOnceTheSameWayWithAndWithoutVariables() {
+    assertThat(UrlTemplate.compile("http://h/a b/é?q=1").toUri()).hasToString("http://h/a%20b/%C3%A9?q=1");
+    assertThat(UrlTemplate.compile("http://h/a b/é/{id}?q=1").expand(Collections.singletonMap("id", "x")))
+        .hasToString("http://h/a%20b/%C3%A9/x?q=1");
+  }
+
+  @Test
+  void variableValuesAreEncodedAsOneSegment() {
+    assertThat(UrlTemplate.compile("http://h/users/{id}").expand(Collections.singletonMap("id", "a b/c")))
+        .hasToString("http://h/users/a%20b%2Fc");
+  }
+
+  @Test
+  void unexpandedVariablesStayEncodedInTheUri() {
+    assertThat(UrlTemplate.compile("http://h/users/{ id }/x").toUri()).hasToString("http://h/users/%7Bid%7D/x");
+  }
+
+  @Test
+  void missingVariableIsRejected() {
+    assertThatThrownBy(() -> UrlTemplate.compile("http://h/users/{id}").expand(Collections.emptyMap()))
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("'id'");
+  }
+}
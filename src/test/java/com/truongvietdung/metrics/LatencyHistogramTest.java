@@ -0,0 +1,52 @@
+package com.truongvietdung.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class LatencyHistogramTest {
+
+  @Test
+  void smallValuesHaveTheirOwnBucket() {
+    for (long micros = 0; micros < 32; micros++) {
+      assertThat(LatencyHistogram.indexOf(micros)).isEqualTo((int) micros);
+      assertThat(LatencyHistogram.highestValueOf((int) micros)).isEqualTo(micros);
+    }
+  }
+
+  @Test
+  void bucketsAreContiguousUpToLongMaxValue() {
+    int last = LatencyHistogram.indexOf(Long.MAX_VALUE);
+    assertThat(LatencyHistogram.highestValueOf(last)).isEqualTo(Long.MAX_VALUE);
+    for (int index = 0; index < last; index++) {
+      long highest = LatencyHistogram.highestValueOf(index);
+      assertThat(LatencyHistogram.indexOf(highest)).isEqualTo(index);
+      assertThat(LatencyHistogram.indexOf(highest + 1)).isEqualTo(index + 1);
+    }
+  }
+
+  @Test
+  void bucketUpperBoundIsWithinOneSixteenthOfTheValue() {
+    for (long micros = 1; micros > 0 && micros < Long.MAX_VALUE / 3; micros = micros * 3 + 7) {
+      long highest = LatencyHistogram.highestValueOf(LatencyHistogram.indexOf(micros));
+      assertThat(highest).isGreaterThanOrEqualTo(micros);
+      assertThat((double) (highest - micros) / micros).isLessThanOrEqualTo(1.0 / 16);
+    }
+  }
+
+  @Test
+  void percentilesAreCappedByTheMaximum() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int millis = 1; millis <= 100; millis++) {
+      histogram.record(TimeUnit.MILLISECONDS.toNanos(millis));
+    }
+
+    assertThat(histogram.getCount()).isEqualTo(100);
+    assertThat(histogram.getMeanNanos()).isEqualTo(TimeUnit.MICROSECONDS.toNanos(50_500));
+    assertThat(histogram.getPercentileNanos(50)).isBetween(TimeUnit.MILLISECONDS.toNanos(50),
+        TimeUnit.MICROSECONDS.toNanos(53_125));
+    assertThat(histogram.getPercentileNanos(100)).isEqualTo(TimeUnit.MILLISECONDS.toNanos(100));
+    assertThat(new LatencyHistogram().getPercentileNanos(99)).isZero();
+  }
+}
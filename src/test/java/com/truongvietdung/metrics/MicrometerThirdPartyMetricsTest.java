@@ -0,0 +1,41 @@
+package com.truongvietdung.metrics;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.http.pool.PoolStats;
+import org.junit.jupiter.api.Test;
+
+class MicrometerThirdPartyMetricsTest {
+
+  @Test
+  void poolGaugesSurviveGarbageCollection() throws InterruptedException {
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    MicrometerThirdPartyMetrics metrics = new MicrometerThirdPartyMetrics(registry);
+    // bound to an object nothing else references, like the connection managers' getTotalStats
+    metrics.registerPool("partner", new Pool(3, 1, 2, 10)::getTotalStats);
+
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(10);
+    }
+
+    assertThat(registry.get("third_party.pool.leased").tag("pool", "partner").gauge().value()).isEqualTo(3);
+    assertThat(registry.get("third_party.pool.pending").tag("pool", "partner").gauge().value()).isEqualTo(1);
+    assertThat(registry.get("third_party.pool.available").tag("pool", "partner").gauge().value()).isEqualTo(2);
+    assertThat(registry.get("third_party.pool.max").tag("pool", "partner").gauge().value()).isEqualTo(10);
+  }
+
+  private static final class Pool {
+
+    private final PoolStats stats;
+
+    Pool(int leased, int pending, int available, int max) {
+      this.stats = new PoolStats(leased, pending, available, max);
+    }
+
+    PoolStats getTotalStats() {
+      return stats;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.truongvietdung.upload;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.MediaType;
+
+/**
+ * File bodies must reach the connection in small chunks: nothing the size of the payload may be allocated
+ * on the heap, which is what lets a 200 MB upload run under {@code -Xmx64m}.
+ */
+class UploadBodyTest {
+
+  private static final long SIZE = 200L * 1024 * 1024;
+  private static final int MAX_CHUNK = 64 * 1024;
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void fileIsWrittenInSmallChunks() throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+
+    UploadBody.of(sparseFile(), MediaType.APPLICATION_OCTET_STREAM).writeTo(out);
+
+    assertThat(out.total).isEqualTo(SIZE);
+    assertThat(out.largestWrite).isBetween(1, MAX_CHUNK);
+  }
+
+  @Test
+  void mappedFileIsWrittenInSmallChunks() throws IOException {
+    CountingOutputStream out = new CountingOutputStream();
+
+    UploadBody.map(sparseFile(), MediaType.APPLICATION_OCTET_STREAM).writeTo(out);
+
+    assertThat(out.total).isEqualTo(SIZE);
+    assertThat(out.largestWrite).isBetween(1, MAX_CHUNK);
+  }
+
+  private Path sparseFile() throws IOException {
+    Path file = directory.resolve("upload.bin");
+    try (RandomAccessFile randomAccessFile = new RandomAccessFile(file.toFile(), "rw")) {
+      randomAccessFile.setLength(SIZE);
+    }
+    return file;
+  }
+
+  private static final class CountingOutputStream extends OutputStream {
+
+    private long total;
+    private int largestWrite;
+
+    @Override
+    public void write(int b) {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      total += len;
+      largestWrite = Math.max(largestWrite, len);
+    }
+  }
+}